@@ -0,0 +1,94 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.forkjoin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.monitoring.ForkJoinStatistics;
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolSnapshot;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+
+public class ExtendedForkJoinPoolTest {
+
+	@Test
+	public void testStatistics() throws Exception {
+		ExtendedForkJoinPool pool = new ExtendedForkJoinPool(2, "fork-join-test");
+		pool.postConstruct();
+
+		for (int i = 0; i < 5; i++) {
+			Future<Integer> future = pool.submit(() -> 42);
+			assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(42);
+			pool.submit(() -> {}).get(10, TimeUnit.SECONDS);
+		}
+		// fork-join tasks are only counted as submissions, neither they nor their subtasks are timed
+		assertThat(pool.invoke(new Fibonacci(10))).isEqualTo(55);
+
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		try {
+			pool.execute(() -> {});
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getStatistics().stream() //
+				.filter(s -> "fork-join-test".equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+		try {
+			assertThat(statistics).isInstanceOf(ForkJoinStatistics.class);
+			assertThat(((ForkJoinStatistics) statistics).getParallelism()).isEqualTo(2);
+			assertThat(statistics.currentlyRunning()).isEqualTo(0);
+			assertThat(statistics.totalExecutions()).isEqualTo(10L);
+			assertThat(statistics.getRunningTimePercentiles()).isNotNull();
+			assertThat(statistics.getSampledRatio()).isEqualTo(1d);
+
+			ThreadPoolSnapshot snapshot = statistics.getSnapshot();
+			assertThat(snapshot.getSubmittedCount()).isEqualTo(11L);
+			assertThat(snapshot.getRejectedCount()).isEqualTo(1L);
+			assertThat(snapshot.getCompletedCount()).isEqualTo(10L);
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+		}
+	}
+
+	private static class Fibonacci extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+		private final int n;
+
+		Fibonacci(int n) {
+			this.n = n;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (n <= 1) {
+				return n;
+			}
+			Fibonacci f1 = new Fibonacci(n - 1);
+			f1.fork();
+			return new Fibonacci(n - 2).compute() + f1.join();
+		}
+	}
+}
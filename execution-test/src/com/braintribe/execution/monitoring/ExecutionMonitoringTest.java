@@ -0,0 +1,45 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ExecutionMonitoringTest {
+
+	@Test
+	public void testInstantBasedLambda() {
+		List<Instant> instants = new ArrayList<>();
+		ExecutionMonitoring monitoring = (created, executed, finished) -> {
+			instants.add(created);
+			instants.add(executed);
+			instants.add(finished);
+		};
+
+		long created = System.nanoTime();
+		monitoring.executionFinished(created, created + 2_000_000L, created + 5_000_000L);
+
+		assertThat(instants).hasSize(3);
+		assertThat(Duration.between(instants.get(0), instants.get(1))).isEqualTo(Duration.ofMillis(2));
+		assertThat(Duration.between(instants.get(1), instants.get(2))).isEqualTo(Duration.ofMillis(3));
+	}
+}
@@ -0,0 +1,158 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.forkjoin.ExtendedForkJoinPool;
+
+public class ExecutionSlotsTest {
+
+	@Test
+	public void testClaimAndRelease() throws Exception {
+		ExecutionSlots slots = new ExecutionSlots(2);
+		Thread current = Thread.currentThread();
+
+		ExecutionSlot first = slots.acquire(current);
+		ExecutionSlot second = slots.acquire(current);
+		assertThat(first).isNotSameAs(second);
+		assertThat(first.getWorker()).isSameAs(current);
+		assertThat(second.getWorker()).isSameAs(current);
+
+		first.started(7L, System.nanoTime(), true);
+		assertThat(first.isRunning()).isTrue();
+
+		slots.release(first);
+		assertThat(first.getWorker()).isNull();
+		assertThat(first.isRunning()).isFalse();
+
+		assertThat(slots.acquire(current)).isSameAs(first);
+		assertThat(slots.capacity()).isEqualTo(2);
+	}
+
+	@Test
+	public void testReclaimSlotOfDeadWorker() throws Exception {
+		ExecutionSlots slots = new ExecutionSlots(1);
+		Thread dead = Thread.ofPlatform().start(() -> {});
+		dead.join();
+
+		ExecutionSlot slot = slots.acquire(dead);
+		slot.started(7L, System.nanoTime(), true);
+
+		// the dead worker never released its slot, the next one takes it over instead of growing the table
+		assertThat(slots.acquire(Thread.currentThread())).isSameAs(slot);
+		assertThat(slot.getWorker()).isSameAs(Thread.currentThread());
+		assertThat(slot.isRunning()).isFalse();
+		assertThat(slots.capacity()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGrowWhenFull() throws Exception {
+		ExecutionSlots slots = new ExecutionSlots(1);
+		Thread current = Thread.currentThread();
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(slots.acquire(current)).isNotNull();
+		}
+		assertThat(slots.capacity()).isEqualTo(8);
+
+		int[] bound = new int[1];
+		slots.forEach(slot -> {
+			if (slot.getWorker() != null) {
+				bound[0]++;
+			}
+		});
+		assertThat(bound[0]).isEqualTo(5);
+	}
+
+	@Test
+	public void testOverflowAtMaxCapacity() throws Exception {
+		ExecutionSlots slots = new ExecutionSlots(1, 2);
+		Thread current = Thread.currentThread();
+
+		ExecutionSlot first = slots.acquire(current);
+		assertThat(slots.acquire(current)).isNotNull();
+		assertThat(slots.acquire(current)).isNull();
+		assertThat(slots.capacity()).isEqualTo(2);
+		assertThat(slots.getOverflowCount()).isEqualTo(1L);
+
+		slots.release(first);
+		assertThat(slots.acquire(current)).isSameAs(first);
+		assertThat(slots.getOverflowCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void testForkJoinWorkersKeepTheirSlots() throws Exception {
+		ExtendedForkJoinPool pool = new ExtendedForkJoinPool(2, "fork-join-slots-test");
+		pool.postConstruct();
+
+		for (int i = 0; i < 20; i++) {
+			// the inner task is usually run by the joining worker itself, while the outer one still occupies its slot
+			ForkJoinTask<Integer> outer = pool.submit(() -> pool.submit(() -> 21).join() * 2);
+			assertThat(outer.get(10, TimeUnit.SECONDS)).isEqualTo(42);
+		}
+
+		StandardThreadPoolStatistics statistics = (StandardThreadPoolStatistics) ThreadPoolMonitoring.getRegisteredStatistics()
+				.stream() //
+				.filter(s -> "fork-join-slots-test".equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+		try {
+			int[] bound = new int[1];
+			int[] running = new int[1];
+			statistics.forEachExecutionSlot(slot -> {
+				if (slot.getWorker() != null) {
+					bound[0]++;
+				}
+				if (slot.isRunning()) {
+					running[0]++;
+				}
+			});
+			assertThat(bound[0]).isBetween(1, 2);
+			assertThat(running[0]).isEqualTo(0);
+			assertThat(statistics.getExecutionSlotOverflowCount()).isEqualTo(0L);
+			assertThat(statistics.totalExecutions()).isEqualTo(40L);
+		} finally {
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+		}
+	}
+
+	@Test
+	public void testNdcContexts() throws Exception {
+		ExecutionSlots slots = new ExecutionSlots(1);
+		Thread current = Thread.currentThread();
+		ExecutionSlot slot = slots.acquire(current);
+
+		for (long executionId : new long[] { 1L, 35L, 36L, 1295L, 123_456_789L, Long.MAX_VALUE, 0L, -42L }) {
+			assertThat(slot.getExecutionContext(executionId)).isEqualTo("executionId={" + Long.toString(executionId, 36) + "}");
+		}
+		// the buffer is reused, earlier results must not change
+		String first = slot.getExecutionContext(Long.MAX_VALUE);
+		slot.getExecutionContext(7L);
+		assertThat(first).isEqualTo("executionId={" + Long.toString(Long.MAX_VALUE, 36) + "}");
+
+		// rendered once per worker and name
+		String workerContext = slot.getWorkerContext();
+		assertThat(workerContext).isEqualTo("threadId={" + current.getName() + "}");
+		assertThat(slot.getWorkerContext()).isSameAs(workerContext);
+	}
+}
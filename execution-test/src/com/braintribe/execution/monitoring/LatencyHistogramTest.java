@@ -0,0 +1,93 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testEmpty() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		assertThat(histogram.getTotalCount()).isEqualTo(0L);
+		assertThat(histogram.getValueAtPercentile(50)).isEqualTo(-1L);
+		assertThat(LatencyPercentiles.of(histogram)).isNull();
+	}
+
+	@Test
+	public void testBucketsAreContiguous() throws Exception {
+		int lastIndex = 0;
+		for (long value = 0; value < 100_000; value++) {
+			int index = LatencyHistogram.bucketIndex(value);
+			assertThat(index - lastIndex).isBetween(0, 1);
+			assertThat(LatencyHistogram.bucketLowerBound(index)).isLessThanOrEqualTo(value);
+			lastIndex = index;
+		}
+		LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testPercentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (long value = 1; value <= 10_000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertThat(histogram.getTotalCount()).isEqualTo(10_000L);
+		assertWithinRelativeError(histogram.getValueAtPercentile(50), 5_000_000);
+		assertWithinRelativeError(histogram.getValueAtPercentile(90), 9_000_000);
+		assertWithinRelativeError(histogram.getValueAtPercentile(99), 9_900_000);
+		assertWithinRelativeError(histogram.getValueAtPercentile(99.9), 9_990_000);
+		assertWithinRelativeError(histogram.getValueAtPercentile(100), 10_000_000);
+
+		LatencyPercentiles percentiles = LatencyPercentiles.of(histogram);
+		assertThat(percentiles.getP50InMs()).isBetween(5d * 7 / 8, 5d * 9 / 8);
+		assertThat(percentiles.getP999InMs()).isBetween(9.99d * 7 / 8, 9.99d * 9 / 8);
+	}
+
+	@Test
+	public void testConcurrentRecording() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					histogram.record(1000);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(histogram.getTotalCount()).isEqualTo(800_000L);
+		assertThat(histogram.snapshotCounts()[LatencyHistogram.bucketIndex(1000)]).isEqualTo(800_000L);
+		assertWithinRelativeError(histogram.getValueAtPercentile(100), 1000);
+	}
+
+	private static void assertWithinRelativeError(long actual, long expected) {
+		assertThat(actual).isBetween(expected - expected / 8, expected + expected / 8);
+	}
+
+}
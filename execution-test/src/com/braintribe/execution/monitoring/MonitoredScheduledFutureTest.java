@@ -0,0 +1,184 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedScheduledThreadPoolExecutor;
+
+public class MonitoredScheduledFutureTest {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	public void testLateness() throws Exception {
+		Recorder recorder = new Recorder();
+		ScheduleStatistics schedule = new ScheduleStatistics("late");
+		MonitoredScheduledFuture<Void> future = new MonitoredScheduledFuture<>(new DueFuture(false, 30 * MS), "task", recorder,
+				MonitoringSampling.all(), schedule);
+
+		future.run();
+
+		assertThat(schedule.getRunCount()).isEqualTo(1L);
+		assertThat(schedule.getMaximumLatenessInMs()).isEqualTo(30L);
+		assertThat(schedule.getMissedPeriods()).isEqualTo(0L);
+		assertThat(schedule.getPeriodInMs()).isNull();
+
+		// the queue wait of a scheduled run is its lateness
+		assertThat(recorder.enqueuedNanos).hasSize(1);
+		assertThat(recorder.enqueuedNanos.get(0)).isEqualTo(30 * MS);
+	}
+
+	@Test
+	public void testMissedPeriods() throws Exception {
+		ScheduleStatistics fixedDelay = new ScheduleStatistics("fixed-delay");
+		MonitoredScheduledFuture<Void> future = new MonitoredScheduledFuture<>(new DueFuture(true, 250 * MS), "task", new Recorder(), null,
+				fixedDelay);
+		future.setPeriod(100 * MS, false);
+		future.run();
+		future.run();
+
+		// a fixed delay skips the periods a run is late for
+		assertThat(fixedDelay.getRunCount()).isEqualTo(2L);
+		assertThat(fixedDelay.getMissedPeriods()).isEqualTo(4L);
+		assertThat(fixedDelay.getPeriodInMs()).isEqualTo(100L);
+
+		ScheduleStatistics fixedRate = new ScheduleStatistics("fixed-rate");
+		future = new MonitoredScheduledFuture<>(new DueFuture(true, 250 * MS), "task", new Recorder(), null, fixedRate);
+		future.setPeriod(100 * MS, true);
+		future.run();
+		future.run();
+
+		// a fixed rate catches up with one late run per missed period
+		assertThat(fixedRate.getMissedPeriods()).isEqualTo(2L);
+
+		ScheduleStatistics onTime = new ScheduleStatistics("on-time");
+		future = new MonitoredScheduledFuture<>(new DueFuture(true, 50 * MS), "task", new Recorder(), null, onTime);
+		future.setPeriod(100 * MS, true);
+		future.run();
+
+		assertThat(onTime.getMissedPeriods()).isEqualTo(0L);
+	}
+
+	@Test
+	public void testUnsampledRunIsNotTimed() throws Exception {
+		Recorder recorder = new Recorder();
+		ScheduleStatistics schedule = new ScheduleStatistics("unsampled");
+		DueFuture due = new DueFuture(false, 10 * MS);
+		MonitoredScheduledFuture<Void> future = new MonitoredScheduledFuture<>(due, "task", recorder, null, schedule);
+
+		assertThat(future.sampleRun()).isFalse();
+		future.run();
+
+		assertThat(due.runs).isEqualTo(1);
+		assertThat(schedule.getRunCount()).isEqualTo(1L);
+		assertThat(recorder.enqueuedNanos).isEmpty();
+	}
+
+	@Test
+	public void testPeriodIsSetBeforeQueueing() throws Exception {
+		List<Long> decoratedPeriods = new CopyOnWriteArrayList<>();
+		ExtendedScheduledThreadPoolExecutor executor = new ExtendedScheduledThreadPoolExecutor(1) {
+			@Override
+			protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+				RunnableScheduledFuture<V> result = super.decorateTask(runnable, task);
+				// the task is queued right after, hence a first run without delay may already see the period
+				decoratedPeriods.add(((MonitoredScheduledFuture<V>) result).getPeriodNanos());
+				return result;
+			}
+		};
+		executor.setDescription("period-before-queueing");
+		executor.postConstruct();
+		try {
+			executor.scheduleAtFixedRate(() -> {}, 0, 1, TimeUnit.HOURS);
+			executor.scheduleWithFixedDelay(() -> {}, 0, 2, TimeUnit.HOURS);
+			executor.schedule(() -> {}, 0, TimeUnit.SECONDS);
+
+			assertThat(decoratedPeriods).containsExactly(TimeUnit.HOURS.toNanos(1), TimeUnit.HOURS.toNanos(2), 0L);
+		} finally {
+			executor.shutdownNow();
+			ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+					.filter(s -> "period-before-queueing".equals(s.getDescription())) //
+					.findFirst() //
+					.ifPresent(s -> ThreadPoolMonitoring.unregisterThreadPool(s.getThreadPoolId()));
+		}
+	}
+
+	private static class Recorder implements ExecutionMonitoring {
+		final List<Long> enqueuedNanos = new ArrayList<>();
+
+		@Override
+		public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+			enqueuedNanos.add(startedNanos - createdNanos);
+		}
+
+		@Override
+		public void accept(Instant created, Instant executed, Instant finished) {
+			// not used
+		}
+	}
+
+	/**
+	 * A future which is always overdue by the given time, like a task whose run came too late.
+	 */
+	private static class DueFuture extends FutureTask<Void> implements RunnableScheduledFuture<Void> {
+		private final boolean periodic;
+		private final long latenessNanos;
+		int runs;
+
+		DueFuture(boolean periodic, long latenessNanos) {
+			super(() -> null);
+			this.periodic = periodic;
+			this.latenessNanos = latenessNanos;
+		}
+
+		@Override
+		public void run() {
+			runs++;
+			if (periodic) {
+				runAndReset();
+			} else {
+				super.run();
+			}
+		}
+
+		@Override
+		public boolean isPeriodic() {
+			return periodic;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(-latenessNanos, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedScheduledThreadPoolExecutor;
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+
+/**
+ * Runs tasks one after the other with a sampling which alternates between yes and no. With a single decision per task,
+ * the timing figures and the histograms (seen through the task key statistics) cover the same half of the tasks.
+ */
+public class MonitoringSamplingTest {
+
+	private static final int TASKS = 20;
+
+	@Test
+	public void testThreadPool() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description("sampling-pool").monitoringSampling(new Alternating()).maxTaskKeys(4).build();
+		assertSampledOnce(pool, "sampling-pool");
+	}
+
+	@Test
+	public void testScheduledThreadPool() throws Exception {
+		ExtendedScheduledThreadPoolExecutor pool = new ExtendedScheduledThreadPoolExecutor(1);
+		pool.setDescription("sampling-scheduled");
+		pool.setMonitoringSampling(new Alternating());
+		pool.setMaxTaskKeys(4);
+		pool.postConstruct();
+		assertSampledOnce(pool, "sampling-scheduled");
+	}
+
+	private static void assertSampledOnce(ExecutorService pool, String description) throws Exception {
+		for (int i = 0; i < TASKS; i++) {
+			pool.submit(TaskKeys.keyed("sampled", () -> {})).get(10, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+
+		assertThat(statistics.getSampledRatio()).isEqualTo(0.5d);
+		assertThat(statistics.getTaskKeyStatistics()).extracting(TaskKeyStatistics::getTaskKey, TaskKeyStatistics::getExecutionCount)
+				.containsExactly(tuple("sampled", (long) TASKS / 2));
+
+		ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+	}
+
+	static class Alternating implements MonitoringSampling {
+		private boolean next = true;
+
+		@Override
+		public synchronized boolean sample() {
+			boolean result = next;
+			next = !next;
+			return result;
+		}
+
+		@Override
+		public String getDescription() {
+			return "alternating";
+		}
+	}
+}
@@ -0,0 +1,104 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedScheduledThreadPoolExecutor;
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+
+/**
+ * Runs a handful of 50ms tasks on a single worker, so each task has to wait for the ones before it. The average queue wait
+ * is then at least twice the duration of a task.
+ */
+public class QueueWaitAccountingTest {
+
+	private static final int TASKS = 5;
+	private static final long TASK_MILLIS = 50;
+
+	@Test
+	public void testExecute() throws Exception {
+		ExtendedThreadPoolExecutor pool = singleThreadPool("queue-wait-execute");
+		for (int i = 0; i < TASKS; i++) {
+			pool.execute(QueueWaitAccountingTest::work);
+		}
+		assertQueueWait(pool, pool.getDescription());
+	}
+
+	@Test
+	public void testSubmitAndInvokeAll() throws Exception {
+		ExtendedThreadPoolExecutor pool = singleThreadPool("queue-wait-submit");
+		List<Callable<Object>> tasks = new ArrayList<>();
+		for (int i = 0; i < TASKS; i++) {
+			tasks.add(() -> {
+				work();
+				return null;
+			});
+		}
+		pool.submit(QueueWaitAccountingTest::work);
+		pool.invokeAll(tasks);
+		assertQueueWait(pool, pool.getDescription());
+	}
+
+	@Test
+	public void testScheduled() throws Exception {
+		ExtendedScheduledThreadPoolExecutor pool = new ExtendedScheduledThreadPoolExecutor(1);
+		pool.setDescription("queue-wait-scheduled");
+		pool.postConstruct();
+		for (int i = 0; i < TASKS; i++) {
+			pool.schedule(QueueWaitAccountingTest::work, 0, TimeUnit.MILLISECONDS);
+		}
+		assertQueueWait(pool, "queue-wait-scheduled");
+	}
+
+	private static ExtendedThreadPoolExecutor singleThreadPool(String description) {
+		return ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>()).description(description).build();
+	}
+
+	private static void assertQueueWait(ExecutorService pool, String description) throws Exception {
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+
+		assertThat(statistics.getAverageEnqueuedTimeInMs()).isGreaterThanOrEqualTo(TASK_MILLIS * (TASKS - 1) / 2d * 0.9);
+		assertThat(statistics.getMaximumEnqueuedTimeInMs()).isGreaterThanOrEqualTo((long) (TASK_MILLIS * (TASKS - 1) * 0.9));
+		assertThat(statistics.averageRunningTimeInMs()).isGreaterThanOrEqualTo((long) (TASK_MILLIS * 0.9));
+
+		ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+	}
+
+	private static void work() {
+		try {
+			Thread.sleep(TASK_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+
+public class StandardThreadPoolStatisticsTest {
+
+	private static final long MS = 1_000_000L;
+	private static final int THREADS = 4;
+	private static final int EXECUTIONS = 10_000;
+	private static final int TASKS = 5;
+	private static final int MB = 1 << 20;
+
+	private static volatile byte[] sink;
+
+	@Test
+	public void testConcurrentRecording() throws Exception {
+		ExtendedThreadPoolExecutor executor = new ExtendedThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+		StandardThreadPoolStatistics statistics = new StandardThreadPoolStatistics("statistics-test", executor);
+
+		assertThat(statistics.getMinimumEnqueuedTimeInMs()).isNull();
+		assertThat(statistics.getMaximumEnqueuedTimeInMs()).isNull();
+		assertThat(statistics.getAverageEnqueuedTimeInMs()).isEqualTo(-1d);
+		assertThat(statistics.averageRunningTimeInMs()).isEqualTo(0L);
+
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+					// the threads interleave their values: 1..THREADS * EXECUTIONS ms in total
+					for (int i = 0; i < EXECUTIONS; i++) {
+						statistics.registerThreadPoolExecution((i * THREADS + offset + 1) * MS, 2 * MS);
+					}
+
+					ExecutionSlot slot = statistics.acquireExecutionSlot(Thread.currentThread());
+					statistics.beforeExecution(slot, offset + 1);
+					Thread.sleep(20);
+					statistics.afterExecution(slot);
+					statistics.releaseExecutionSlot(slot);
+				} catch (Throwable e) {
+					failures.incrementAndGet();
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+		assertThat(failures.get()).isEqualTo(0);
+
+		long total = (long) THREADS * EXECUTIONS;
+		assertThat(statistics.getTimedExecutionCount()).isEqualTo(total);
+		assertThat(statistics.getMinimumEnqueuedTimeInMs()).isEqualTo(1L);
+		assertThat(statistics.getMaximumEnqueuedTimeInMs()).isEqualTo(total);
+		assertThat(statistics.getAverageEnqueuedTimeInMs()).isEqualTo((total + 1) / 2d);
+		assertThat(statistics.getTotalEnqueuedNanos()).isEqualTo(total * (total + 1) / 2 * MS);
+		assertThat(statistics.getTotalRunningNanos()).isEqualTo(total * 2 * MS);
+
+		assertThat(statistics.totalExecutions()).isEqualTo((long) THREADS);
+		assertThat(statistics.currentlyRunning()).isEqualTo(0);
+		assertThat(statistics.averageRunningTimeInMs()).isGreaterThanOrEqualTo(20L);
+	}
+
+	@Test
+	public void testCpuTimeAndAllocation() throws Exception {
+		StandardThreadPoolStatistics tracked = runResourceTasks("resources-tracked", true);
+		try {
+			assertThat(tracked.getTotalCpuTimeInMs()).isGreaterThanOrEqualTo(TASKS * 10L);
+			assertThat(tracked.getAverageCpuTimeInMs()).isGreaterThanOrEqualTo(10d);
+			assertThat(tracked.getTotalAllocatedBytes()).isGreaterThanOrEqualTo(TASKS * 4L * MB);
+			assertThat(tracked.getAverageAllocatedBytes()).isGreaterThanOrEqualTo(4d * MB);
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(tracked.getThreadPoolId());
+		}
+
+		StandardThreadPoolStatistics untracked = runResourceTasks("resources-untracked", false);
+		try {
+			assertThat(untracked.getTotalCpuTimeInMs()).isNull();
+			assertThat(untracked.getAverageCpuTimeInMs()).isNull();
+			assertThat(untracked.getTotalAllocatedBytes()).isNull();
+			assertThat(untracked.getAverageAllocatedBytes()).isNull();
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(untracked.getThreadPoolId());
+		}
+	}
+
+	private static StandardThreadPoolStatistics runResourceTasks(String description, boolean trackCpuAndAllocation) throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description(description).trackCpuAndAllocation(trackCpuAndAllocation).build();
+		for (int i = 0; i < TASKS; i++) {
+			pool.execute(StandardThreadPoolStatisticsTest::consumeResources);
+		}
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		return statistics(description);
+	}
+
+	// spins for at least 15 ms of CPU time and allocates 4 MB
+	private static void consumeResources() {
+		for (int i = 0; i < 4; i++) {
+			sink = new byte[MB];
+		}
+		long cpuNanos = ThreadResources.currentThreadCpuNanos();
+		while (ThreadResources.currentThreadCpuNanos() - cpuNanos < 15 * MS) {
+			// spin
+		}
+	}
+
+	private static StandardThreadPoolStatistics statistics(String description) {
+		return ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+	}
+}
@@ -0,0 +1,155 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+import com.braintribe.execution.virtual.VirtualThreadExecutor;
+import com.braintribe.execution.virtual.VirtualThreadExecutorBuilder;
+
+public class StuckTaskDetectorTest {
+
+	@Test
+	public void testReportStuckTaskOnce() throws Exception {
+		List<StuckTask> reported = new CopyOnWriteArrayList<>();
+		StuckTaskListener listener = stuckTask -> {
+			if ("stuck-task-test".equals(stuckTask.getDescription())) {
+				reported.add(stuckTask);
+			}
+		};
+		StuckTaskDetector.addListener(listener);
+
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description("stuck-task-test").stuckTaskThreshold(Duration.ofMillis(50)).build();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		try {
+			pool.execute(() -> {
+				worker.set(Thread.currentThread());
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (reported.isEmpty() && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+			assertThat(reported).hasSize(1);
+
+			StuckTask stuckTask = reported.get(0);
+			assertThat(stuckTask.getRunningTime().toMillis()).isGreaterThanOrEqualTo(50L);
+			assertThat(stuckTask.getWorker()).isSameAs(worker.get());
+			assertThat(stuckTask.getStackTrace()).extracting(StackTraceElement::getMethodName).contains("await");
+
+			// further scans see the same execution and must not report it again
+			Thread.sleep(2500);
+			assertThat(reported).hasSize(1);
+			assertThat(statistics().getStuckTaskCount()).isEqualTo(1L);
+		} finally {
+			release.countDown();
+			StuckTaskDetector.removeListener(listener);
+			pool.shutdown();
+			assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics().getThreadPoolId());
+		}
+	}
+
+	@Test
+	public void testReportUnsampledStuckTasks() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(3, 3).workQueue(new LinkedBlockingQueue<>())
+				.description("stuck-unsampled-pool").monitoringSampling(MonitoringSampling.oneIn(1_000_000))
+				.stuckTaskThreshold(Duration.ofMillis(50)).build();
+		assertAllStuckTasksReported(pool, "stuck-unsampled-pool");
+	}
+
+	@Test
+	public void testReportUnsampledStuckVirtualTasks() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(3).description("stuck-unsampled-virtual")
+				.monitoring(true).monitoringSampling(MonitoringSampling.oneIn(1_000_000)).stuckTaskThreshold(Duration.ofMillis(50)).build();
+		assertAllStuckTasksReported(executor, "stuck-unsampled-virtual");
+	}
+
+	/**
+	 * Blocks three tasks of a pool which (almost) never samples and expects each of them to be reported nonetheless.
+	 */
+	private static void assertAllStuckTasksReported(ExecutorService pool, String description) throws Exception {
+		List<StuckTask> reported = new CopyOnWriteArrayList<>();
+		StuckTaskListener listener = stuckTask -> {
+			if (description.equals(stuckTask.getDescription())) {
+				reported.add(stuckTask);
+			}
+		};
+		StuckTaskDetector.addListener(listener);
+
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < 3; i++) {
+				pool.execute(() -> {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (reported.size() < 3 && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+			assertThat(reported).hasSize(3);
+
+			// the slots watched the tasks without timing them
+			release.countDown();
+			pool.shutdown();
+			assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(statistics(description).totalExecutions()).isEqualTo(3);
+			assertThat(statistics(description).getSampledRatio()).isEqualTo(0d);
+		} finally {
+			release.countDown();
+			StuckTaskDetector.removeListener(listener);
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics(description).getThreadPoolId());
+		}
+	}
+
+	private static ThreadPoolStatistics statistics() {
+		return statistics("stuck-task-test");
+	}
+
+	private static ThreadPoolStatistics statistics(String description) {
+		return ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+	}
+}
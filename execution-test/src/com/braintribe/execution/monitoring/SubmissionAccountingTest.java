@@ -0,0 +1,142 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedScheduledThreadPoolExecutor;
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+
+/**
+ * Tasks rejected by a policy which does not throw must not be accounted as submitted, and every rejection is counted
+ * whichever handler the pool has.
+ */
+public class SubmissionAccountingTest {
+
+	@Test
+	public void testThreadPool() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.rejectionHandler(new ThreadPoolExecutor.DiscardPolicy()).description("accounting-pool").build();
+		assertRejectionNotSubmitted(pool, "accounting-pool");
+	}
+
+	@Test
+	public void testScheduledThreadPool() throws Exception {
+		ExtendedScheduledThreadPoolExecutor pool = new ExtendedScheduledThreadPoolExecutor(1);
+		pool.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+		pool.setDescription("accounting-scheduled");
+		pool.postConstruct();
+		assertRejectionNotSubmitted(pool, "accounting-scheduled");
+	}
+
+	@Test
+	public void testAbortedRejection() throws Exception {
+		ExtendedThreadPoolExecutor pool = new ExtendedThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>());
+		pool.setDescription("accounting-abort");
+		pool.postConstruct();
+		pool.shutdown();
+
+		boolean rejected = false;
+		try {
+			pool.execute(() -> {});
+		} catch (RejectedExecutionException e) {
+			rejected = true;
+		}
+		assertThat(rejected).isTrue();
+		assertSubmittedAndRejected("accounting-abort", 0, 1);
+	}
+
+	@Test
+	public void testReplacedRejectionHandler() throws Exception {
+		ExtendedScheduledThreadPoolExecutor pool = new ExtendedScheduledThreadPoolExecutor(1);
+		pool.setDescription("accounting-replaced");
+		pool.postConstruct();
+		pool.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+		assertThat(pool.getRejectedExecutionHandler()).isInstanceOf(ThreadPoolExecutor.DiscardPolicy.class);
+		pool.shutdown();
+
+		pool.execute(() -> {});
+		pool.schedule(() -> {}, 1, TimeUnit.SECONDS);
+		assertSubmittedAndRejected("accounting-replaced", 0, 2);
+	}
+
+	@Test
+	public void testSubmissionDoesNotCountQueue() throws Exception {
+		Thread submitter = Thread.currentThread();
+		AtomicInteger sizeCalls = new AtomicInteger();
+		LinkedBlockingQueue<Runnable> queue = new LinkedBlockingQueue<>() {
+			@Override
+			public int size() {
+				if (Thread.currentThread() == submitter) {
+					sizeCalls.incrementAndGet();
+				}
+				return super.size();
+			}
+		};
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(queue).description("accounting-queue").build();
+		for (int i = 0; i < 10; i++) {
+			pool.execute(() -> {});
+		}
+		// the pending tasks are only counted for an enabled submission event
+		assertThat(sizeCalls.get()).isZero();
+
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertSubmittedAndRejected("accounting-queue", 10, 0);
+	}
+
+	private static void assertSubmittedAndRejected(String description, long submitted, long rejected) {
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+
+		ThreadPoolSnapshot snapshot = statistics.getSnapshot();
+		assertThat(snapshot.getSubmittedCount()).isEqualTo(submitted);
+		assertThat(snapshot.getRejectedCount()).isEqualTo(rejected);
+
+		ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+	}
+
+	private static void assertRejectionNotSubmitted(ExecutorService pool, String description) throws Exception {
+		pool.submit(() -> {}).get(10, TimeUnit.SECONDS);
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		pool.execute(() -> {});
+
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+
+		ThreadPoolSnapshot snapshot = statistics.getSnapshot();
+		assertThat(snapshot.getSubmittedCount()).isEqualTo(1);
+		assertThat(snapshot.getRejectedCount()).isEqualTo(1);
+
+		ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+	}
+}
@@ -0,0 +1,173 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+import com.braintribe.execution.monitoring.TaskEvent.Outcome;
+
+public class TaskEventHistoryTest {
+
+	@Test
+	public void testWrapAround() throws Exception {
+		TaskEventHistory history = new TaskEventHistory(3);
+		assertThat(history.getCapacity()).isEqualTo(4);
+
+		for (int i = 0; i < 6; i++) {
+			history.recordExecution(TaskKeys.keyed("task-" + i, new NoopTask()), i, i + 10, i + 20, null);
+		}
+		history.recordRejection(TaskKeys.keyed("rejected", new NoopTask()));
+
+		List<TaskEvent> events = history.getEvents();
+		assertThat(history.getRecordedCount()).isEqualTo(7L);
+		assertThat(events).extracting(TaskEvent::getTaskKey).containsExactly("task-3", "task-4", "task-5", "rejected");
+		assertThat(events.get(0).getSequence()).isEqualTo(3L);
+		assertThat(events.get(0).getEnqueuedTime().toNanos()).isEqualTo(10L);
+		assertThat(events.get(0).getWorker()).isEqualTo(Thread.currentThread().getName());
+		assertThat(events.get(3).getOutcome()).isEqualTo(Outcome.REJECTED);
+		assertThat(events.get(3).getRunningTime()).isNull();
+	}
+
+	/**
+	 * Writers on a tiny history overwrite each other's slots all the time; every event a reader gets must still be the one
+	 * of a single writer.
+	 */
+	@Test
+	public void testConcurrentWritersDoNotTearEntries() throws Exception {
+		TaskEventHistory history = new TaskEventHistory(2);
+
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			long stamp = t * 1000L;
+			writers.add(Thread.ofPlatform().name("writer-" + stamp).start(() -> {
+				for (int i = 0; i < 200_000; i++) {
+					history.recordExecution(TaskKeys.keyed("task-" + stamp, new NoopTask()), stamp, stamp + 1, stamp + 2, null);
+				}
+			}));
+		}
+
+		while (writers.stream().anyMatch(Thread::isAlive)) {
+			for (TaskEvent event : history.getEvents()) {
+				long stamp = event.getSubmittedNanos();
+				assertThat(event.getTaskKey()).isEqualTo("task-" + stamp);
+				assertThat(event.getWorker()).isEqualTo("writer-" + stamp);
+				assertThat(event.getStartedNanos()).isEqualTo(stamp + 1);
+				assertThat(event.getFinishedNanos()).isEqualTo(stamp + 2);
+			}
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+		assertThat(history.getRecordedCount()).isEqualTo(800_000L);
+	}
+
+	@Test
+	public void testOutcomes() throws Exception {
+		ExtendedThreadPoolExecutor executor = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description("task-event-history-test").taskEventHistorySize(16).build();
+
+		executor.execute(TaskKeys.keyed("executed", new FailingTask()));
+		executor.submit(TaskKeys.keyed("submitted", new FailingTask()));
+		executor.submit(TaskKeys.keyed("completed", new NoopTask()));
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> "task-event-history-test".equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+
+		assertThat(statistics.getRecentTaskEvents()).extracting(TaskEvent::getTaskKey, TaskEvent::getOutcome).containsExactly( //
+				tuple("executed", Outcome.FAILED), //
+				tuple("submitted", Outcome.FAILED), //
+				tuple("completed", Outcome.COMPLETED));
+
+		ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+	}
+
+	@Test
+	public void testRejectionDumpsAreThrottled() throws Exception {
+		ExtendedThreadPoolExecutor executor = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.rejectionHandler(new ThreadPoolExecutor.DiscardPolicy()).description("task-event-dump-test").taskEventHistorySize(16)
+				.build();
+		executor.shutdown();
+
+		AtomicInteger keyResolutions = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			executor.execute(new CountingKeyedTask(keyResolutions));
+		}
+
+		StandardThreadPoolStatistics statistics = ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> "task-event-dump-test".equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+
+		// one resolution per recorded rejection, but only the first one has been dumped
+		assertThat(statistics.getRecentTaskEvents()).hasSize(3);
+		assertThat(keyResolutions.get()).isEqualTo(4);
+
+		assertThat(statistics.dumpTaskEvents("throttled", false)).isFalse();
+		assertThat(statistics.dumpTaskEvents("forced", true)).isTrue();
+		assertThat(statistics.dumpTaskEvents("throttled", false)).isFalse();
+
+		ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+	}
+
+	private static class CountingKeyedTask implements Runnable, TaskKeys.KeyedTask {
+		private final AtomicInteger resolutions;
+
+		CountingKeyedTask(AtomicInteger resolutions) {
+			this.resolutions = resolutions;
+		}
+
+		@Override
+		public String getTaskKey() {
+			resolutions.incrementAndGet();
+			return "counting";
+		}
+
+		@Override
+		public void run() {
+			// noop
+		}
+	}
+
+	private static class NoopTask implements Runnable {
+		@Override
+		public void run() {
+			// noop
+		}
+	}
+
+	private static class FailingTask implements Runnable {
+		@Override
+		public void run() {
+			throw new IllegalStateException("failed on purpose");
+		}
+	}
+}
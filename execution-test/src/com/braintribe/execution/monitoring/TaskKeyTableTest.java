@@ -0,0 +1,73 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.braintribe.execution.NamedCallable;
+import com.braintribe.execution.context.AttributeContextTransferRunnable;
+
+public class TaskKeyTableTest {
+
+	@Test
+	public void testKeyResolution() throws Exception {
+		Runnable task = new SomeTask();
+
+		assertThat(TaskKeys.resolve(task)).isEqualTo(SomeTask.class.getName());
+		assertThat(TaskKeys.resolve(new AttributeContextTransferRunnable(task))).isEqualTo(SomeTask.class.getName());
+		assertThat(TaskKeys.resolve(new AttributeContextTransferRunnable(TaskKeys.keyed("explicit", task)))).isEqualTo("explicit");
+		assertThat(TaskKeys.resolve(new MonitoredFutureTask<>(new SomeNamedCallable(), null))).isEqualTo("named");
+	}
+
+	@Test
+	public void testOverflow() throws Exception {
+		TaskKeyTable table = new TaskKeyTable(2);
+
+		table.get("a").registerExecution(0, 1_000_000);
+		table.get("b").registerExecution(0, 1_000_000);
+		table.get("c").registerExecution(0, 1_000_000);
+		table.get("d").registerExecution(0, 1_000_000);
+		table.get("a").registerExecution(0, 3_000_000);
+
+		assertThat(table.getStatistics()).hasSize(3);
+		assertThat(table.get("a").getExecutionCount()).isEqualTo(2L);
+		assertThat(table.get("a").getAverageRunningTimeInMs()).isEqualTo(2d);
+		assertThat(table.get("c")).isSameAs(table.get(TaskKeyTable.OTHER_KEY + "-unknown"));
+		assertThat(table.get("c").getTaskKey()).isEqualTo(TaskKeyTable.OTHER_KEY);
+		assertThat(table.get("c").getExecutionCount()).isEqualTo(2L);
+	}
+
+	private static class SomeTask implements Runnable {
+		@Override
+		public void run() {
+			// noop
+		}
+	}
+
+	private static class SomeNamedCallable implements NamedCallable<String> {
+		@Override
+		public String call() throws Exception {
+			return null;
+		}
+
+		@Override
+		public String getName() {
+			return "named";
+		}
+	}
+}
@@ -0,0 +1,89 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+
+public class ThreadPoolMonitoringTest {
+
+	@Test
+	public void testExecutionsRecordedThroughStatisticsHandle() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(2, 2).workQueue(new LinkedBlockingQueue<>())
+				.description("handle-pool").build();
+		try {
+			for (int i = 0; i < 5; i++) {
+				pool.submit(() -> {}).get(10, TimeUnit.SECONDS);
+			}
+			pool.shutdown();
+			assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+			// the pool records through the handle it got at registration, which is the instance readers see
+			ThreadPoolStatistics statistics = statistics("handle-pool");
+			assertThat(ThreadPoolMonitoring.getStatistics()).contains(statistics);
+			assertThat(statistics.totalExecutions()).isEqualTo(5);
+			assertThat(statistics.currentlyRunning()).isZero();
+			assertThat(statistics.getSnapshot().getCompletedCount()).isEqualTo(5);
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(statistics("handle-pool").getThreadPoolId());
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testDeprecatedStaticRecording() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description("legacy-pool").build();
+		String threadPoolId = "legacy-" + System.nanoTime();
+		ThreadPoolMonitoring.registerThreadPool(threadPoolId, pool);
+		try {
+			ThreadPoolStatistics statistics = ThreadPoolMonitoring.getStatistics().stream() //
+					.filter(s -> threadPoolId.equals(s.getThreadPoolId())) //
+					.findFirst() //
+					.get();
+
+			ThreadPoolMonitoring.beforeExecution(threadPoolId, "1");
+			assertThat(statistics.currentlyRunning()).isEqualTo(1);
+			assertThat(statistics.totalExecutions()).isEqualTo(1);
+
+			ThreadPoolMonitoring.afterExecution(threadPoolId, "1");
+			assertThat(statistics.currentlyRunning()).isZero();
+
+			// unknown pools and missing ids are ignored as before
+			ThreadPoolMonitoring.beforeExecution("unknown", "1");
+			ThreadPoolMonitoring.afterExecution(threadPoolId, null);
+			assertThat(statistics.currentlyRunning()).isZero();
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(threadPoolId);
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics("legacy-pool").getThreadPoolId());
+		}
+	}
+
+	private static ThreadPoolStatistics statistics(String description) {
+		return ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+	}
+}
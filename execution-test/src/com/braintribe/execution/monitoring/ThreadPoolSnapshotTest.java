@@ -0,0 +1,91 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+public class ThreadPoolSnapshotTest {
+
+	private static final long SECOND = 1_000_000_000L;
+	private static final long MS = 1_000_000L;
+
+	private final LatencyHistogram enqueued = new LatencyHistogram();
+	private final LatencyHistogram running = new LatencyHistogram();
+	private final long[] counters = new long[ThreadPoolSnapshot.COUNTERS];
+
+	@Test
+	public void testDelta() throws Exception {
+		execute(10, 1 * MS, 5 * MS);
+		ThreadPoolSnapshot earlier = snapshot(60 * SECOND);
+
+		execute(5, 100 * MS, 50 * MS);
+		ThreadPoolSnapshot later = snapshot(70 * SECOND);
+
+		assertThat(later.getExecutionCount()).isEqualTo(15L);
+		assertThat(later.getRunningTimePercentiles().getP50InMs()).isLessThan(10d);
+
+		ThreadPoolSnapshot delta = later.delta(earlier);
+		assertThat(delta.getInterval()).isEqualTo(Duration.ofSeconds(10));
+		assertThat(delta.getExecutionCount()).isEqualTo(5L);
+		assertThat(delta.getThroughput()).isEqualTo(0.5d);
+		assertThat(delta.getAverageEnqueuedTimeInMs()).isEqualTo(100d);
+		assertThat(delta.getAverageRunningTimeInMs()).isEqualTo(50d);
+		assertThat(delta.getRunningTimePercentiles().getP50InMs()).isBetween(45d, 55d);
+		assertThat(delta.getMaximumEnqueuedTimeInMs()).isBetween(90d, 110d);
+	}
+
+	@Test
+	public void testRollingWindow() throws Exception {
+		RollingWindow window = new RollingWindow(Duration.ofSeconds(10), Duration.ofSeconds(5));
+		assertThat(window.get()).isNull();
+
+		ThreadPoolSnapshot previous = snapshot(0);
+		for (int tick = 1; tick <= 3; tick++) {
+			execute(tick, tick * MS, tick * MS);
+			ThreadPoolSnapshot current = snapshot(tick * 5 * SECOND);
+			window.add(current.delta(previous, false));
+			previous = current;
+		}
+
+		// the first tick fell out of the window
+		ThreadPoolSnapshot figures = window.get();
+		assertThat(figures.getInterval()).isEqualTo(Duration.ofSeconds(10));
+		assertThat(figures.getExecutionCount()).isEqualTo(5L);
+		assertThat(figures.getAverageRunningTimeInMs()).isEqualTo(13d / 5);
+		assertThat(figures.getMaximumRunningTimeInMs()).isBetween(2.5d, 3.5d);
+		assertThat(figures.getRunningTimePercentiles()).isNull();
+	}
+
+	private void execute(int count, long enqueuedNanos, long runningNanos) {
+		for (int i = 0; i < count; i++) {
+			counters[ThreadPoolSnapshot.STARTED]++;
+			counters[ThreadPoolSnapshot.COMPLETED]++;
+			counters[ThreadPoolSnapshot.TIMED]++;
+			counters[ThreadPoolSnapshot.ENQUEUED_NANOS] += enqueuedNanos;
+			counters[ThreadPoolSnapshot.RUNNING_NANOS] += runningNanos;
+			enqueued.record(enqueuedNanos);
+			running.record(runningNanos);
+		}
+	}
+
+	private ThreadPoolSnapshot snapshot(long nanoTime) {
+		return new ThreadPoolSnapshot("pool", "test", 0L, nanoTime, nanoTime, counters.clone(), 0, 0, enqueued.snapshotCounts(), running.snapshotCounts());
+	}
+}
@@ -0,0 +1,125 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+
+public class ThreadStateSamplerTest {
+
+	private static final int SAMPLES = 3;
+
+	@Test
+	public void testThreadStateProfile() throws Exception {
+		// keeps the shared sampler from interfering with the samples taken by the test
+		Duration interval = ThreadStateSampler.getInterval();
+		ThreadStateSampler.setInterval(Duration.ofHours(1));
+
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(2, 2).workQueue(new LinkedBlockingQueue<>())
+				.description("thread-state-test").sampleThreadStates(true).build();
+		StandardThreadPoolStatistics statistics = statistics("thread-state-test");
+		try {
+			assertThat(statistics.getThreadStateProfile().getSampleCount()).isEqualTo(0L);
+			assertThat(statistics.getThreadStateProfile().getUtilization()).isNull();
+
+			Object lock = new Object();
+			CountDownLatch latch = new CountDownLatch(1);
+			AtomicReference<Thread> waiting = new AtomicReference<>();
+			AtomicReference<Thread> blocked = new AtomicReference<>();
+			synchronized (lock) {
+				pool.execute(() -> {
+					waiting.set(Thread.currentThread());
+					try {
+						latch.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+				pool.execute(() -> {
+					blocked.set(Thread.currentThread());
+					synchronized (lock) {
+						// just contends for the monitor
+					}
+				});
+				awaitState(waiting, Thread.State.WAITING);
+				awaitState(blocked, Thread.State.BLOCKED);
+
+				for (int i = 0; i < SAMPLES; i++) {
+					ThreadStateSampler.sample();
+				}
+			}
+			latch.countDown();
+			long deadline = System.currentTimeMillis() + 10_000;
+			while (pool.getCompletedTaskCount() < 2 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			// both workers keep their slots and are sampled as idle now
+			ThreadStateSampler.sample();
+
+			ThreadStateProfile profile = statistics.getThreadStateProfile();
+			assertThat(profile.getWaitingCount()).isEqualTo((long) SAMPLES);
+			assertThat(profile.getBlockedCount()).isEqualTo((long) SAMPLES);
+			assertThat(profile.getRunnableCount()).isEqualTo(0L);
+			assertThat(profile.getIdleCount()).isEqualTo(2L);
+			assertThat(profile.getUtilization()).isEqualTo(6d / 8);
+			assertThat(profile.getBlockedRatio()).isEqualTo(0.5d);
+			assertThat(profile.getRunnableRatio()).isEqualTo(0d);
+		} finally {
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+			ThreadStateSampler.setInterval(interval);
+		}
+	}
+
+	@Test
+	public void testNoProfileWithoutSampling() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description("no-thread-state-test").build();
+		StandardThreadPoolStatistics statistics = statistics("no-thread-state-test");
+		try {
+			pool.submit(() -> {}).get();
+			ThreadStateSampler.sample();
+			assertThat(statistics.getThreadStateProfile()).isNull();
+		} finally {
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+		}
+	}
+
+	private static void awaitState(AtomicReference<Thread> thread, Thread.State state) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while ((thread.get() == null || thread.get().getState() != state) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		assertThat(thread.get().getState()).isEqualTo(state);
+	}
+
+	private static StandardThreadPoolStatistics statistics(String description) {
+		return ThreadPoolMonitoring.getRegisteredStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+	}
+}
@@ -0,0 +1,138 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.jmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeType;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedScheduledThreadPoolExecutor;
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+import com.braintribe.execution.monitoring.TaskKeys;
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+
+/**
+ * The beans are MXBeans, i.e. their registration fails unless every attribute type maps to an open type.
+ */
+public class ThreadPoolManagementTest {
+
+	private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+	@Test
+	public void testThreadPool() throws Exception {
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description("jmx-pool").maxTaskKeys(4).sampleThreadStates(true).build();
+		for (int i = 0; i < 3; i++) {
+			pool.submit(TaskKeys.keyed("jmx-task", () -> {})).get(10, TimeUnit.SECONDS);
+		}
+		awaitCompletedTasks(pool, 3);
+
+		ThreadPoolStatistics statistics = statistics("jmx-pool");
+		ObjectName name = ThreadPoolManagement.objectName(statistics);
+		try {
+			assertThat(server.isRegistered(name)).isTrue();
+
+			CompositeData percentiles = (CompositeData) server.getAttribute(name, "RunningTimePercentiles");
+			assertThat(percentiles.getCompositeType().keySet()).containsExactly("p50InMs", "p90InMs", "p999InMs", "p99InMs");
+			assertThat(percentiles.get("p50InMs")).isInstanceOf(Double.class);
+
+			CompositeData[] taskKeys = (CompositeData[]) server.getAttribute(name, "TaskKeyStatistics");
+			assertThat(taskKeys).hasSize(1);
+			assertThat(taskKeys[0].get("taskKey")).isEqualTo("jmx-task");
+			assertThat(taskKeys[0].get("executionCount")).isEqualTo(3L);
+
+			CompositeData profile = (CompositeData) server.getAttribute(name, "ThreadStateProfile");
+			assertThat(profile.get("sampleCount")).isInstanceOf(Long.class);
+
+			// the rates are only available after a monitoring tick, hence the type is checked instead of the value
+			CompositeType rates = (CompositeType) openType(name, "SubmissionRates");
+			assertThat(rates.keySet()).containsExactly("current", "fifteenMinutes", "fiveMinutes", "oneMinute");
+			assertThat(rates.getType("current").getClassName()).isEqualTo(Double.class.getName());
+
+			server.setAttribute(name, new Attribute("CorePoolSize", 2));
+			assertThat(pool.getCorePoolSize()).isEqualTo(2);
+			assertThat(pool.getMaximumPoolSize()).isEqualTo(2);
+		} finally {
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+		}
+		assertThat(server.isRegistered(name)).isFalse();
+	}
+
+	@Test
+	public void testScheduledThreadPool() throws Exception {
+		ExtendedScheduledThreadPoolExecutor pool = new ExtendedScheduledThreadPoolExecutor(1);
+		pool.setDescription("jmx-scheduled");
+		pool.postConstruct();
+		pool.schedule(TaskKeys.keyed("jmx-schedule", () -> {}), 1, TimeUnit.MILLISECONDS).get(10, TimeUnit.SECONDS);
+		awaitCompletedTasks(pool, 1);
+
+		ThreadPoolStatistics statistics = statistics("jmx-scheduled");
+		ObjectName name = ThreadPoolManagement.objectName(statistics);
+		try {
+			assertThat(server.isRegistered(name)).isTrue();
+			assertThat(server.getAttribute(name, "ScheduledThreadPool")).isEqualTo(true);
+
+			CompositeData[] schedules = (CompositeData[]) server.getAttribute(name, "ScheduleStatistics");
+			assertThat(schedules).hasSize(1);
+			assertThat(schedules[0].get("scheduleKey")).isEqualTo("jmx-schedule");
+			assertThat(schedules[0].get("runCount")).isEqualTo(1L);
+			assertThat(schedules[0].get("periodInMs")).isNull();
+			assertThat(schedules[0].get("latenessPercentiles")).isInstanceOf(CompositeData.class);
+		} finally {
+			pool.shutdown();
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+		}
+	}
+
+	// a future is done before afterExecute has accounted its task, the completed count of the pool is raised only after that
+	private static void awaitCompletedTasks(ThreadPoolExecutor pool, long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (pool.getCompletedTaskCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+	}
+
+	private Object openType(ObjectName name, String attribute) throws Exception {
+		for (MBeanAttributeInfo info : server.getMBeanInfo(name).getAttributes()) {
+			if (info.getName().equals(attribute)) {
+				return info.getDescriptor().getFieldValue("openType");
+			}
+		}
+		throw new AssertionError("No attribute " + attribute);
+	}
+
+	private static ThreadPoolStatistics statistics(String description) {
+		return ThreadPoolMonitoring.getStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+	}
+}
@@ -0,0 +1,176 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.openmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.braintribe.execution.ExtendedThreadPoolExecutor;
+import com.braintribe.execution.ThreadPoolBuilder;
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+
+public class OpenMetricsExporterTest {
+
+	@Test
+	public void testNoNegativeSamples() throws Exception {
+		// the common pool is always registered and reports several figures as "not available"
+		for (String sample : samples(export())) {
+			double value = Double.parseDouble(sample.substring(sample.lastIndexOf(' ') + 1));
+			assertThat(value).as(sample).isGreaterThanOrEqualTo(0d);
+		}
+	}
+
+	@Test
+	public void testRegisteredPool() throws Exception {
+		String description = "export \"quoted\" back\\slash\nnew line";
+		ExtendedThreadPoolExecutor pool = ThreadPoolBuilder.newPool().poolSize(1, 1).workQueue(new LinkedBlockingQueue<>())
+				.description(description).build();
+		for (int i = 0; i < 5; i++) {
+			pool.submit(() -> {}).get(10, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		ThreadPoolStatistics statistics = ThreadPoolMonitoring.getStatistics().stream() //
+				.filter(s -> description.equals(s.getDescription())) //
+				.findFirst() //
+				.get();
+		try {
+			String output = export();
+			assertThat(output).endsWith("\n# EOF\n");
+
+			Map<String, String> types = new HashMap<>();
+			Map<String, String> poolSamples = new LinkedHashMap<>();
+			for (String line : output.split("\n")) {
+				if (line.startsWith("# TYPE ")) {
+					String[] parts = line.split(" ");
+					types.put(parts[2], parts[3]);
+					continue;
+				}
+				if (line.startsWith("#")) {
+					continue;
+				}
+				Sample sample = Sample.parse(line);
+				assertThat(sample.family(types)).as(line).isNotNull();
+				if (sample.labels.containsKey("quantile")) {
+					assertThat(types.get(sample.name)).as(line).isEqualTo("summary");
+				}
+				if (description.equals(sample.labels.get("pool"))) {
+					String key = sample.labels.containsKey("quantile") ? sample.name + "/" + sample.labels.get("quantile") : sample.name;
+					poolSamples.put(key, sample.value);
+				}
+			}
+
+			assertThat(output).contains("pool=\"export \\\"quoted\\\" back\\\\slash\\nnew line\"");
+			assertThat(poolSamples.get("threadpool_executions_total")).isEqualTo("5");
+			assertThat(poolSamples.get("threadpool_running_time_seconds_count")).isEqualTo("5");
+			assertThat(poolSamples).containsKeys("threadpool_running_time_seconds_sum", "threadpool_running_time_seconds/0.5",
+					"threadpool_enqueued_time_seconds/0.999", "threadpool_pool_size");
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(statistics.getThreadPoolId());
+		}
+	}
+
+	private static String export() throws Exception {
+		StringWriter writer = new StringWriter();
+		new OpenMetricsExporter().write(writer);
+		return writer.toString();
+	}
+
+	private static List<String> samples(String output) {
+		List<String> samples = new ArrayList<>();
+		for (String line : output.split("\n")) {
+			if (!line.startsWith("#")) {
+				samples.add(line);
+			}
+		}
+		return samples;
+	}
+
+	/**
+	 * A sample line like <code>name{label="value",...} 1.5</code>, with the escaping of the OpenMetrics text format.
+	 */
+	private static class Sample {
+		String name;
+		Map<String, String> labels = new HashMap<>();
+		String value;
+
+		static Sample parse(String line) {
+			Sample sample = new Sample();
+			int brace = line.indexOf('{');
+			assertThat(brace).as(line).isPositive();
+			sample.name = line.substring(0, brace);
+			assertThat(sample.name).as(line).matches("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+			int i = brace + 1;
+			while (line.charAt(i) != '}') {
+				int equals = line.indexOf("=\"", i);
+				String label = line.substring(i, equals);
+				StringBuilder labelValue = new StringBuilder();
+				for (i = equals + 2; line.charAt(i) != '"'; i++) {
+					char c = line.charAt(i);
+					if (c == '\\') {
+						c = line.charAt(++i);
+						assertThat(c).as(line).isIn('\\', '"', 'n');
+						labelValue.append(c == 'n' ? '\n' : c);
+					} else {
+						labelValue.append(c);
+					}
+				}
+				sample.labels.put(label, labelValue.toString());
+				i++;
+				if (line.charAt(i) == ',') {
+					i++;
+				}
+			}
+			assertThat(line.charAt(i + 1)).as(line).isEqualTo(' ');
+			sample.value = line.substring(i + 2);
+			Double.parseDouble(sample.value);
+			return sample;
+		}
+
+		/**
+		 * @return the metric family the sample belongs to according to the suffix rules of its declared type
+		 */
+		String family(Map<String, String> types) {
+			String type = types.get(name);
+			if ("gauge".equals(type) || "summary".equals(type)) {
+				return name;
+			}
+			for (String suffix : new String[] { "_total", "_count", "_sum" }) {
+				if (name.endsWith(suffix)) {
+					String family = name.substring(0, name.length() - suffix.length());
+					String familyType = types.get(family);
+					if ("counter".equals(familyType) ? suffix.equals("_total") : "summary".equals(familyType) && !suffix.equals("_total")) {
+						return family;
+					}
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	public void testAimd() {
+		AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 6);
+		limit.setLatencyThreshold(Duration.ofMillis(100));
+		limit.setLimit(4);
+
+		// only grows while the limit is actually used
+		assertThat(limit.onSample(10 * MS, 1, false)).isEqualTo(4);
+		assertThat(limit.onSample(10 * MS, 2, false)).isEqualTo(5);
+
+		assertThat(limit.onSample(10 * MS, 5, true)).isEqualTo(4);
+		assertThat(limit.onSample(200 * MS, 4, false)).isEqualTo(3);
+
+		for (int i = 0; i < 10; i++) {
+			limit.onSample(10 * MS, 6, true);
+		}
+		assertThat(limit.getLimit()).isEqualTo(2);
+
+		for (int i = 0; i < 10; i++) {
+			limit.onSample(10 * MS, 6, false);
+		}
+		assertThat(limit.getLimit()).isEqualTo(6);
+	}
+
+	@Test
+	public void testGradient() {
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 100);
+		limit.setLimit(10);
+
+		for (int i = 0; i < 50; i++) {
+			limit.onSample(10 * MS, limit.getLimit(), false);
+		}
+		int grown = limit.getLimit();
+		assertThat(grown).isGreaterThan(20);
+
+		// a saturated backend: the tasks suddenly take ten times as long
+		for (int i = 0; i < 20; i++) {
+			limit.onSample(100 * MS, limit.getLimit(), false);
+		}
+		int shrunk = limit.getLimit();
+		assertThat(shrunk).isLessThan(grown / 2);
+
+		// failures back off down to the minimum
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(10 * MS, limit.getLimit(), true);
+		}
+		assertThat(limit.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	public void testGradientConcurrentSamples() throws Exception {
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 50);
+		limit.setLimit(10);
+
+		AtomicInteger outOfBounds = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					int current = limit.onSample(10 * MS, limit.getLimit(), false);
+					if (current < 2 || current > 50) {
+						outOfBounds.incrementAndGet();
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(outOfBounds.get()).isZero();
+		// steady running times let every sampler push the limit up to the maximum
+		assertThat(limit.getLimit()).isEqualTo(50);
+	}
+
+	@Test
+	public void testBoundsOfConstructor() {
+		assertThat(new GradientConcurrencyLimit(3, 7).getMinLimit()).isEqualTo(3);
+		assertThat(new AimdConcurrencyLimit(3, 7).getMaxLimit()).isEqualTo(7);
+
+		boolean rejected = false;
+		try {
+			new AimdConcurrencyLimit(0, 7);
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		assertThat(rejected).isTrue();
+	}
+}
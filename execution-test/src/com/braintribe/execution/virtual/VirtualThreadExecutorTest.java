@@ -0,0 +1,425 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+
+public class VirtualThreadExecutorTest {
+
+	private static final int CONCURRENCY = 3;
+	private static final int TASKS = 30;
+
+	@Test
+	public void testConcurrencyWithoutMonitoring() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("unmonitored").build();
+		assertConcurrency(executor);
+	}
+
+	@Test
+	public void testConcurrencyWithMonitoring() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("monitored").monitoring(true)
+				.build();
+		assertConcurrency(executor);
+	}
+
+	@Test
+	public void testAllEntryPoints() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("entry-points").build();
+		ConcurrencyProbe probe = new ConcurrencyProbe();
+		Set<Thread> batchThreads = ConcurrentHashMap.newKeySet();
+		try {
+			CountDownLatch executed = new CountDownLatch(TASKS);
+			for (int i = 0; i < TASKS; i++) {
+				executor.execute(() -> {
+					probe.run();
+					executed.countDown();
+				});
+			}
+			assertThat(executed.await(10, TimeUnit.SECONDS)).isTrue();
+
+			List<Callable<Integer>> batch = new ArrayList<>();
+			for (int i = 0; i < TASKS; i++) {
+				int n = i;
+				batch.add(() -> {
+					batchThreads.add(Thread.currentThread());
+					probe.run();
+					return n;
+				});
+			}
+			List<Future<Integer>> results = executor.invokeAll(batch);
+			assertThat(results).hasSize(TASKS);
+			assertThat(results.get(TASKS - 1).get()).isEqualTo(TASKS - 1);
+
+			assertThat(executor.invokeAny(batch.subList(0, 5))).isBetween(0, 4);
+		} finally {
+			executor.preDestroy();
+		}
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(probe.maxRunning.get()).isEqualTo(CONCURRENCY);
+		assertThat(batchThreads.size()).isLessThanOrEqualTo(CONCURRENCY + 5);
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+	}
+
+	@Test
+	public void testAdmissionQueue() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("queued")
+				.admissionQueue(TASKS, RejectionPolicy.ABORT).build();
+		assertConcurrency(executor);
+	}
+
+	@Test
+	public void testAdmissionQueueBound() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(1).description("bounded")
+				.admissionQueue(2, RejectionPolicy.ABORT).build();
+		CountDownLatch release = new CountDownLatch(1);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				futures.add(executor.submit(() -> {
+					threads.add(Thread.currentThread());
+					release.await();
+					return null;
+				}));
+			}
+			assertThat(executor.getPendingTasksInQueue()).isEqualTo(2);
+
+			boolean rejected = false;
+			try {
+				executor.submit(() -> {});
+			} catch (RejectedExecutionException e) {
+				rejected = true;
+			}
+			assertThat(rejected).isTrue();
+
+			release.countDown();
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.preDestroy();
+		}
+
+		// the queued tasks did not get threads of their own while they were waiting
+		assertThat(threads).hasSize(1);
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+	}
+
+	@Test
+	public void testAdaptiveConcurrencyLimit() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("adaptive")
+				.adaptiveConcurrencyLimit(new AimdConcurrencyLimit(1, 8)).build();
+		ConcurrencyProbe probe = new ConcurrencyProbe();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < TASKS; i++) {
+				futures.add(executor.submit(() -> {
+					throw new IllegalStateException("failing on purpose");
+				}));
+			}
+			awaitAll(futures);
+			assertThat(executor.getConcurrency()).isEqualTo(1);
+
+			futures.clear();
+			for (int i = 0; i < 2 * TASKS; i++) {
+				futures.add(executor.submit(probe));
+			}
+			awaitAll(futures);
+			assertThat(executor.getConcurrency()).isEqualTo(8);
+
+			ThreadPoolStatistics statistics = ThreadPoolMonitoring.getStatistics().stream() //
+					.filter(s -> "adaptive".equals(s.getDescription())) //
+					.findFirst() //
+					.get();
+			assertThat(statistics.getConcurrencyLimit()).isEqualTo(8);
+		} finally {
+			executor.preDestroy();
+		}
+
+		assertThat(probe.maxRunning.get()).isBetween(CONCURRENCY + 1, 8);
+	}
+
+	@Test
+	public void testKeyConcurrency() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("keyed").keyConcurrency(2)
+				.build();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger noisyRunning = new AtomicInteger();
+		AtomicInteger noisyMaxRunning = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < TASKS; i++) {
+				futures.add(executor.submit("noisy", () -> {
+					noisyMaxRunning.accumulateAndGet(noisyRunning.incrementAndGet(), Math::max);
+					release.await();
+					noisyRunning.decrementAndGet();
+					return null;
+				}));
+			}
+
+			// the noisy key only takes two of the three permits
+			assertThat(executor.submit("quiet", () -> "done").get(10, TimeUnit.SECONDS)).isEqualTo("done");
+
+			Future<?> cancelled = futures.get(TASKS - 1);
+			cancelled.cancel(false);
+			assertThat(executor.getInFlightTasks("noisy")).isEqualTo(TASKS - 1);
+
+			release.countDown();
+			awaitAll(futures.subList(0, TASKS - 1));
+		} finally {
+			executor.preDestroy();
+		}
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(noisyMaxRunning.get()).isEqualTo(2);
+		// the keys are gone once they have no tasks
+		assertThat(executor.getInFlightTasksPerKey()).isEmpty();
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+	}
+
+	@Test
+	public void testKeyConcurrencyChangedWithBacklog() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(4).description("keyed-resize").keyConcurrency(1)
+				.build();
+		Semaphore gate = new Semaphore(0);
+		AtomicInteger running = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 6; i++) {
+				futures.add(executor.submit("key", () -> {
+					running.incrementAndGet();
+					gate.acquire();
+					running.decrementAndGet();
+					return null;
+				}));
+			}
+			awaitValue(running, 1);
+
+			// a raised limit admits several waiting tasks as soon as one finishes
+			executor.setKeyConcurrency(3);
+			gate.release();
+			awaitValue(running, 3);
+			assertThat(executor.getInFlightTasks("key")).isEqualTo(5);
+
+			// a lowered one lets the running tasks finish without successors until the key is below it
+			executor.setKeyConcurrency(1);
+			gate.release(2);
+			awaitValue(running, 1);
+			Thread.sleep(100);
+			assertThat(running.get()).isEqualTo(1);
+			assertThat(executor.getInFlightTasks("key")).isEqualTo(3);
+
+			gate.release(3);
+			awaitAll(futures);
+		} finally {
+			executor.preDestroy();
+		}
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(executor.getInFlightTasksPerKey()).isEmpty();
+	}
+
+	@Test
+	public void testShutdownNowWithKeyBacklog() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("keyed-shutdown")
+				.keyConcurrency(1).build();
+		CountDownLatch started = new CountDownLatch(1);
+		for (int i = 0; i < 5; i++) {
+			executor.submit("key", () -> {
+				started.countDown();
+				new CountDownLatch(1).await();
+				return null;
+			});
+		}
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(executor.getPendingTasksInQueue()).isEqualTo(4);
+
+		List<Runnable> drained = executor.shutdownNow();
+		assertThat(drained).hasSize(4);
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+
+		// cancelling what shutdownNow returned must not account the tasks once more
+		for (Runnable task : drained) {
+			((Future<?>) task).cancel(false);
+		}
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+		assertThat(executor.getInFlightTasksPerKey()).isEmpty();
+		executor.preDestroy();
+	}
+
+	@Test
+	public void testShutdownWithKeyBacklog() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(CONCURRENCY).description("keyed-graceful")
+				.keyConcurrency(1).build();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			int value = i;
+			futures.add(executor.submit("key", () -> {
+				release.await();
+				return value;
+			}));
+		}
+
+		executor.shutdown();
+		assertThat(executor.isShutdown()).isTrue();
+		boolean rejected = false;
+		try {
+			executor.submit("key", () -> 0);
+		} catch (RejectedExecutionException e) {
+			rejected = true;
+		}
+		assertThat(rejected).isTrue();
+
+		// the waiting tasks have been accepted before the shutdown, hence they still run
+		release.countDown();
+		for (int i = 0; i < 5; i++) {
+			assertThat(futures.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i);
+		}
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+		executor.preDestroy();
+	}
+
+	@Test
+	public void testRaiseConcurrencyAfterShutdown() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(1).description("queued-shutdown")
+				.admissionQueue(TASKS, RejectionPolicy.ABORT).build();
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> blocking = executor.submit(() -> {
+			release.await();
+			return null;
+		});
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			int value = i;
+			futures.add(executor.submit(() -> value));
+		}
+		assertThat(executor.getPendingTasksInQueue()).isEqualTo(3);
+
+		executor.shutdown();
+		// the queued tasks have been accepted before the shutdown, hence they start as soon as the limit admits them
+		executor.setConcurrency(4);
+		for (int i = 0; i < 3; i++) {
+			assertThat(futures.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i);
+		}
+		assertThat(executor.isTerminated()).isFalse();
+
+		release.countDown();
+		blocking.get(10, TimeUnit.SECONDS);
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		executor.preDestroy();
+	}
+
+	@Test
+	public void testKeyHandoverWithFullAdmissionQueue() throws Exception {
+		VirtualThreadExecutor executor = VirtualThreadExecutorBuilder.newPool().concurrency(1).description("keyed-blocking")
+				.admissionQueue(1, RejectionPolicy.BLOCK).keyConcurrency(1).build();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Future<?> first = executor.submit("key", () -> {
+				release.await();
+				return null;
+			});
+			Future<?> second = executor.submit("key", () -> "second");
+			// takes the only slot of the admission queue
+			Future<?> unkeyed = executor.submit(() -> "unkeyed");
+
+			// the worker of the first task must not block on the full queue while handing its key over
+			release.countDown();
+			first.get(10, TimeUnit.SECONDS);
+			assertThat(unkeyed.get(10, TimeUnit.SECONDS)).isEqualTo("unkeyed");
+			assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("second");
+		} finally {
+			executor.preDestroy();
+		}
+	}
+
+	private static void awaitValue(AtomicInteger value, int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (value.get() != expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(value.get()).isEqualTo(expected);
+	}
+
+	private static void awaitAll(List<Future<?>> futures) throws Exception {
+		for (Future<?> future : futures) {
+			try {
+				future.get(10, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				// expected for the failing tasks
+			}
+		}
+	}
+
+	private static void assertConcurrency(VirtualThreadExecutor executor) throws Exception {
+		ConcurrencyProbe probe = new ConcurrencyProbe();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < TASKS; i++) {
+				futures.add(executor.submit(probe));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.preDestroy();
+		}
+
+		assertThat(probe.finished.get()).isEqualTo(TASKS);
+		assertThat(probe.maxRunning.get()).isEqualTo(CONCURRENCY);
+		assertThat(executor.getPendingTasksInQueue()).isZero();
+	}
+
+	static class ConcurrencyProbe implements Runnable {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final AtomicInteger finished = new AtomicInteger();
+
+		@Override
+		public void run() {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+				finished.incrementAndGet();
+			}
+		}
+	}
+}
@@ -17,9 +17,13 @@ package com.braintribe.execution;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -29,9 +33,20 @@ import com.braintribe.cfg.Configurable;
 import com.braintribe.cfg.LifecycleAware;
 import com.braintribe.execution.context.AttributeContextTransferRunnable;
 import com.braintribe.execution.monitoring.ExecutionMonitoring;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.MonitoredScheduledFuture;
 import com.braintribe.execution.monitoring.MonitoredThreadPool;
-import com.braintribe.execution.monitoring.MonitoringRunnable;
+import com.braintribe.execution.monitoring.MonitoringRejectedExecutionHandler;
+import com.braintribe.execution.monitoring.MonitoringSampling;
+import com.braintribe.execution.monitoring.ScheduleStatistics;
+import com.braintribe.execution.monitoring.StandardThreadPoolStatistics;
+import com.braintribe.execution.monitoring.StuckTaskDetector;
+import com.braintribe.execution.monitoring.TaskEventHistory;
+import com.braintribe.execution.monitoring.TaskKeys;
 import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateSampler;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
 import com.braintribe.execution.priority.ComparableDelegationRunnable;
 import com.braintribe.logging.Logger;
 import com.braintribe.utils.StringTools;
@@ -44,23 +59,43 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 
 	private boolean addThreadContextToNdc = true;
 	private boolean enableMonitoring = true;
+	private MonitoringSampling monitoringSampling = MonitoringSampling.all();
+	private int maxTaskKeys = 0;
+	private Duration stuckTaskThreshold = null;
+	private boolean trackCpuAndAllocation = false;
+	private boolean sampleThreadStates = false;
+	private int taskEventHistorySize = 0;
+	private List<Duration> statisticsWindows = null;
 
 	private final String threadPoolId = UUID.randomUUID().toString();
 	private String description;
 
 	private static AtomicLong threadIdCounter = new AtomicLong(0);
-	private final ThreadLocal<String> currentExecutionId = new ThreadLocal<>();
+	private final ThreadLocal<ExecutionSlot> workerSlot = new ThreadLocal<>();
+	// period of the periodic task the current thread schedules, positive for a fixed rate and negative for a fixed delay
+	private final ThreadLocal<Long> schedulingPeriodNanos = new ThreadLocal<>();
+	private StandardThreadPoolStatistics statistics;
 
 	private boolean waitForTasksToCompleteOnShutdown = true;
 
 	public ExtendedScheduledThreadPoolExecutor(int corePoolSize, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
-		super(corePoolSize, threadFactory, handler);
+		super(corePoolSize, threadFactory, MonitoringRejectedExecutionHandler.wrap(handler));
 	}
 	public ExtendedScheduledThreadPoolExecutor(int corePoolSize, ThreadFactory threadFactory) {
-		super(corePoolSize, threadFactory);
+		super(corePoolSize, threadFactory, MonitoringRejectedExecutionHandler.abortPolicy());
 	}
 	public ExtendedScheduledThreadPoolExecutor(int corePoolSize) {
-		super(corePoolSize, Thread.ofVirtual().factory());
+		super(corePoolSize, Thread.ofVirtual().factory(), MonitoringRejectedExecutionHandler.abortPolicy());
+	}
+
+	@Override
+	public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+		super.setRejectedExecutionHandler(MonitoringRejectedExecutionHandler.wrap(handler));
+	}
+
+	@Override
+	public RejectedExecutionHandler getRejectedExecutionHandler() {
+		return MonitoringRejectedExecutionHandler.unwrap(super.getRejectedExecutionHandler());
 	}
 
 	@Override
@@ -69,7 +104,7 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 			logger.trace("A scheduled thread-pool without description has been created. This is not advisable.");
 			description = "anonymous-" + threadPoolId;
 		}
-		ThreadPoolMonitoring.registerThreadPool(threadPoolId, this);
+		statistics = ThreadPoolMonitoring.registerThreadPoolStatistics(threadPoolId, this);
 
 		logger.debug(() -> "Constructed thread pool " + getIdentification());
 	}
@@ -107,18 +142,23 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 	protected void beforeExecute(final Thread t, final Runnable r) {
 		super.beforeExecute(t, r);
 
+		TaskEvents.started(description, r);
+
 		if (enableMonitoring) {
-			Long execId = threadIdCounter.incrementAndGet();
-			String execIdString = Long.toString(execId.longValue(), 36);
+			long execId = threadIdCounter.incrementAndGet();
 
-			if (addThreadContextToNdc) {
-				logger.pushContext("executionId={" + execIdString + "}");
-				logger.pushContext("threadId={" + t.getName() + "}");
-			}
+			ExecutionSlot slot = statistics != null ? workerSlot(t) : null;
+			// one decision per run, shared with the timing of the run by the decoration, see monitored(...)
+			boolean sampled = r instanceof MonitoredScheduledFuture && ((MonitoredScheduledFuture<?>) r).sampleRun();
 
-			currentExecutionId.set(execIdString);
+			if (addThreadContextToNdc && sampled) {
+				logger.pushContext(slot != null ? slot.getExecutionContext(execId) : "executionId={" + Long.toString(execId, 36) + "}");
+				logger.pushContext(slot != null ? slot.getWorkerContext() : "threadId={" + t.getName() + "}");
+			}
 
-			ThreadPoolMonitoring.beforeExecution(threadPoolId, execIdString);
+			if (statistics != null) {
+				statistics.beforeExecution(slot, execId, sampled);
+			}
 		}
 	}
 
@@ -127,17 +167,34 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 		super.afterExecute(r, t);
 
 		if (enableMonitoring) {
-			String execIdString = currentExecutionId.get();
-			currentExecutionId.remove();
-			ThreadPoolMonitoring.afterExecution(threadPoolId, execIdString);
+			ExecutionSlot slot = workerSlot.get();
+			boolean sampled = r instanceof MonitoredScheduledFuture && ((MonitoredScheduledFuture<?>) r).isRunSampled();
 
-			if (addThreadContextToNdc) {
+			if (statistics != null) {
+				statistics.afterExecution(slot);
+			}
+
+			if (addThreadContextToNdc && sampled) {
 				logger.popContext();
 				logger.popContext();
 			}
 		}
 	}
 
+	/**
+	 * Returns the {@link ExecutionSlot} bound to the given worker thread, binding one on the first task the worker executes.
+	 */
+	private ExecutionSlot workerSlot(Thread worker) {
+		ExecutionSlot slot = workerSlot.get();
+		if (slot == null) {
+			slot = statistics.acquireExecutionSlot(worker);
+			if (slot != null) {
+				workerSlot.set(slot);
+			}
+		}
+		return slot;
+	}
+
 	@Configurable
 	public void setDescription(String description) {
 		this.description = description;
@@ -167,6 +224,53 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 		super.allowCoreThreadTimeOut(value);
 	}
 
+	@Override
+	public MonitoringSampling getMonitoringSampling() {
+		return monitoringSampling;
+	}
+
+	@Override
+	public int getMaxTaskKeys() {
+		return maxTaskKeys;
+	}
+
+	@Override
+	public Duration getStuckTaskThreshold() {
+		return stuckTaskThreshold;
+	}
+
+	@Override
+	public boolean isTrackCpuAndAllocation() {
+		return trackCpuAndAllocation;
+	}
+
+	@Override
+	public boolean isSampleThreadStates() {
+		return sampleThreadStates;
+	}
+
+	@Override
+	public int getTaskEventHistorySize() {
+		return taskEventHistorySize;
+	}
+
+	@Override
+	public List<Duration> getStatisticsWindows() {
+		return statisticsWindows;
+	}
+
+	/**
+	 * Only the core size applies to a scheduled pool, which never starts more threads.
+	 */
+	@Override
+	public void resize(int corePoolSize, int maximumPoolSize) {
+		if (corePoolSize < 1) {
+			throw new IllegalArgumentException("Invalid core pool size " + corePoolSize + " for scheduled thread pool " + getIdentification());
+		}
+		super.setCorePoolSize(corePoolSize);
+		logger.info(() -> "Resized scheduled thread pool " + getIdentification() + " to " + corePoolSize + " threads");
+	}
+
 	@Override
 	public int getThreadPoolSize() {
 		return super.getPoolSize();
@@ -191,6 +295,55 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 		this.enableMonitoring = enableMonitoring;
 	}
 	@Configurable
+	public void setMonitoringSampling(MonitoringSampling monitoringSampling) {
+		this.monitoringSampling = monitoringSampling != null ? monitoringSampling : MonitoringSampling.all();
+	}
+	/**
+	 * Enables statistics per task key (see {@link TaskKeys}) for up to the given number of distinct keys. Further keys are
+	 * accounted as "other".
+	 */
+	@Configurable
+	public void setMaxTaskKeys(int maxTaskKeys) {
+		this.maxTaskKeys = maxTaskKeys;
+	}
+	/**
+	 * Reports tasks running for longer than the given threshold as stuck, see {@link StuckTaskDetector}. All tasks are
+	 * watched, regardless of the {@link #setMonitoringSampling(MonitoringSampling) sampling}.
+	 */
+	@Configurable
+	public void setStuckTaskThreshold(Duration stuckTaskThreshold) {
+		this.stuckTaskThreshold = stuckTaskThreshold;
+	}
+	/**
+	 * Measures CPU time and allocated bytes of the tasks, see {@link ThreadPoolStatistics#getTotalCpuTimeInMs()}.
+	 */
+	@Configurable
+	public void setTrackCpuAndAllocation(boolean trackCpuAndAllocation) {
+		this.trackCpuAndAllocation = trackCpuAndAllocation;
+	}
+	/**
+	 * Samples the states of the worker threads, see {@link ThreadStateSampler}.
+	 */
+	@Configurable
+	public void setSampleThreadStates(boolean sampleThreadStates) {
+		this.sampleThreadStates = sampleThreadStates;
+	}
+	/**
+	 * Keeps the given number of recent task events, which are logged when a task gets stuck or is rejected, see
+	 * {@link TaskEventHistory}.
+	 */
+	@Configurable
+	public void setTaskEventHistorySize(int taskEventHistorySize) {
+		this.taskEventHistorySize = taskEventHistorySize;
+	}
+	/**
+	 * Keeps the figures of the given rolling windows, e.g. the last minute, see {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}.
+	 */
+	@Configurable
+	public void setStatisticsWindows(List<Duration> statisticsWindows) {
+		this.statisticsWindows = statisticsWindows;
+	}
+	@Configurable
 	public void setWaitForTasksToCompleteOnShutdown(boolean waitForTasksToCompleteOnShutdown) {
 		this.waitForTasksToCompleteOnShutdown = waitForTasksToCompleteOnShutdown;
 	}
@@ -200,14 +353,69 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 		super.execute(enrich(command));
 	}
 
-	private Runnable enrich(Runnable runnable) {
+	/**
+	 * All of execute, submit, invokeAll and the schedule methods end up here, hence the tasks are timed by the decoration
+	 * rather than by {@link #enrich(Runnable)}.
+	 */
+	@Override
+	protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+		executionSubmitted(runnable);
+		return monitored(task, runnable);
+	}
+
+	@Override
+	protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+		executionSubmitted(callable);
+		return monitored(task, callable);
+	}
+
+	private <V> RunnableScheduledFuture<V> monitored(RunnableScheduledFuture<V> future, Object task) {
+		if (!enableMonitoring) {
+			return withPeriod(new MonitoredScheduledFuture<>(future, task, this, null, null));
+		}
+		// tasks handed over via execute or submit are due at once, their lateness is not tied to a schedule
+		ScheduleStatistics schedule = null;
+		if (statistics != null && (future.isPeriodic() || future.getDelay(TimeUnit.NANOSECONDS) > 0)) {
+			schedule = statistics.scheduleStatisticsFor(task);
+		}
+		return withPeriod(new MonitoredScheduledFuture<>(future, task, this, monitoringSampling, schedule));
+	}
 
-		Runnable effectiveRunnable = runnable;
+	/**
+	 * Sets the period before the task is queued, as it may run right after.
+	 */
+	private <V> MonitoredScheduledFuture<V> withPeriod(MonitoredScheduledFuture<V> future) {
+		Long periodNanos = future.isPeriodic() ? schedulingPeriodNanos.get() : null;
+		if (periodNanos != null) {
+			future.setPeriod(Math.abs(periodNanos), periodNanos > 0);
+		}
+		return future;
+	}
 
-		if (enableMonitoring)
-			effectiveRunnable = new MonitoringRunnable(runnable, this);
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+		// handed over to the decoration, see withPeriod(MonitoredScheduledFuture)
+		schedulingPeriodNanos.set(unit.toNanos(period));
+		try {
+			return super.scheduleAtFixedRate(command, initialDelay, period, unit);
+		} finally {
+			schedulingPeriodNanos.remove();
+		}
+	}
 
-		effectiveRunnable = new AttributeContextTransferRunnable(runnable);
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+		schedulingPeriodNanos.set(-unit.toNanos(delay));
+		try {
+			return super.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+		} finally {
+			schedulingPeriodNanos.remove();
+		}
+	}
+
+	private Runnable enrich(Runnable runnable) {
+
+		Runnable effectiveRunnable = new AttributeContextTransferRunnable(runnable);
 
 		if (runnable instanceof Comparable) {
 			ComparableDelegationRunnable comparableDelegationRunnable = new ComparableDelegationRunnable((Comparable<Object>) runnable,
@@ -220,12 +428,54 @@ public class ExtendedScheduledThreadPoolExecutor extends ScheduledThreadPoolExec
 
 	@Override
 	public void accept(Instant created, Instant executed, Instant finished) {
-		if (created == null || executed == null || finished == null) {
-			return;
+		ExecutionMonitoring.acceptAsNanos(this, created, executed, finished);
+	}
+
+	@Override
+	public void executionFinished(long createdNanos, long startedNanos, long finishedNanos) {
+		if (statistics != null) {
+			statistics.registerThreadPoolExecution(startedNanos - createdNanos, finishedNanos - startedNanos);
+		}
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos) {
+		executionFinished(task, createdNanos, startedNanos, finishedNanos, null);
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		if (statistics != null) {
+			statistics.executionFinished(task, createdNanos, startedNanos, finishedNanos, failure);
+		}
+		TaskEvents.finished(description, task, startedNanos - createdNanos, finishedNanos - startedNanos);
+	}
+
+	@Override
+	public void executionSubmitted(Object task) {
+		if (statistics != null) {
+			statistics.executionSubmitted();
+		}
+		TaskEvents.submitted(description, task, this);
+	}
+
+	@Override
+	public void executionRejected(Object task) {
+		if (statistics != null) {
+			// the rejected task has already been accounted as submitted (see decorateTask)
+			statistics.submissionWithdrawn();
+			statistics.executionRejected(task);
+		}
+		TaskEvents.rejected(description, task);
+	}
+
+	@Override
+	public void executionCancelled(Object task) {
+		TaskEvents.cancelled(description, task);
+		// the decorated future is what the queue holds, the JDK would only try to remove the undecorated one
+		if (getRemoveOnCancelPolicy() && task instanceof Runnable) {
+			super.remove((Runnable) task);
 		}
-		Duration enqueued = Duration.between(created, executed);
-		Duration executionTime = Duration.between(executed, finished);
-		ThreadPoolMonitoring.registerThreadPoolExecution(threadPoolId, enqueued, executionTime);
 	}
 
 }
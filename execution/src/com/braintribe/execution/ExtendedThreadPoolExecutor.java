@@ -17,6 +17,7 @@ package com.braintribe.execution;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -31,9 +32,20 @@ import com.braintribe.cfg.Configurable;
 import com.braintribe.cfg.LifecycleAware;
 import com.braintribe.execution.context.AttributeContextTransferRunnable;
 import com.braintribe.execution.monitoring.ExecutionMonitoring;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.MonitoredFutureTask;
 import com.braintribe.execution.monitoring.MonitoredThreadPool;
+import com.braintribe.execution.monitoring.MonitoringRejectedExecutionHandler;
 import com.braintribe.execution.monitoring.MonitoringRunnable;
+import com.braintribe.execution.monitoring.MonitoringSampling;
+import com.braintribe.execution.monitoring.StandardThreadPoolStatistics;
+import com.braintribe.execution.monitoring.StuckTaskDetector;
+import com.braintribe.execution.monitoring.TaskEventHistory;
+import com.braintribe.execution.monitoring.TaskKeys;
 import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateSampler;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
 import com.braintribe.execution.priority.ComparableDelegationRunnable;
 import com.braintribe.execution.priority.ComparableDelegationRunnableFuture;
 import com.braintribe.logging.Logger;
@@ -52,6 +64,13 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 
 	private boolean addThreadContextToNdc = true;
 	private boolean enableMonitoring = true;
+	private MonitoringSampling monitoringSampling = MonitoringSampling.all();
+	private int maxTaskKeys = 0;
+	private Duration stuckTaskThreshold = null;
+	private boolean trackCpuAndAllocation = false;
+	private boolean sampleThreadStates = false;
+	private int taskEventHistorySize = 0;
+	private List<Duration> statisticsWindows = null;
 	private boolean customThreadFactory = false;
 	private String threadNamePrefix = null;
 	private boolean waitForTasksToCompleteOnShutdown = true;
@@ -62,46 +81,61 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 
 	private static AtomicLong threadIdCounter = new AtomicLong(0);
 
-	private final ThreadLocal<String> currentExecutionId = new ThreadLocal<>();
+	private final ThreadLocal<ExecutionSlot> workerSlot = new ThreadLocal<>();
+	private StandardThreadPoolStatistics statistics;
 
 	public ExtendedThreadPoolExecutor(final int corePoolSize, final int maximumPoolSize, final long keepAliveTime, final TimeUnit unit,
 			final BlockingQueue<Runnable> workQueue, final ThreadFactory threadFactory) {
-		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory);
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, MonitoringRejectedExecutionHandler.abortPolicy());
 		this.customThreadFactory = true;
 	}
 
 	public ExtendedThreadPoolExecutor(final int corePoolSize, final int maximumPoolSize, final long keepAliveTime, final TimeUnit unit,
 			final BlockingQueue<Runnable> workQueue, final ThreadFactory threadFactory, final RejectedExecutionHandler handler) {
-		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, MonitoringRejectedExecutionHandler.wrap(handler));
 		this.customThreadFactory = true;
 	}
 
 	public ExtendedThreadPoolExecutor(final int corePoolSize, final int maximumPoolSize, final long keepAliveTime, final TimeUnit unit,
 			final BlockingQueue<Runnable> workQueue) {
-		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, MonitoringRejectedExecutionHandler.abortPolicy());
 	}
 
 	public ExtendedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, int keepAliveTime, TimeUnit seconds, BlockingQueue<Runnable> workQueue,
 			RejectedExecutionHandler rejectedExecutionHandler) {
-		super(corePoolSize, maximumPoolSize, keepAliveTime, seconds, workQueue, rejectedExecutionHandler);
+		super(corePoolSize, maximumPoolSize, keepAliveTime, seconds, workQueue, MonitoringRejectedExecutionHandler.wrap(rejectedExecutionHandler));
+	}
+
+	@Override
+	public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+		super.setRejectedExecutionHandler(MonitoringRejectedExecutionHandler.wrap(handler));
+	}
+
+	@Override
+	public RejectedExecutionHandler getRejectedExecutionHandler() {
+		return MonitoringRejectedExecutionHandler.unwrap(super.getRejectedExecutionHandler());
 	}
 
 	@Override
 	protected void beforeExecute(final Thread t, final Runnable r) {
 		super.beforeExecute(t, r);
 
+		TaskEvents.started(description, r);
+
 		if (enableMonitoring) {
-			Long execId = threadIdCounter.incrementAndGet();
-			String execIdString = Long.toString(execId.longValue(), 36);
+			long execId = threadIdCounter.incrementAndGet();
 
-			if (addThreadContextToNdc) {
-				logger.pushContext("executionId={" + execIdString + "}");
-				logger.pushContext("threadId={" + t.getName() + "}");
-			}
+			ExecutionSlot slot = statistics != null ? workerSlot(t) : null;
+			boolean sampled = isSampled(r);
 
-			currentExecutionId.set(execIdString);
+			if (addThreadContextToNdc && sampled) {
+				logger.pushContext(slot != null ? slot.getExecutionContext(execId) : "executionId={" + Long.toString(execId, 36) + "}");
+				logger.pushContext(slot != null ? slot.getWorkerContext() : "threadId={" + t.getName() + "}");
+			}
 
-			ThreadPoolMonitoring.beforeExecution(threadPoolId, execIdString);
+			if (statistics != null) {
+				statistics.beforeExecution(slot, execId, sampled);
+			}
 		}
 	}
 
@@ -110,17 +144,49 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 		super.afterExecute(r, t);
 
 		if (enableMonitoring) {
-			String execIdString = currentExecutionId.get();
-			currentExecutionId.remove();
-			ThreadPoolMonitoring.afterExecution(threadPoolId, execIdString);
+			ExecutionSlot slot = workerSlot.get();
+			boolean sampled = isSampled(r);
 
-			if (addThreadContextToNdc) {
+			if (statistics != null) {
+				statistics.afterExecution(slot);
+			}
+
+			if (addThreadContextToNdc && sampled) {
 				logger.popContext();
 				logger.popContext();
 			}
 		}
 	}
 
+	/**
+	 * Tells whether {@link #enrich(Runnable)} selected the task for sampling, i.e. wrapped it into a
+	 * {@link MonitoringRunnable}. This way the timing, slot and NDC figures cover the same tasks as the histograms.
+	 */
+	private static boolean isSampled(Runnable r) {
+		Runnable current = r;
+		if (current instanceof ComparableDelegationRunnable) {
+			current = ((ComparableDelegationRunnable) current).getDelegate();
+		}
+		if (current instanceof AttributeContextTransferRunnable) {
+			current = ((AttributeContextTransferRunnable) current).getDelegate();
+		}
+		return current instanceof MonitoringRunnable;
+	}
+
+	/**
+	 * Returns the {@link ExecutionSlot} bound to the given worker thread, binding one on the first task the worker executes.
+	 */
+	private ExecutionSlot workerSlot(Thread worker) {
+		ExecutionSlot slot = workerSlot.get();
+		if (slot == null) {
+			slot = statistics.acquireExecutionSlot(worker);
+			if (slot != null) {
+				workerSlot.set(slot);
+			}
+		}
+		return slot;
+	}
+
 	@Override
 	public void allowCoreThreadTimeOut(boolean value) {
 		if (value) {
@@ -157,7 +223,7 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 			}
 		}
 
-		ThreadPoolMonitoring.registerThreadPool(threadPoolId, this);
+		statistics = ThreadPoolMonitoring.registerThreadPoolStatistics(threadPoolId, this);
 
 		logger.debug(() -> "Constructed thread pool " + getIdentification());
 	}
@@ -213,6 +279,55 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 		this.enableMonitoring = enableMonitoring;
 	}
 	@Configurable
+	public void setMonitoringSampling(MonitoringSampling monitoringSampling) {
+		this.monitoringSampling = monitoringSampling != null ? monitoringSampling : MonitoringSampling.all();
+	}
+	/**
+	 * Enables statistics per task key (see {@link TaskKeys}) for up to the given number of distinct keys. Further keys are
+	 * accounted as "other".
+	 */
+	@Configurable
+	public void setMaxTaskKeys(int maxTaskKeys) {
+		this.maxTaskKeys = maxTaskKeys;
+	}
+	/**
+	 * Reports tasks running for longer than the given threshold as stuck, see {@link StuckTaskDetector}. All tasks are
+	 * watched, regardless of the {@link #setMonitoringSampling(MonitoringSampling) sampling}.
+	 */
+	@Configurable
+	public void setStuckTaskThreshold(Duration stuckTaskThreshold) {
+		this.stuckTaskThreshold = stuckTaskThreshold;
+	}
+	/**
+	 * Measures CPU time and allocated bytes of the tasks, see {@link ThreadPoolStatistics#getTotalCpuTimeInMs()}.
+	 */
+	@Configurable
+	public void setTrackCpuAndAllocation(boolean trackCpuAndAllocation) {
+		this.trackCpuAndAllocation = trackCpuAndAllocation;
+	}
+	/**
+	 * Samples the states of the worker threads, see {@link ThreadStateSampler}.
+	 */
+	@Configurable
+	public void setSampleThreadStates(boolean sampleThreadStates) {
+		this.sampleThreadStates = sampleThreadStates;
+	}
+	/**
+	 * Keeps the given number of recent task events, which are logged when a task gets stuck or is rejected, see
+	 * {@link TaskEventHistory}.
+	 */
+	@Configurable
+	public void setTaskEventHistorySize(int taskEventHistorySize) {
+		this.taskEventHistorySize = taskEventHistorySize;
+	}
+	/**
+	 * Keeps the figures of the given rolling windows, e.g. the last minute, see {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}.
+	 */
+	@Configurable
+	public void setStatisticsWindows(List<Duration> statisticsWindows) {
+		this.statisticsWindows = statisticsWindows;
+	}
+	@Configurable
 	public void setThreadNamePrefix(String threadNamePrefix) {
 		this.threadNamePrefix = threadNamePrefix;
 	}
@@ -239,6 +354,57 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 		return queue.size();
 	}
 
+	@Override
+	public MonitoringSampling getMonitoringSampling() {
+		return monitoringSampling;
+	}
+
+	@Override
+	public int getMaxTaskKeys() {
+		return maxTaskKeys;
+	}
+
+	@Override
+	public Duration getStuckTaskThreshold() {
+		return stuckTaskThreshold;
+	}
+
+	@Override
+	public boolean isTrackCpuAndAllocation() {
+		return trackCpuAndAllocation;
+	}
+
+	@Override
+	public boolean isSampleThreadStates() {
+		return sampleThreadStates;
+	}
+
+	@Override
+	public int getTaskEventHistorySize() {
+		return taskEventHistorySize;
+	}
+
+	@Override
+	public List<Duration> getStatisticsWindows() {
+		return statisticsWindows;
+	}
+
+	@Override
+	public void resize(int corePoolSize, int maximumPoolSize) {
+		if (corePoolSize < 0 || maximumPoolSize < 1 || corePoolSize > maximumPoolSize) {
+			throw new IllegalArgumentException("Invalid pool size " + corePoolSize + "/" + maximumPoolSize + " for thread pool " + getIdentification());
+		}
+		// the core size must never exceed the maximum size in between
+		if (maximumPoolSize >= super.getMaximumPoolSize()) {
+			super.setMaximumPoolSize(maximumPoolSize);
+			super.setCorePoolSize(corePoolSize);
+		} else {
+			super.setCorePoolSize(corePoolSize);
+			super.setMaximumPoolSize(maximumPoolSize);
+		}
+		logger.info(() -> "Resized thread pool " + getIdentification() + " to " + corePoolSize + "/" + maximumPoolSize + " threads");
+	}
+
 	@Override
 	public int getThreadPoolSize() {
 		return super.getPoolSize();
@@ -256,6 +422,8 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 
 	@Override
 	public void execute(Runnable command) {
+		// accounted before the hand-over as the task may already be running when execute returns, withdrawn on rejection
+		executionSubmitted(command);
 		super.execute(enrich(command));
 	}
 	
@@ -263,10 +431,10 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 		
 		Runnable effectiveRunnable = runnable;
 		
-		if (enableMonitoring)
+		if (enableMonitoring && monitoringSampling.sample())
 			effectiveRunnable = new MonitoringRunnable(runnable, this);
 			
-		effectiveRunnable = new AttributeContextTransferRunnable(runnable);
+		effectiveRunnable = new AttributeContextTransferRunnable(effectiveRunnable);
 		
 		if (runnable instanceof Comparable) {
 			ComparableDelegationRunnable comparableDelegationRunnable = new ComparableDelegationRunnable((Comparable<Object>)runnable, effectiveRunnable);
@@ -278,23 +446,56 @@ public class ExtendedThreadPoolExecutor extends ThreadPoolExecutor implements Li
 	
 	@Override
 	public void accept(Instant created, Instant executed, Instant finished) {
-		if (created == null || executed == null || finished == null) {
-			return;
+		ExecutionMonitoring.acceptAsNanos(this, created, executed, finished);
+	}
+
+	@Override
+	public void executionFinished(long createdNanos, long startedNanos, long finishedNanos) {
+		if (statistics != null) {
+			statistics.registerThreadPoolExecution(startedNanos - createdNanos, finishedNanos - startedNanos);
+		}
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos) {
+		executionFinished(task, createdNanos, startedNanos, finishedNanos, null);
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		if (statistics != null) {
+			statistics.executionFinished(task, createdNanos, startedNanos, finishedNanos, failure);
+		}
+		TaskEvents.finished(description, task, startedNanos - createdNanos, finishedNanos - startedNanos);
+	}
+
+	@Override
+	public void executionSubmitted(Object task) {
+		if (statistics != null) {
+			statistics.executionSubmitted();
+		}
+		TaskEvents.submitted(description, task, this);
+	}
+
+	@Override
+	public void executionRejected(Object task) {
+		if (statistics != null) {
+			// the rejected task has already been accounted as submitted (see execute)
+			statistics.submissionWithdrawn();
+			statistics.executionRejected(task);
 		}
-		Duration enqueued = Duration.between(created, executed);
-		Duration executionTime = Duration.between(executed, finished);
-		ThreadPoolMonitoring.registerThreadPoolExecution(threadPoolId, enqueued, executionTime);
+		TaskEvents.rejected(description, task);
 	}
 
 	
 	@Override
 	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
-		return preserveComparability(super.newTaskFor(callable), callable);
+		return preserveComparability(new MonitoredFutureTask<>(callable, this), callable);
 	}
 	
 	@Override
 	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
-		return preserveComparability(super.newTaskFor(runnable, value), runnable);
+		return preserveComparability(new MonitoredFutureTask<>(runnable, value, this), runnable);
 	}
 	
 	private <T> RunnableFuture<T> preserveComparability(RunnableFuture<T> runnableFuture, Object comparableCandidate) {
@@ -15,11 +15,20 @@
 // ============================================================================
 package com.braintribe.execution;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
+import com.braintribe.execution.monitoring.MonitoringSampling;
+import com.braintribe.execution.monitoring.StuckTaskDetector;
+import com.braintribe.execution.monitoring.TaskEventHistory;
+import com.braintribe.execution.monitoring.TaskKeys;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateSampler;
 import com.braintribe.execution.priority.PrioritizedThreadPoolExecutor;
 
 public class ThreadPoolBuilder {
@@ -36,6 +45,13 @@ public class ThreadPoolBuilder {
 	private String threadNamePrefix = null;
 	private Boolean addThreadContextToNdc = null;
 	private String description = null;
+	private MonitoringSampling monitoringSampling = null;
+	private Integer maxTaskKeys = null;
+	private Duration stuckTaskThreshold = null;
+	private Boolean trackCpuAndAllocation = null;
+	private Boolean sampleThreadStates = null;
+	private Integer taskEventHistorySize = null;
+	private List<Duration> statisticsWindows = null;
 
 	private ThreadPoolBuilder() {
 		// 
@@ -99,6 +115,64 @@ public class ThreadPoolBuilder {
 		this.description = desc;
 		return this;
 	}
+
+	/**
+	 * Records timing, histograms and NDC context only for the tasks selected by the given sampling, e.g.
+	 * {@link MonitoringSampling#oneIn(int)}. Execution counters stay exact.
+	 */
+	public ThreadPoolBuilder monitoringSampling(MonitoringSampling monitoringSampling) {
+		this.monitoringSampling = monitoringSampling;
+		return this;
+	}
+
+	/**
+	 * Tracks statistics per task key (see {@link TaskKeys}) for up to the given number of distinct keys.
+	 */
+	public ThreadPoolBuilder maxTaskKeys(int maxTaskKeys) {
+		this.maxTaskKeys = maxTaskKeys;
+		return this;
+	}
+
+	/**
+	 * Reports tasks running for longer than the given threshold as stuck, see {@link StuckTaskDetector}.
+	 */
+	public ThreadPoolBuilder stuckTaskThreshold(Duration stuckTaskThreshold) {
+		this.stuckTaskThreshold = stuckTaskThreshold;
+		return this;
+	}
+
+	/**
+	 * Measures CPU time and allocated bytes of the tasks, see {@link ThreadPoolStatistics#getTotalCpuTimeInMs()}.
+	 */
+	public ThreadPoolBuilder trackCpuAndAllocation(boolean trackCpuAndAllocation) {
+		this.trackCpuAndAllocation = trackCpuAndAllocation;
+		return this;
+	}
+
+	/**
+	 * Samples the states of the worker threads, see {@link ThreadStateSampler}.
+	 */
+	public ThreadPoolBuilder sampleThreadStates(boolean sampleThreadStates) {
+		this.sampleThreadStates = sampleThreadStates;
+		return this;
+	}
+
+	/**
+	 * Keeps the given number of recent task events, which are logged when a task gets stuck or is rejected, see
+	 * {@link TaskEventHistory}.
+	 */
+	public ThreadPoolBuilder taskEventHistorySize(int taskEventHistorySize) {
+		this.taskEventHistorySize = taskEventHistorySize;
+		return this;
+	}
+
+	/**
+	 * Keeps the figures of the given rolling windows, e.g. the last minute, see {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}.
+	 */
+	public ThreadPoolBuilder statisticsWindows(Duration... statisticsWindows) {
+		this.statisticsWindows = Arrays.asList(statisticsWindows);
+		return this;
+	}
 	
 	public ExtendedThreadPoolExecutor build() {
 		if (corePoolSize == null || maximumPoolSize == null) {
@@ -149,6 +223,27 @@ public class ThreadPoolBuilder {
 		if (addThreadContextToNdc != null) {
 			result.setAddThreadContextToNdc(addThreadContextToNdc);
 		}
+		if (monitoringSampling != null) {
+			result.setMonitoringSampling(monitoringSampling);
+		}
+		if (maxTaskKeys != null) {
+			result.setMaxTaskKeys(maxTaskKeys);
+		}
+		if (stuckTaskThreshold != null) {
+			result.setStuckTaskThreshold(stuckTaskThreshold);
+		}
+		if (trackCpuAndAllocation != null) {
+			result.setTrackCpuAndAllocation(trackCpuAndAllocation);
+		}
+		if (sampleThreadStates != null) {
+			result.setSampleThreadStates(sampleThreadStates);
+		}
+		if (taskEventHistorySize != null) {
+			result.setTaskEventHistorySize(taskEventHistorySize);
+		}
+		if (statisticsWindows != null) {
+			result.setStatisticsWindows(statisticsWindows);
+		}
 		result.setDescription(description);
 		
 		result.postConstruct();
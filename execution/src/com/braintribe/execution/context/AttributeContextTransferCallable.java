@@ -18,9 +18,10 @@ package com.braintribe.execution.context;
 import java.util.concurrent.Callable;
 
 import com.braintribe.common.attribute.AttributeContext;
+import com.braintribe.execution.DelegatingCallable;
 import com.braintribe.utils.collection.impl.AttributeContexts;
 
-public class AttributeContextTransferCallable<T> implements Callable<T> {
+public class AttributeContextTransferCallable<T> implements DelegatingCallable<T> {
 	private AttributeContext attributeContext = AttributeContexts.peek();
 	private Callable<T> callable;
 
@@ -37,4 +38,9 @@ public class AttributeContextTransferCallable<T> implements Callable<T> {
 			return callable.call();
 		}
 	}
+
+	@Override
+	public Callable<T> getDelegate() {
+		return callable;
+	}
 }
\ No newline at end of file
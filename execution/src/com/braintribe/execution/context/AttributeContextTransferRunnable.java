@@ -16,9 +16,10 @@
 package com.braintribe.execution.context;
 
 import com.braintribe.common.attribute.AttributeContext;
+import com.braintribe.execution.DelegatingRunnable;
 import com.braintribe.utils.collection.impl.AttributeContexts;
 
-public class AttributeContextTransferRunnable implements Runnable {
+public class AttributeContextTransferRunnable implements DelegatingRunnable {
 	private AttributeContext attributeContext = AttributeContexts.peek();
 	private Runnable runnable;
 	
@@ -36,4 +37,9 @@ public class AttributeContextTransferRunnable implements Runnable {
 			runnable.run();
 		}
 	}
+
+	@Override
+	public Runnable getDelegate() {
+		return runnable;
+	}
 }
\ No newline at end of file
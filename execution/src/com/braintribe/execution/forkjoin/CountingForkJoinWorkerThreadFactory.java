@@ -0,0 +1,57 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ForkJoinWorkerThreadFactory} giving the workers of a pool distinguishable names. The public no-arg constructor
+ * allows to use it for the common pool as well, via
+ * <code>-Djava.util.concurrent.ForkJoinPool.common.threadFactory=com.braintribe.execution.forkjoin.CountingForkJoinWorkerThreadFactory</code>.
+ */
+public class CountingForkJoinWorkerThreadFactory implements ForkJoinWorkerThreadFactory {
+
+	private static final AtomicInteger poolNumber = new AtomicInteger(1);
+
+	private final String namePrefix;
+	private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+	public CountingForkJoinWorkerThreadFactory() {
+		this("common-pool");
+	}
+
+	public CountingForkJoinWorkerThreadFactory(String prefix) {
+		this.namePrefix = namePrefix(prefix);
+	}
+
+	private static String namePrefix(String prefix) {
+		if (prefix == null || prefix.trim().length() == 0)
+			prefix = "fork-join-pool";
+		return prefix + "-" + poolNumber.getAndIncrement() + "-worker-";
+	}
+
+	@Override
+	public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+		ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+			// the constructor is protected
+		};
+		thread.setName(namePrefix + threadNumber.getAndIncrement());
+		return thread;
+	}
+}
@@ -0,0 +1,471 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.forkjoin;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.braintribe.cfg.Configurable;
+import com.braintribe.cfg.LifecycleAware;
+import com.braintribe.execution.context.AttributeContextTransferCallable;
+import com.braintribe.execution.context.AttributeContextTransferRunnable;
+import com.braintribe.execution.monitoring.ExecutionMonitoring;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.MonitoredThreadPool;
+import com.braintribe.execution.monitoring.MonitoringSampling;
+import com.braintribe.execution.monitoring.StandardThreadPoolStatistics;
+import com.braintribe.execution.monitoring.StuckTaskDetector;
+import com.braintribe.execution.monitoring.TaskEventHistory;
+import com.braintribe.execution.monitoring.TaskKeys;
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateSampler;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
+import com.braintribe.logging.Logger;
+import com.braintribe.utils.StringTools;
+import com.braintribe.utils.date.NanoClock;
+
+/**
+ * {@link ForkJoinPool} which takes part in the monitoring like the {@link com.braintribe.execution.ExtendedThreadPoolExecutor}.
+ * Runnables and callables handed to the pool are timed and counted; {@link ForkJoinTask}s are counted as submissions
+ * only, as neither they nor the subtasks they fork pass through the pool in a way which could be instrumented (the same
+ * applies to invokeAll and invokeAny). The
+ * statistics additionally report the steal count, queued submissions and active threads of the pool.
+ */
+public class ExtendedForkJoinPool extends ForkJoinPool implements LifecycleAware, MonitoredThreadPool, ExecutionMonitoring {
+
+	private static Logger logger = Logger.getLogger(ExtendedForkJoinPool.class);
+
+	private boolean addThreadContextToNdc = true;
+	private boolean enableMonitoring = true;
+	private MonitoringSampling monitoringSampling = MonitoringSampling.all();
+	private int maxTaskKeys = 0;
+	private Duration stuckTaskThreshold = null;
+	private boolean trackCpuAndAllocation = false;
+	private boolean sampleThreadStates = false;
+	private int taskEventHistorySize = 0;
+	private List<Duration> statisticsWindows = null;
+	private boolean waitForTasksToCompleteOnShutdown = true;
+	private boolean constructed = false;
+	private String description = null;
+
+	private final String threadPoolId = UUID.randomUUID().toString();
+	private static AtomicLong threadIdCounter = new AtomicLong(0);
+
+	private final ThreadLocal<ExecutionSlot> workerSlot = new ThreadLocal<>();
+	private StandardThreadPoolStatistics statistics;
+
+	public ExtendedForkJoinPool(int parallelism) {
+		this(parallelism, null);
+	}
+
+	public ExtendedForkJoinPool(int parallelism, String threadNamePrefix) {
+		super(parallelism, new CountingForkJoinWorkerThreadFactory(threadNamePrefix), null, false);
+		this.description = threadNamePrefix;
+	}
+
+	protected ExecutionSlot beforeExecute(boolean sampled) {
+
+		if (enableMonitoring) {
+			long execId = threadIdCounter.incrementAndGet();
+			Thread currentThread = Thread.currentThread();
+
+			ExecutionSlot slot = null;
+			if (statistics != null && statistics.requiresExecutionSlot(sampled)) {
+				slot = workerSlot(currentThread);
+			}
+
+			if (addThreadContextToNdc && sampled) {
+				logger.pushContext(slot != null ? slot.getExecutionContext(execId) : "executionId={" + Long.toString(execId, 36) + "}");
+				logger.pushContext(slot != null ? slot.getWorkerContext() : "threadId={" + currentThread.getName() + "}");
+			}
+
+			if (statistics != null) {
+				statistics.beforeExecution(slot, execId, sampled);
+			}
+
+			return slot;
+		}
+		return null;
+	}
+
+	protected void afterExecute(ExecutionSlot slot, boolean sampled) {
+
+		if (enableMonitoring) {
+			if (statistics != null) {
+				statistics.afterExecution(slot);
+				if (slot != workerSlot.get()) {
+					statistics.releaseExecutionSlot(slot);
+				}
+			}
+
+			if (addThreadContextToNdc && sampled) {
+				logger.popContext();
+				logger.popContext();
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link ExecutionSlot} bound to the given worker thread, binding one on the first task the worker executes.
+	 * Workers may run further tasks while joining, which get a slot of their own as long as they run.
+	 */
+	private ExecutionSlot workerSlot(Thread worker) {
+		ExecutionSlot slot = workerSlot.get();
+		if (slot == null) {
+			slot = statistics.acquireExecutionSlot(worker);
+			if (slot != null) {
+				workerSlot.set(slot);
+			}
+		} else if (slot.isRunning()) {
+			slot = statistics.acquireExecutionSlot(worker);
+		}
+		return slot;
+	}
+
+	@Override
+	public void postConstruct() {
+		if (constructed) {
+			return;
+		}
+		constructed = true;
+
+		if (description == null) {
+			logger.trace("A fork-join pool without description has been created. This is not advisable.");
+			description = "anonymous-" + threadPoolId;
+		}
+
+		statistics = ThreadPoolMonitoring.registerThreadPoolStatistics(threadPoolId, this);
+
+		logger.debug(() -> "Constructed fork-join pool " + getIdentification());
+	}
+
+	@Override
+	public void preDestroy() {
+		String identification = getIdentification();
+
+		logger.debug(() -> "Shutting down fork-join pool " + identification + " (waitForTasksToCompleteOnShutdown: "
+				+ waitForTasksToCompleteOnShutdown + ")");
+		Instant start = NanoClock.INSTANCE.instant();
+
+		try {
+			if (waitForTasksToCompleteOnShutdown) {
+				super.shutdown();
+			} else {
+				super.shutdownNow();
+			}
+		} finally {
+			ThreadPoolMonitoring.unregisterThreadPool(threadPoolId);
+
+			logger.debug(() -> "Shutting down fork-join pool " + identification + " took " + StringTools.prettyPrintDuration(start, true, null));
+		}
+	}
+
+	private String getIdentification() {
+		if (description == null) {
+			return threadPoolId;
+		}
+		return threadPoolId.concat(" (").concat(description).concat(")");
+	}
+
+	@Configurable
+	public void setAddThreadContextToNdc(boolean addThreadContextToNdc) {
+		this.addThreadContextToNdc = addThreadContextToNdc;
+	}
+	@Configurable
+	public void setEnableMonitoring(boolean enableMonitoring) {
+		this.enableMonitoring = enableMonitoring;
+	}
+	@Configurable
+	public void setMonitoringSampling(MonitoringSampling monitoringSampling) {
+		this.monitoringSampling = monitoringSampling != null ? monitoringSampling : MonitoringSampling.all();
+	}
+	/**
+	 * Enables statistics per task key (see {@link TaskKeys}) for up to the given number of distinct keys. Further keys are
+	 * accounted as "other".
+	 */
+	@Configurable
+	public void setMaxTaskKeys(int maxTaskKeys) {
+		this.maxTaskKeys = maxTaskKeys;
+	}
+	/**
+	 * Reports tasks running for longer than the given threshold as stuck, see {@link StuckTaskDetector}. All tasks are
+	 * watched, regardless of the {@link #setMonitoringSampling(MonitoringSampling) sampling}.
+	 */
+	@Configurable
+	public void setStuckTaskThreshold(Duration stuckTaskThreshold) {
+		this.stuckTaskThreshold = stuckTaskThreshold;
+	}
+	/**
+	 * Measures CPU time and allocated bytes of the tasks, see {@link ThreadPoolStatistics#getTotalCpuTimeInMs()}.
+	 */
+	@Configurable
+	public void setTrackCpuAndAllocation(boolean trackCpuAndAllocation) {
+		this.trackCpuAndAllocation = trackCpuAndAllocation;
+	}
+	/**
+	 * Samples the states of the worker threads, see {@link ThreadStateSampler}.
+	 */
+	@Configurable
+	public void setSampleThreadStates(boolean sampleThreadStates) {
+		this.sampleThreadStates = sampleThreadStates;
+	}
+	/**
+	 * Keeps the given number of recent task events, which are logged when a task gets stuck or is rejected, see
+	 * {@link TaskEventHistory}.
+	 */
+	@Configurable
+	public void setTaskEventHistorySize(int taskEventHistorySize) {
+		this.taskEventHistorySize = taskEventHistorySize;
+	}
+	/**
+	 * Keeps the figures of the given rolling windows, e.g. the last minute, see {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}.
+	 */
+	@Configurable
+	public void setStatisticsWindows(List<Duration> statisticsWindows) {
+		this.statisticsWindows = statisticsWindows;
+	}
+	@Configurable
+	public void setWaitForTasksToCompleteOnShutdown(boolean waitForTasksToCompleteOnShutdown) {
+		this.waitForTasksToCompleteOnShutdown = waitForTasksToCompleteOnShutdown;
+	}
+	@Configurable
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	@Override
+	public String getDescription() {
+		return description;
+	}
+
+	@Override
+	public int getPendingTasksInQueue() {
+		return (int) Math.min(Integer.MAX_VALUE, getQueuedSubmissionCount() + getQueuedTaskCount());
+	}
+
+	@Override
+	public MonitoringSampling getMonitoringSampling() {
+		return monitoringSampling;
+	}
+
+	@Override
+	public int getMaxTaskKeys() {
+		return maxTaskKeys;
+	}
+
+	@Override
+	public Duration getStuckTaskThreshold() {
+		return stuckTaskThreshold;
+	}
+
+	@Override
+	public boolean isTrackCpuAndAllocation() {
+		return trackCpuAndAllocation;
+	}
+
+	@Override
+	public boolean isSampleThreadStates() {
+		return sampleThreadStates;
+	}
+
+	@Override
+	public int getTaskEventHistorySize() {
+		return taskEventHistorySize;
+	}
+
+	@Override
+	public List<Duration> getStatisticsWindows() {
+		return statisticsWindows;
+	}
+
+	@Override
+	public int getThreadPoolSize() {
+		return super.getPoolSize();
+	}
+
+	@Override
+	public int getCoreThreadPoolSize() {
+		return super.getParallelism();
+	}
+
+	@Override
+	public int getMaximumThreadPoolSize() {
+		return super.getParallelism();
+	}
+
+	@Override
+	public void resize(int corePoolSize, int maximumPoolSize) {
+		if (maximumPoolSize < 1) {
+			throw new IllegalArgumentException("Invalid parallelism " + maximumPoolSize + " for thread pool " + getIdentification());
+		}
+		super.setParallelism(maximumPoolSize);
+		logger.info(() -> "Resized thread pool " + getIdentification() + " to a parallelism of " + maximumPoolSize);
+	}
+
+	@Override
+	public void accept(Instant created, Instant executed, Instant finished) {
+		ExecutionMonitoring.acceptAsNanos(this, created, executed, finished);
+	}
+
+	@Override
+	public void executionFinished(long createdNanos, long startedNanos, long finishedNanos) {
+		if (statistics != null) {
+			statistics.registerThreadPoolExecution(startedNanos - createdNanos, finishedNanos - startedNanos);
+		}
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos) {
+		executionFinished(task, createdNanos, startedNanos, finishedNanos, null);
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		if (statistics != null) {
+			statistics.executionFinished(task, createdNanos, startedNanos, finishedNanos, failure);
+		}
+		TaskEvents.finished(description, task, startedNanos - createdNanos, finishedNanos - startedNanos);
+	}
+
+	@Override
+	public void executionSubmitted(Object task) {
+		if (statistics != null) {
+			statistics.executionSubmitted();
+		}
+		TaskEvents.submitted(description, task, this);
+	}
+
+	@Override
+	public void executionRejected(Object task) {
+		if (statistics != null) {
+			statistics.executionRejected(task);
+		}
+		TaskEvents.rejected(description, task);
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		try {
+			super.execute(enrich(task));
+		} catch (RejectedExecutionException e) {
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+	}
+
+	@Override
+	public ForkJoinTask<?> submit(Runnable task) {
+		ForkJoinTask<?> result;
+		try {
+			result = super.submit(enrich(task));
+		} catch (RejectedExecutionException e) {
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+		return result;
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+		ForkJoinTask<T> future;
+		try {
+			future = super.submit(enrich(task), result);
+		} catch (RejectedExecutionException e) {
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+		return future;
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Callable<T> task) {
+		ForkJoinTask<T> result;
+		try {
+			result = super.submit(enrich(task));
+		} catch (RejectedExecutionException e) {
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+		return result;
+	}
+
+	@Override
+	public void execute(ForkJoinTask<?> task) {
+		try {
+			super.execute(task);
+		} catch (RejectedExecutionException e) {
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+		ForkJoinTask<T> result;
+		try {
+			result = super.submit(task);
+		} catch (RejectedExecutionException e) {
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+		return result;
+	}
+
+	@Override
+	public <T> T invoke(ForkJoinTask<T> task) {
+		executionSubmitted(task);
+		return super.invoke(task);
+	}
+
+	private Runnable enrich(Runnable runnable) {
+		if (runnable instanceof ForkJoinTask) {
+			// already a task of this pool, which would not be recognized as such once wrapped
+			return runnable;
+		}
+
+		Runnable effectiveRunnable = runnable;
+
+		if (enableMonitoring) {
+			effectiveRunnable = new ForkJoinRunnable(runnable, this);
+		}
+
+		return new AttributeContextTransferRunnable(effectiveRunnable);
+	}
+
+	private <T> Callable<T> enrich(Callable<T> callable) {
+		Callable<T> effectiveCallable = callable;
+
+		if (enableMonitoring) {
+			effectiveCallable = new ForkJoinCallable<T>(callable, this);
+		}
+
+		return new AttributeContextTransferCallable<T>(effectiveCallable);
+	}
+}
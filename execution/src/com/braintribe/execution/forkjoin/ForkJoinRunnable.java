@@ -0,0 +1,61 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.forkjoin;
+
+import com.braintribe.execution.DelegatingRunnable;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
+
+public class ForkJoinRunnable implements DelegatingRunnable {
+
+	private Runnable delegate;
+	private long creationNanos;
+	private ExtendedForkJoinPool pool;
+	private boolean sampled;
+
+	public ForkJoinRunnable(Runnable delegate, ExtendedForkJoinPool pool) {
+		this.pool = pool;
+		this.sampled = pool.getMonitoringSampling().sample();
+		this.creationNanos = sampled ? System.nanoTime() : 0L;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void run() {
+		ExecutionSlot slot = pool.beforeExecute(sampled);
+		TaskEvents.started(pool.getDescription(), delegate);
+		long executionNanos = sampled ? System.nanoTime() : 0L;
+		Throwable failure = null;
+		try {
+			this.delegate.run();
+		} catch (Throwable t) {
+			failure = t;
+			throw t;
+		} finally {
+			long finishedNanos = sampled ? System.nanoTime() : 0L;
+
+			pool.afterExecute(slot, sampled);
+			if (sampled) {
+				pool.executionFinished(delegate, creationNanos, executionNanos, finishedNanos, failure);
+			}
+		}
+	}
+
+	@Override
+	public Runnable getDelegate() {
+		return delegate;
+	}
+}
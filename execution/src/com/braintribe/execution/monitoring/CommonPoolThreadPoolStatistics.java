@@ -17,14 +17,44 @@ package com.braintribe.execution.monitoring;
 
 import java.util.concurrent.ForkJoinPool;
 
+import com.braintribe.common.lcd.Numbers;
 import com.braintribe.utils.RandomTools;
 
-public class CommonPoolThreadPoolStatistics implements ThreadPoolStatistics {
+/**
+ * {@link ThreadPoolStatistics} of the {@link ForkJoinPool#commonPool() common pool}. The common pool offers no hooks
+ * around its tasks, so timing figures are not available. Queue depth and activity are derived from sampling the pool on
+ * every monitoring tick, see {@link #tick(long)}.
+ */
+public class CommonPoolThreadPoolStatistics implements ThreadPoolStatistics, ForkJoinStatistics {
 
 	public static CommonPoolThreadPoolStatistics commonPoolStatistics = new CommonPoolThreadPoolStatistics();
 
 	private String id = RandomTools.newStandardUuid();
 
+	private MovingAverages queueDepths = new MovingAverages();
+	private volatile long latestActivity = -1L;
+	private long lastTickNanos;
+	private long lastStealCount;
+
+	/**
+	 * Samples the common pool. Called periodically from a single thread.
+	 */
+	void tick(long nowNanos) {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		long stealCount = pool.getStealCount();
+		long queued = pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+
+		if (pool.getActiveThreadCount() > 0 || queued > 0 || stealCount != lastStealCount) {
+			latestActivity = System.currentTimeMillis();
+		}
+		if (lastTickNanos != 0L) {
+			queueDepths.update(queued, (double) (nowNanos - lastTickNanos) / Numbers.NANOSECONDS_PER_SECOND);
+		}
+
+		lastTickNanos = nowNanos;
+		lastStealCount = stealCount;
+	}
+
 	@Override
 	public int currentlyRunning() {
 		return ForkJoinPool.commonPool().getRunningThreadCount();
@@ -47,27 +77,35 @@ public class CommonPoolThreadPoolStatistics implements ThreadPoolStatistics {
 
 	@Override
 	public int getPendingTasksInQueue() {
-		return (int) ForkJoinPool.commonPool().getQueuedTaskCount();
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		return (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
 	}
 
+	/**
+	 * @return the time since the pool was last seen busy by the sampling, or -1 if it has never been
+	 */
 	@Override
 	public long timeSinceLastExecutionInMs() {
-		return -1;
+		long latest = latestActivity;
+		if (latest == -1L) {
+			return -1L;
+		}
+		return System.currentTimeMillis() - latest;
 	}
 
 	@Override
 	public int getPoolSize() {
-		return ForkJoinPool.commonPool().getRunningThreadCount();
+		return ForkJoinPool.commonPool().getPoolSize();
 	}
 
 	@Override
 	public int getCorePoolSize() {
-		return ForkJoinPool.commonPool().getPoolSize();
+		return ForkJoinPool.getCommonPoolParallelism();
 	}
 
 	@Override
 	public int getMaximumPoolSize() {
-		return ForkJoinPool.commonPool().getPoolSize();
+		return ForkJoinPool.getCommonPoolParallelism();
 	}
 
 	@Override
@@ -95,4 +133,34 @@ public class CommonPoolThreadPoolStatistics implements ThreadPoolStatistics {
 		return null;
 	}
 
+	@Override
+	public LoadRates getQueueDepths() {
+		return queueDepths.getRates();
+	}
+
+	@Override
+	public long getStealCount() {
+		return ForkJoinPool.commonPool().getStealCount();
+	}
+
+	@Override
+	public long getQueuedSubmissionCount() {
+		return ForkJoinPool.commonPool().getQueuedSubmissionCount();
+	}
+
+	@Override
+	public long getQueuedTaskCount() {
+		return ForkJoinPool.commonPool().getQueuedTaskCount();
+	}
+
+	@Override
+	public int getActiveThreadCount() {
+		return ForkJoinPool.commonPool().getActiveThreadCount();
+	}
+
+	@Override
+	public int getParallelism() {
+		return ForkJoinPool.getCommonPoolParallelism();
+	}
+
 }
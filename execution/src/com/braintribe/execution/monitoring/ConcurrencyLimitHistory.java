@@ -0,0 +1,68 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the range of the concurrency limit of a pool which adapts it, per monitoring tick, for the last ticks. Changes
+ * between two ticks only widen the range of the current one, so the history costs the same however often the limit
+ * changes.
+ */
+public class ConcurrencyLimitHistory {
+
+	private final ConcurrencyLimitSample[] samples;
+	private int next;
+	private int count;
+
+	// range since the last tick
+	private int minimum = Integer.MAX_VALUE;
+	private int maximum = Integer.MIN_VALUE;
+
+	public ConcurrencyLimitHistory(int size) {
+		this.samples = new ConcurrencyLimitSample[size];
+	}
+
+	public synchronized void limitChanged(int limit) {
+		minimum = Math.min(minimum, limit);
+		maximum = Math.max(maximum, limit);
+	}
+
+	/**
+	 * Closes the current tick with the given limit, which also starts the range of the next one.
+	 */
+	synchronized void tick(long epochMillis, int limit) {
+		samples[next] = new ConcurrencyLimitSample(Instant.ofEpochMilli(epochMillis), Math.min(minimum, limit), Math.max(maximum, limit), limit);
+		next = (next + 1) % samples.length;
+		count = Math.min(count + 1, samples.length);
+
+		minimum = limit;
+		maximum = limit;
+	}
+
+	/**
+	 * @return the samples, oldest first
+	 */
+	public synchronized List<ConcurrencyLimitSample> getSamples() {
+		List<ConcurrencyLimitSample> result = new ArrayList<>(count);
+		for (int i = count; i > 0; i--) {
+			result.add(samples[(next - i + samples.length) % samples.length]);
+		}
+		return result;
+	}
+}
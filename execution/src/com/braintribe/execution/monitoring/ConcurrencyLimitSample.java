@@ -0,0 +1,69 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Instant;
+
+/**
+ * The concurrency limit of a pool during one monitoring tick, see {@link ConcurrencyLimitHistory}.
+ */
+public class ConcurrencyLimitSample {
+
+	private final Instant timestamp;
+	private final int minimum;
+	private final int maximum;
+	private final int limit;
+
+	ConcurrencyLimitSample(Instant timestamp, int minimum, int maximum, int limit) {
+		this.timestamp = timestamp;
+		this.minimum = minimum;
+		this.maximum = maximum;
+		this.limit = limit;
+	}
+
+	/**
+	 * @return when the tick ended
+	 */
+	public Instant getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return the lowest limit during the tick
+	 */
+	public int getMinimum() {
+		return minimum;
+	}
+
+	/**
+	 * @return the highest limit during the tick
+	 */
+	public int getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * @return the limit at the end of the tick
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	@Override
+	public String toString() {
+		return timestamp + " " + limit + " (" + minimum + ".." + maximum + ")";
+	}
+}
@@ -15,10 +15,79 @@
 // ============================================================================
 package com.braintribe.execution.monitoring;
 
+import java.time.Duration;
 import java.time.Instant;
 
 import com.braintribe.common.lcd.function.TriConsumer;
 
 public interface ExecutionMonitoring extends TriConsumer<Instant, Instant, Instant> {
-	// Intentionally left empty
+
+	/**
+	 * Called when a monitored task finished. All values are {@link System#nanoTime()} stamps, so timing a task does not
+	 * allocate anything as long as the implementation overrides this method. The default translates the stamps into
+	 * instants for {@link #accept(Object, Object, Object) accept}, which remains the one abstract method.
+	 * 
+	 * @param createdNanos
+	 *            when the task was handed to the executor
+	 * @param startedNanos
+	 *            when the task started to run
+	 * @param finishedNanos
+	 *            when the task finished running
+	 */
+	default void executionFinished(long createdNanos, long startedNanos, long finishedNanos) {
+		long nowNanos = System.nanoTime();
+		Instant now = Instant.now();
+		accept(now.minusNanos(nowNanos - createdNanos), now.minusNanos(nowNanos - startedNanos), now.minusNanos(nowNanos - finishedNanos));
+	}
+
+	/**
+	 * Variant of {@link #executionFinished(long, long, long)} which also passes the task that finished, for monitoring which
+	 * wants to tell tasks apart.
+	 */
+	default void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos) {
+		executionFinished(createdNanos, startedNanos, finishedNanos);
+	}
+
+	/**
+	 * Variant of {@link #executionFinished(Object, long, long, long)} which also passes the exception the task failed with,
+	 * <code>null</code> if it completed normally or its outcome is held by the task itself, like the one of a
+	 * {@link java.util.concurrent.Future}.
+	 */
+	default void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		executionFinished(task, createdNanos, startedNanos, finishedNanos);
+	}
+
+	/**
+	 * Called when a task has been accepted by the executor.
+	 */
+	default void executionSubmitted(Object task) {
+		// ignored by default
+	}
+
+	/**
+	 * Called when the executor rejected a task.
+	 */
+	default void executionRejected(Object task) {
+		// ignored by default
+	}
+
+	/**
+	 * Called when a task has been cancelled before it completed.
+	 */
+	default void executionCancelled(Object task) {
+		// ignored by default
+	}
+
+	/**
+	 * Compatibility adapter for implementations of {@link #executionFinished(long, long, long)}, which translates the
+	 * instants of {@link Instant}-based callers into relative nanosecond stamps.
+	 */
+	static void acceptAsNanos(ExecutionMonitoring monitoring, Instant created, Instant executed, Instant finished) {
+		if (created == null || executed == null || finished == null) {
+			return;
+		}
+		long startedNanos = Duration.between(created, executed).toNanos();
+		long finishedNanos = startedNanos + Duration.between(executed, finished).toNanos();
+		monitoring.executionFinished(0L, startedNanos, finishedNanos);
+	}
 }
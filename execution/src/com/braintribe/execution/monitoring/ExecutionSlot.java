@@ -0,0 +1,158 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Slot of an {@link ExecutionSlots} table which holds the in-flight execution of one worker thread. The execution is
+ * identified by a primitive id (0 meaning idle) and its start is a {@link System#nanoTime()} stamp, so starting and
+ * stopping an execution neither hashes, boxes nor allocates.
+ */
+public class ExecutionSlot {
+
+	private static final String EXECUTION_CONTEXT_PREFIX = "executionId={";
+
+	private final AtomicReference<Thread> worker = new AtomicReference<>();
+	private volatile long executionId;
+	private long startNanos;
+	// only touched by the worker itself, whether the running time is recorded
+	private boolean timed;
+	// only touched by the worker itself, -1 if not measured
+	private long startCpuNanos = -1L;
+	private long startAllocatedBytes = -1L;
+	// only touched by the StuckTaskDetector
+	private long reportedExecutionId;
+
+	// NDC entry of the current worker, see getWorkerContext()
+	private String workerContext;
+	private String workerContextName;
+	// only touched by the worker itself, see getExecutionContext(long)
+	private final char[] executionContext = new char[EXECUTION_CONTEXT_PREFIX.length() + 14];
+
+	boolean claim(Thread thread) {
+		Thread current = worker.get();
+		if (current == null) {
+			return worker.compareAndSet(null, thread);
+		}
+		if (!current.isAlive() && worker.compareAndSet(current, thread)) {
+			// the previous worker died without releasing its slot
+			executionId = 0L;
+			return true;
+		}
+		return false;
+	}
+
+	void release() {
+		executionId = 0L;
+		worker.set(null);
+	}
+
+	void started(long executionId, long startNanos, boolean timed) {
+		this.startNanos = startNanos;
+		this.timed = timed;
+		this.executionId = executionId;
+	}
+
+	void resourcesStarted(long cpuNanos, long allocatedBytes) {
+		this.startCpuNanos = cpuNanos;
+		this.startAllocatedBytes = allocatedBytes;
+	}
+
+	boolean isTimed() {
+		return timed;
+	}
+
+	long getStartCpuNanos() {
+		return startCpuNanos;
+	}
+
+	long getStartAllocatedBytes() {
+		return startAllocatedBytes;
+	}
+
+	/**
+	 * @return the nanoseconds since the execution was started
+	 */
+	long stopped(long stopNanos) {
+		long result = stopNanos - startNanos;
+		executionId = 0L;
+		return result;
+	}
+
+	/**
+	 * @return <code>true</code> if the given execution has not been reported as stuck yet, in which case it is marked as
+	 *         reported
+	 */
+	boolean markReported(long executionId) {
+		if (reportedExecutionId == executionId) {
+			return false;
+		}
+		reportedExecutionId = executionId;
+		return true;
+	}
+
+	public Thread getWorker() {
+		return worker.get();
+	}
+
+	/**
+	 * @return the <code>threadId={name}</code> NDC entry of the bound worker. It is rendered on the first call and only
+	 *         re-rendered if the worker changes or gets renamed, so pool workers do not build it again for every task.
+	 */
+	public String getWorkerContext() {
+		Thread thread = worker.get();
+		String name = thread != null ? thread.getName() : null;
+		if (workerContext == null || workerContextName != name) {
+			workerContextName = name;
+			workerContext = "threadId={" + name + "}";
+		}
+		return workerContext;
+	}
+
+	/**
+	 * @return the <code>executionId={id}</code> NDC entry of the given execution, with the id in base 36. It is rendered into
+	 *         a buffer of the slot, so the only allocation is the resulting string; must be called by the bound worker.
+	 */
+	public String getExecutionContext(long executionId) {
+		if (executionId < 0L) {
+			return EXECUTION_CONTEXT_PREFIX + Long.toString(executionId, 36) + "}";
+		}
+		char[] buffer = executionContext;
+		int position = buffer.length;
+		buffer[--position] = '}';
+		long remaining = executionId;
+		do {
+			buffer[--position] = Character.forDigit((int) (remaining % 36), 36);
+			remaining /= 36;
+		} while (remaining > 0L);
+		position -= EXECUTION_CONTEXT_PREFIX.length();
+		EXECUTION_CONTEXT_PREFIX.getChars(0, EXECUTION_CONTEXT_PREFIX.length(), buffer, position);
+		return new String(buffer, position, buffer.length - position);
+	}
+
+	public long getExecutionId() {
+		return executionId;
+	}
+
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+	public boolean isRunning() {
+		return executionId != 0L;
+	}
+}
@@ -0,0 +1,108 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Preallocated table of {@link ExecutionSlot}s, one per worker thread that is currently bound to it. Workers claim a
+ * free slot (or the slot of a worker that died) with a CAS, starting at a position derived from their thread id. Only
+ * when every slot is taken, the table is doubled, which happens at most a few times in the life of a pool. Once it
+ * reached its maximum capacity, further workers get no slot, which is counted as overflow.
+ */
+public class ExecutionSlots {
+
+	private static final int MAX_CAPACITY = 1 << 16;
+
+	private final int maxCapacity;
+	private volatile ExecutionSlot[] slots;
+	private final LongAdder overflowCount = new LongAdder();
+
+	public ExecutionSlots(int initialCapacity) {
+		this(initialCapacity, MAX_CAPACITY);
+	}
+
+	ExecutionSlots(int initialCapacity, int maxCapacity) {
+		this.maxCapacity = maxCapacity;
+		this.slots = newSlots(new ExecutionSlot[0], Math.max(1, Math.min(initialCapacity, maxCapacity)));
+	}
+
+	/**
+	 * @return a slot exclusively bound to the given worker thread until it is {@link #release(ExecutionSlot) released} or
+	 *         the thread dies, or <code>null</code> if the maximum capacity is exhausted.
+	 */
+	public ExecutionSlot acquire(Thread worker) {
+		while (true) {
+			ExecutionSlot[] current = slots;
+			int length = current.length;
+			int start = Math.floorMod(worker.threadId(), length);
+			for (int i = 0; i < length; i++) {
+				ExecutionSlot slot = current[(start + i) % length];
+				if (slot.claim(worker)) {
+					return slot;
+				}
+			}
+			if (!grow(current)) {
+				overflowCount.increment();
+				return null;
+			}
+		}
+	}
+
+	public void release(ExecutionSlot slot) {
+		if (slot != null) {
+			slot.release();
+		}
+	}
+
+	public void forEach(Consumer<ExecutionSlot> consumer) {
+		for (ExecutionSlot slot : slots) {
+			consumer.accept(slot);
+		}
+	}
+
+	public int capacity() {
+		return slots.length;
+	}
+
+	/**
+	 * @return how often a worker got no slot because the maximum capacity was exhausted
+	 */
+	public long getOverflowCount() {
+		return overflowCount.sum();
+	}
+
+	private synchronized boolean grow(ExecutionSlot[] seen) {
+		if (slots != seen) {
+			return true;
+		}
+		if (seen.length >= maxCapacity) {
+			return false;
+		}
+		slots = newSlots(seen, Math.min(seen.length * 2, maxCapacity));
+		return true;
+	}
+
+	private static ExecutionSlot[] newSlots(ExecutionSlot[] existing, int capacity) {
+		ExecutionSlot[] result = new ExecutionSlot[capacity];
+		System.arraycopy(existing, 0, result, 0, existing.length);
+		for (int i = existing.length; i < capacity; i++) {
+			result[i] = new ExecutionSlot();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,56 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link StandardThreadPoolStatistics} of a monitored {@link ForkJoinPool}.
+ */
+public class ForkJoinPoolStatistics extends StandardThreadPoolStatistics implements ForkJoinStatistics {
+
+	private ForkJoinPool forkJoinPool;
+
+	public ForkJoinPoolStatistics(String threadPoolId, MonitoredThreadPool threadPool, ForkJoinPool forkJoinPool) {
+		super(threadPoolId, threadPool);
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	@Override
+	public long getStealCount() {
+		return forkJoinPool.getStealCount();
+	}
+
+	@Override
+	public long getQueuedSubmissionCount() {
+		return forkJoinPool.getQueuedSubmissionCount();
+	}
+
+	@Override
+	public long getQueuedTaskCount() {
+		return forkJoinPool.getQueuedTaskCount();
+	}
+
+	@Override
+	public int getActiveThreadCount() {
+		return forkJoinPool.getActiveThreadCount();
+	}
+
+	@Override
+	public int getParallelism() {
+		return forkJoinPool.getParallelism();
+	}
+}
@@ -0,0 +1,45 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+/**
+ * Additional figures of {@link ThreadPoolStatistics} which are backed by a {@link java.util.concurrent.ForkJoinPool}.
+ */
+public interface ForkJoinStatistics {
+
+	/**
+	 * @return the number of tasks stolen from the queue of one worker by another, see
+	 *         {@link java.util.concurrent.ForkJoinPool#getStealCount()}
+	 */
+	long getStealCount();
+
+	/**
+	 * @return the number of tasks submitted from outside the pool which have not started yet
+	 */
+	long getQueuedSubmissionCount();
+
+	/**
+	 * @return the number of tasks forked by the workers which have not started yet
+	 */
+	long getQueuedTaskCount();
+
+	/**
+	 * @return the number of workers which are stealing or running tasks
+	 */
+	int getActiveThreadCount();
+
+	int getParallelism();
+}
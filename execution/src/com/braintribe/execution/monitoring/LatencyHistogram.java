@@ -0,0 +1,181 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, log-bucketed latency histogram in the spirit of HdrHistogram. Every power of two is split into 8
+ * linear sub-buckets, which bounds the relative error of a reported value to 1/8 while the whole long range fits into
+ * fewer than 500 counters.
+ * <p>
+ * Recording is a single atomic increment without locking or allocation, so the histogram can be fed for every task. Like
+ * a {@link java.util.concurrent.atomic.LongAdder}, a histogram which sees concurrent recordings spreads them over
+ * per-thread stripes from then on, so busy pools do not have all their workers increment the same counters. Readers sum
+ * up the stripes.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private static final int STRIPE_COUNT = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), 16);
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private volatile AtomicLongArray[] stripes;
+
+	public void record(long value) {
+		int index = bucketIndex(value);
+		AtomicLongArray[] stripes = this.stripes;
+		if (stripes == null) {
+			long count = counts.get(index);
+			if (counts.compareAndSet(index, count, count + 1)) {
+				return;
+			}
+			stripes = stripes();
+		}
+		stripes[stripeIndex(stripes.length)].incrementAndGet(index);
+	}
+
+	private synchronized AtomicLongArray[] stripes() {
+		AtomicLongArray[] result = stripes;
+		if (result == null) {
+			result = new AtomicLongArray[STRIPE_COUNT];
+			result[0] = counts;
+			for (int i = 1; i < result.length; i++) {
+				result[i] = new AtomicLongArray(BUCKET_COUNT);
+			}
+			stripes = result;
+		}
+		return result;
+	}
+
+	private static int stripeIndex(int stripeCount) {
+		long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+		return (int) (id >>> 32) & (stripeCount - 1);
+	}
+
+	public long getTotalCount() {
+		long total = 0;
+		for (long count : snapshotCounts()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @return the (approximated) value below which the given percentage of all recorded values lies or -1 if nothing has been
+	 *         recorded yet.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		return valueAtPercentile(snapshotCounts(), percentile);
+	}
+
+	/**
+	 * Copies the current bucket counts into a new array, e.g. to compute several percentiles from one consistent state.
+	 */
+	public long[] snapshotCounts() {
+		long[] result = new long[BUCKET_COUNT];
+		snapshotCounts(result);
+		return result;
+	}
+
+	/**
+	 * Copies the current bucket counts into the given array, which must have at least {@link #bucketCount()} elements. Lets
+	 * callers which read many histograms reuse one array.
+	 */
+	public void snapshotCounts(long[] target) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			target[i] = counts.get(i);
+		}
+		AtomicLongArray[] stripes = this.stripes;
+		if (stripes != null) {
+			for (int s = 1; s < stripes.length; s++) {
+				for (int i = 0; i < BUCKET_COUNT; i++) {
+					target[i] += stripes[s].get(i);
+				}
+			}
+		}
+	}
+
+	public static int bucketCount() {
+		return BUCKET_COUNT;
+	}
+
+	public static long valueAtPercentile(long[] bucketCounts, double percentile) {
+		long total = 0;
+		for (long count : bucketCounts) {
+			total += count;
+		}
+		if (total == 0) {
+			return -1L;
+		}
+
+		double p = Math.min(Math.max(percentile, 0d), 100d);
+		long rank = Math.max(1L, (long) Math.ceil(p / 100d * total));
+
+		long cumulated = 0;
+		for (int i = 0; i < bucketCounts.length; i++) {
+			cumulated += bucketCounts[i];
+			if (cumulated >= rank) {
+				return bucketMidpoint(i);
+			}
+		}
+		return bucketMidpoint(bucketCounts.length - 1);
+	}
+
+	/**
+	 * @return the (approximated) highest value in the given bucket counts, or -1 if there are none
+	 */
+	public static long maxValue(long[] bucketCounts) {
+		if (bucketCounts != null) {
+			for (int i = bucketCounts.length - 1; i >= 0; i--) {
+				if (bucketCounts[i] > 0) {
+					return bucketMidpoint(i);
+				}
+			}
+		}
+		return -1L;
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return value <= 0 ? 0 : (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+		return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	static long bucketLowerBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long subBucket = index & SUB_BUCKET_MASK;
+		return (SUB_BUCKET_COUNT + subBucket) << shift;
+	}
+
+	static long bucketMidpoint(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		return bucketLowerBound(index) + ((1L << shift) >>> 1);
+	}
+}
@@ -0,0 +1,84 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import com.braintribe.common.lcd.Numbers;
+
+/**
+ * Immutable set of the latency percentiles reported by {@link ThreadPoolStatistics}, all values in milliseconds.
+ */
+public class LatencyPercentiles {
+
+	private final double p50;
+	private final double p90;
+	private final double p99;
+	private final double p999;
+
+	public LatencyPercentiles(double p50, double p90, double p99, double p999) {
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.p999 = p999;
+	}
+
+	/**
+	 * @return the percentiles of the given histogram or <code>null</code> if nothing has been recorded yet. The histogram is
+	 *         expected to contain nanoseconds.
+	 */
+	public static LatencyPercentiles of(LatencyHistogram histogram) {
+		return of(histogram.snapshotCounts());
+	}
+
+	/**
+	 * Like {@link #of(LatencyHistogram)}, for bucket counts taken with {@link LatencyHistogram#snapshotCounts()}.
+	 */
+	public static LatencyPercentiles of(long[] counts) {
+		long p50 = LatencyHistogram.valueAtPercentile(counts, 50d);
+		if (p50 < 0) {
+			return null;
+		}
+		return new LatencyPercentiles( //
+				toMs(p50), //
+				toMs(LatencyHistogram.valueAtPercentile(counts, 90d)), //
+				toMs(LatencyHistogram.valueAtPercentile(counts, 99d)), //
+				toMs(LatencyHistogram.valueAtPercentile(counts, 99.9d)));
+	}
+
+	private static double toMs(long nanos) {
+		return (double) nanos / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	public double getP50InMs() {
+		return p50;
+	}
+
+	public double getP90InMs() {
+		return p90;
+	}
+
+	public double getP99InMs() {
+		return p99;
+	}
+
+	public double getP999InMs() {
+		return p999;
+	}
+
+	@Override
+	public String toString() {
+		return "p50=" + p50 + "ms, p90=" + p90 + "ms, p99=" + p99 + "ms, p99.9=" + p999 + "ms";
+	}
+}
@@ -0,0 +1,60 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+/**
+ * Immutable snapshot of a pool metric: its current value and its exponentially weighted moving averages over 1, 5 and 15
+ * minutes, like the load average of Unix systems. For rates the values are per second, for gauges like the queue depth
+ * they are in the unit of the gauge.
+ */
+public class LoadRates {
+
+	private final double current;
+	private final double oneMinute;
+	private final double fiveMinutes;
+	private final double fifteenMinutes;
+
+	public LoadRates(double current, double oneMinute, double fiveMinutes, double fifteenMinutes) {
+		this.current = current;
+		this.oneMinute = oneMinute;
+		this.fiveMinutes = fiveMinutes;
+		this.fifteenMinutes = fifteenMinutes;
+	}
+
+	/**
+	 * @return the value over the latest tick, i.e. the last few seconds
+	 */
+	public double getCurrent() {
+		return current;
+	}
+
+	public double getOneMinute() {
+		return oneMinute;
+	}
+
+	public double getFiveMinutes() {
+		return fiveMinutes;
+	}
+
+	public double getFifteenMinutes() {
+		return fifteenMinutes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.2f (1m: %.2f, 5m: %.2f, 15m: %.2f)", current, oneMinute, fiveMinutes, fifteenMinutes);
+	}
+}
@@ -0,0 +1,56 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
+
+/**
+ * {@link FutureTask} created by the monitored executors for submitted tasks. It keeps the task as it was handed over, so
+ * monitoring can tell what is actually running, and reports cancellations.
+ */
+public class MonitoredFutureTask<T> extends FutureTask<T> {
+
+	private final Object task;
+	private final MonitoredThreadPool threadPool;
+
+	public MonitoredFutureTask(Callable<T> callable, MonitoredThreadPool threadPool) {
+		super(callable);
+		this.task = callable;
+		this.threadPool = threadPool;
+	}
+
+	public MonitoredFutureTask(Runnable runnable, T result, MonitoredThreadPool threadPool) {
+		super(runnable, result);
+		this.task = runnable;
+		this.threadPool = threadPool;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		boolean cancelled = super.cancel(mayInterruptIfRunning);
+		if (cancelled) {
+			TaskEvents.cancelled(threadPool.getDescription(), task);
+		}
+		return cancelled;
+	}
+
+	public Object getTask() {
+		return task;
+	}
+}
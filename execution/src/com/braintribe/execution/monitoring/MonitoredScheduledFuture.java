@@ -0,0 +1,174 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decoration of the {@link RunnableScheduledFuture}s of a scheduled executor, which times each run and reports
+ * cancellations. As a scheduled task is not meant to run before it is due, its queue wait is the time between becoming due
+ * and actually being started, which also keeps the figures meaningful for periodic tasks. For delayed and periodic tasks
+ * this lateness is additionally recorded per schedule, see {@link ScheduleStatistics}.
+ */
+public class MonitoredScheduledFuture<V> implements RunnableScheduledFuture<V> {
+
+	private final RunnableScheduledFuture<V> future;
+	private final Object task;
+	private final ExecutionMonitoring monitoring;
+	private final MonitoringSampling sampling;
+	private final ScheduleStatistics schedule;
+	private volatile long periodNanos;
+	private volatile boolean fixedRate;
+	// decision of sampleRun() for the next run, only touched by the worker which runs it
+	private boolean runSampled;
+	private boolean runDecided;
+
+	/**
+	 * @param task
+	 *            the task as it was handed over to the executor
+	 * @param sampling
+	 *            decides which runs are timed, <code>null</code> to time none of them
+	 * @param schedule
+	 *            records the lateness of every run, <code>null</code> if it is not tracked
+	 */
+	public MonitoredScheduledFuture(RunnableScheduledFuture<V> future, Object task, ExecutionMonitoring monitoring, MonitoringSampling sampling,
+			ScheduleStatistics schedule) {
+		this.future = future;
+		this.task = task;
+		this.monitoring = monitoring;
+		this.sampling = sampling;
+		this.schedule = schedule;
+	}
+
+	/**
+	 * Sets the period (fixed rate) or delay (fixed delay) between the runs of a periodic task, which is what a run has to be
+	 * late for to count as missed period. Must be set before the future is handed over to the queue of the executor.
+	 */
+	public void setPeriod(long periodNanos, boolean fixedRate) {
+		this.fixedRate = fixedRate;
+		this.periodNanos = periodNanos;
+	}
+
+	/**
+	 * @return the period or delay between the runs, 0 if not set
+	 */
+	public long getPeriodNanos() {
+		return periodNanos;
+	}
+
+	/**
+	 * Decides whether the next run is timed, so the executor can apply the same decision to its own figures of the run,
+	 * see {@link #isRunSampled()}. Must be called by the worker which then runs it.
+	 */
+	public boolean sampleRun() {
+		runSampled = sampling != null && sampling.sample();
+		runDecided = true;
+		return runSampled;
+	}
+
+	/**
+	 * @return the decision of the latest {@link #sampleRun()}
+	 */
+	public boolean isRunSampled() {
+		return runSampled;
+	}
+
+	@Override
+	public void run() {
+		boolean timed = runDecided ? runSampled : sampling != null && sampling.sample();
+		runDecided = false;
+		if ((!timed && schedule == null) || future.isDone()) {
+			future.run();
+			return;
+		}
+
+		long startedNanos = System.nanoTime();
+		// must be read before running, as a periodic task moves on to its next period
+		long latenessNanos = Math.max(-future.getDelay(TimeUnit.NANOSECONDS), 0L);
+		if (schedule != null) {
+			schedule.registerRun(latenessNanos, periodNanos, fixedRate);
+		}
+		if (!timed) {
+			future.run();
+			return;
+		}
+		try {
+			future.run();
+		} finally {
+			// the future keeps what the task failed with
+			Throwable failure = future.state() == State.FAILED ? future.exceptionNow() : null;
+			monitoring.executionFinished(task, startedNanos - latenessNanos, startedNanos, System.nanoTime(), failure);
+		}
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		boolean cancelled = future.cancel(mayInterruptIfRunning);
+		if (cancelled) {
+			monitoring.executionCancelled(this);
+		}
+		return cancelled;
+	}
+
+	@Override
+	public boolean isPeriodic() {
+		return future.isPeriodic();
+	}
+
+	@Override
+	public long getDelay(TimeUnit unit) {
+		return future.getDelay(unit);
+	}
+
+	@Override
+	public int compareTo(Delayed other) {
+		if (other == this) {
+			return 0;
+		}
+		if (other instanceof MonitoredScheduledFuture) {
+			return future.compareTo(((MonitoredScheduledFuture<?>) other).future);
+		}
+		return future.compareTo(other);
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return future.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	@Override
+	public V get() throws InterruptedException, ExecutionException {
+		return future.get();
+	}
+
+	@Override
+	public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return future.get(timeout, unit);
+	}
+
+	public Object getTask() {
+		return task;
+	}
+}
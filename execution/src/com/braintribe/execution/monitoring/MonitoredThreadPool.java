@@ -15,6 +15,13 @@
 // ============================================================================
 package com.braintribe.execution.monitoring;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.braintribe.execution.monitoring.jmx.ThreadPoolMXBean;
+
 public interface MonitoredThreadPool {
 
 	String getDescription();
@@ -26,4 +33,82 @@ public interface MonitoredThreadPool {
 	int getCoreThreadPoolSize();
 	
 	int getMaximumThreadPoolSize();
+
+	default MonitoringSampling getMonitoringSampling() {
+		return MonitoringSampling.all();
+	}
+
+	/**
+	 * @return the maximum number of distinct task keys tracked in the statistics of the pool, 0 to not track task keys
+	 */
+	default int getMaxTaskKeys() {
+		return 0;
+	}
+
+	/**
+	 * @return the running time after which the {@link StuckTaskDetector} reports a task as stuck, <code>null</code> to not
+	 *         watch the pool
+	 */
+	default Duration getStuckTaskThreshold() {
+		return null;
+	}
+
+	/**
+	 * @return the number of recent task events the pool keeps in its {@link TaskEventHistory}, 0 to keep none
+	 */
+	default int getTaskEventHistorySize() {
+		return 0;
+	}
+
+	/**
+	 * @return whether the pool adapts its concurrency to the tasks, in which case it reports each change of the limit to
+	 *         its statistics and {@link ThreadPoolStatistics#getConcurrencyLimitHistory()} shows how it evolved
+	 */
+	default boolean isAdaptiveConcurrency() {
+		return false;
+	}
+
+	/**
+	 * @return the number of running and waiting tasks per concurrency key, for the keys which currently have any, empty if
+	 *         the pool does not limit concurrency per key
+	 */
+	default Map<String, Integer> getInFlightTasksPerKey() {
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * Changes the number of threads while the pool is running, e.g. from its {@link ThreadPoolMXBean}. Pools with a single
+	 * size, like the concurrency of a virtual thread executor, use the maximum size.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the pool cannot be resized
+	 * @throws IllegalArgumentException
+	 *             if the sizes are not positive or the core size exceeds the maximum size
+	 */
+	default void resize(int corePoolSize, int maximumPoolSize) {
+		throw new UnsupportedOperationException("Thread pool " + getDescription() + " cannot be resized.");
+	}
+
+	/**
+	 * @return whether the {@link ThreadStateSampler} samples the states of the worker threads of the pool
+	 */
+	default boolean isSampleThreadStates() {
+		return false;
+	}
+
+	/**
+	 * @return the rolling windows, e.g. the last minute, for which {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}
+	 *         provides figures
+	 */
+	default List<Duration> getStatisticsWindows() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return whether the CPU time and allocated bytes of the (sampled) tasks are measured, which costs two
+	 *         {@link ThreadResources} calls at start and end of every task
+	 */
+	default boolean isTrackCpuAndAllocation() {
+		return false;
+	}
 }
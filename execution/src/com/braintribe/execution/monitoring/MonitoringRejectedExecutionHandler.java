@@ -0,0 +1,73 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * {@link RejectedExecutionHandler} that reports a rejection to the monitoring of the rejecting pool, if that is an
+ * {@link ExecutionMonitoring}, before passing the task on to the actual handler of the pool. As the pool is only known
+ * once it rejects, the handler can be created before the pool and passed to its constructor.
+ */
+public class MonitoringRejectedExecutionHandler implements RejectedExecutionHandler {
+
+	private final RejectedExecutionHandler delegate;
+
+	public MonitoringRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+		if (executor instanceof ExecutionMonitoring) {
+			((ExecutionMonitoring) executor).executionRejected(r);
+		}
+		delegate.rejectedExecution(r, executor);
+	}
+
+	public RejectedExecutionHandler getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Wraps the given handler unless it already is a monitoring one.
+	 */
+	public static RejectedExecutionHandler wrap(RejectedExecutionHandler handler) {
+		if (handler == null || handler instanceof MonitoringRejectedExecutionHandler) {
+			return handler;
+		}
+		return new MonitoringRejectedExecutionHandler(handler);
+	}
+
+	/**
+	 * @return the default handler of the JDK pools, which throws a {@link java.util.concurrent.RejectedExecutionException},
+	 *         wrapped into a monitoring one
+	 */
+	public static RejectedExecutionHandler abortPolicy() {
+		return new MonitoringRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Returns the handler behind the given one if that is a monitoring handler.
+	 */
+	public static RejectedExecutionHandler unwrap(RejectedExecutionHandler handler) {
+		if (handler instanceof MonitoringRejectedExecutionHandler) {
+			return ((MonitoringRejectedExecutionHandler) handler).getDelegate();
+		}
+		return handler;
+	}
+}
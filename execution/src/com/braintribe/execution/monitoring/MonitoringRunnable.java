@@ -15,30 +15,36 @@
 // ============================================================================
 package com.braintribe.execution.monitoring;
 
-import java.time.Instant;
+import com.braintribe.execution.DelegatingRunnable;
 
-import com.braintribe.utils.date.NanoClock;
-
-public class MonitoringRunnable implements Runnable {
+public class MonitoringRunnable implements DelegatingRunnable {
 
 	private Runnable delegate;
-	private Instant creationInstant;
+	private long creationNanos;
 	private ExecutionMonitoring monitoring;
 
 	public MonitoringRunnable(Runnable delegate, ExecutionMonitoring monitoring) {
 		this.monitoring = monitoring;
-		this.creationInstant = NanoClock.INSTANCE.instant();
+		this.creationNanos = System.nanoTime();
 		this.delegate = delegate;
 	}
 
 	@Override
 	public void run() {
-		Instant executionInstant = NanoClock.INSTANCE.instant();
+		long executionNanos = System.nanoTime();
+		Throwable failure = null;
 		try {
 			this.delegate.run();
+		} catch (Throwable t) {
+			failure = t;
+			throw t;
 		} finally {
-			Instant finishedInstant = NanoClock.INSTANCE.instant();
-			monitoring.accept(creationInstant, executionInstant, finishedInstant);
+			monitoring.executionFinished(delegate, creationNanos, executionNanos, System.nanoTime(), failure);
 		}
 	}
+
+	@Override
+	public Runnable getDelegate() {
+		return delegate;
+	}
 }
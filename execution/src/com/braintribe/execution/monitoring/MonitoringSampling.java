@@ -0,0 +1,130 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which tasks of a monitored pool get their timing, histograms and NDC context recorded. Execution counters are
+ * always exact, independent of the sampling.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * {@code
+ * ThreadPoolBuilder.newPool().poolSize(32, 32).workQueue(queue).monitoringSampling(MonitoringSampling.oneIn(100)).build();
+ * }
+ * </pre>
+ */
+public interface MonitoringSampling {
+
+	/**
+	 * @return whether the current task should be sampled. Must be cheap and must not block or allocate.
+	 */
+	boolean sample();
+
+	/**
+	 * @return a short description of the sampling rate, e.g. "all", "1-in-100" or "50/s"
+	 */
+	String getDescription();
+
+	static MonitoringSampling all() {
+		return All.INSTANCE;
+	}
+
+	/**
+	 * Samples on average one out of <code>n</code> tasks.
+	 */
+	static MonitoringSampling oneIn(int n) {
+		if (n <= 1) {
+			return all();
+		}
+		return new OneIn(n);
+	}
+
+	/**
+	 * Samples at most the given number of tasks per second.
+	 */
+	static MonitoringSampling perSecond(int samplesPerSecond) {
+		if (samplesPerSecond <= 0) {
+			throw new IllegalArgumentException("The samples per second must be positive but is " + samplesPerSecond);
+		}
+		return new PerSecond(samplesPerSecond);
+	}
+
+	class All implements MonitoringSampling {
+		static final All INSTANCE = new All();
+
+		@Override
+		public boolean sample() {
+			return true;
+		}
+
+		@Override
+		public String getDescription() {
+			return "all";
+		}
+	}
+
+	class OneIn implements MonitoringSampling {
+		private final int n;
+
+		OneIn(int n) {
+			this.n = n;
+		}
+
+		@Override
+		public boolean sample() {
+			// no shared state, hence no contention between the workers
+			return ThreadLocalRandom.current().nextInt(n) == 0;
+		}
+
+		@Override
+		public String getDescription() {
+			return "1-in-" + n;
+		}
+	}
+
+	class PerSecond implements MonitoringSampling {
+		private static final long SECOND_IN_NANOS = 1_000_000_000L;
+
+		private final int samplesPerSecond;
+		private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+		private final AtomicInteger taken = new AtomicInteger();
+
+		PerSecond(int samplesPerSecond) {
+			this.samplesPerSecond = samplesPerSecond;
+		}
+
+		@Override
+		public boolean sample() {
+			long start = windowStart.get();
+			long now = System.nanoTime();
+			if (now - start >= SECOND_IN_NANOS && windowStart.compareAndSet(start, now)) {
+				taken.set(0);
+			}
+			// plain read first, so that an exhausted window costs no CAS
+			return taken.get() < samplesPerSecond && taken.incrementAndGet() <= samplesPerSecond;
+		}
+
+		@Override
+		public String getDescription() {
+			return samplesPerSecond + "/s";
+		}
+	}
+}
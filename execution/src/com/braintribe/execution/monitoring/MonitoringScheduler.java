@@ -0,0 +1,67 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.braintribe.logging.Logger;
+
+/**
+ * The single, low priority daemon thread shared by all periodic monitoring jobs (e.g. the {@link StuckTaskDetector}), so
+ * that monitoring does not add a thread per pool. It is started with the first job.
+ */
+public class MonitoringScheduler {
+
+	private static Logger logger = Logger.getLogger(MonitoringScheduler.class);
+
+	private static ScheduledExecutorService scheduler;
+
+	private MonitoringScheduler() {
+		// static helpers only
+	}
+
+	/**
+	 * Runs the given job periodically. A failing run is logged and does not cancel later runs.
+	 */
+	public static ScheduledFuture<?> scheduleAtFixedRate(Runnable job, Duration interval) {
+		long intervalNanos = interval.toNanos();
+		return scheduler().scheduleAtFixedRate(() -> {
+			try {
+				job.run();
+			} catch (Throwable t) {
+				logger.warn("Periodic monitoring job " + job + " failed", t);
+			}
+		}, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private static synchronized ScheduledExecutorService scheduler() {
+		if (scheduler == null) {
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+				Thread thread = new Thread(r, "thread-pool-monitoring");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			});
+			executor.setRemoveOnCancelPolicy(true);
+			scheduler = executor;
+		}
+		return scheduler;
+	}
+}
@@ -0,0 +1,59 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+/**
+ * 1, 5 and 15 minute exponentially weighted moving averages of a value which is sampled periodically via
+ * {@link #update(double, double)}. Updates come from a single thread (the {@link MonitoringScheduler}), readers may be
+ * any threads.
+ */
+public class MovingAverages {
+
+	private static final double ONE_MINUTE = 60d;
+	private static final double FIVE_MINUTES = 5 * 60d;
+	private static final double FIFTEEN_MINUTES = 15 * 60d;
+
+	private volatile LoadRates rates = new LoadRates(0d, 0d, 0d, 0d);
+	private boolean initialized = false;
+
+	/**
+	 * @param value
+	 *            the value of the elapsed interval, e.g. a rate per second or the current length of a queue
+	 * @param intervalSeconds
+	 *            the length of the elapsed interval
+	 */
+	public void update(double value, double intervalSeconds) {
+		LoadRates previous = rates;
+		if (!initialized) {
+			initialized = true;
+			rates = new LoadRates(value, value, value, value);
+			return;
+		}
+		rates = new LoadRates(value, //
+				decay(previous.getOneMinute(), value, intervalSeconds, ONE_MINUTE), //
+				decay(previous.getFiveMinutes(), value, intervalSeconds, FIVE_MINUTES), //
+				decay(previous.getFifteenMinutes(), value, intervalSeconds, FIFTEEN_MINUTES));
+	}
+
+	private static double decay(double average, double value, double intervalSeconds, double windowSeconds) {
+		double alpha = 1d - Math.exp(-intervalSeconds / windowSeconds);
+		return average + alpha * (value - average);
+	}
+
+	public LoadRates getRates() {
+		return rates;
+	}
+}
@@ -0,0 +1,59 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Duration;
+
+/**
+ * Ring of fixed buckets holding the interval figures of the latest ticks (see {@link ThreadPoolMonitoring}), which add up to
+ * the figures of a rolling window like the last minute. Only scalar figures are kept, so a bucket is a few hundred bytes.
+ */
+class RollingWindow {
+
+	private final Duration window;
+	private final ThreadPoolSnapshot[] buckets;
+	private int next;
+
+	RollingWindow(Duration window, Duration bucketInterval) {
+		this.window = window;
+		long bucketCount = (window.toNanos() + bucketInterval.toNanos() - 1) / bucketInterval.toNanos();
+		this.buckets = new ThreadPoolSnapshot[(int) Math.max(1L, bucketCount)];
+	}
+
+	Duration getWindow() {
+		return window;
+	}
+
+	synchronized void add(ThreadPoolSnapshot interval) {
+		buckets[next] = interval;
+		next = (next + 1) % buckets.length;
+	}
+
+	/**
+	 * @return the figures of the window, or <code>null</code> if nothing has been added yet
+	 */
+	synchronized ThreadPoolSnapshot get() {
+		ThreadPoolSnapshot result = null;
+		for (int i = 0; i < buckets.length; i++) {
+			// oldest first
+			ThreadPoolSnapshot bucket = buckets[(next + i) % buckets.length];
+			if (bucket != null) {
+				result = result == null ? bucket : result.plus(bucket);
+			}
+		}
+		return result;
+	}
+}
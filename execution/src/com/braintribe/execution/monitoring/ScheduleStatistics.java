@@ -0,0 +1,108 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.braintribe.common.lcd.Numbers;
+
+/**
+ * Lateness of the runs of the delayed and periodic tasks of a scheduled pool which share the same task key (see
+ * {@link TaskKeys}), i.e. how long after its planned fire time each run actually started. A run which starts more than a
+ * period late has missed periods, which indicates that the core threads of the pool are saturated.
+ */
+public class ScheduleStatistics {
+
+	private final String scheduleKey;
+	private volatile long periodNanos;
+	private final LongAdder runCount = new LongAdder();
+	private final LongAdder latenessNanos = new LongAdder();
+	private final LongAdder missedPeriods = new LongAdder();
+	private final LongAccumulator maxLatenessNanos = new LongAccumulator(Math::max, 0L);
+	private final LatencyHistogram latenessHistogram = new LatencyHistogram();
+
+	public ScheduleStatistics(String scheduleKey) {
+		this.scheduleKey = scheduleKey;
+	}
+
+	/**
+	 * @param periodNanos
+	 *            the period or delay between the runs, 0 for a task which runs once
+	 * @param fixedRate
+	 *            whether the task runs at a fixed rate, which catches up on missed periods with one late run each, rather
+	 *            than with a fixed delay, which skips them
+	 */
+	public void registerRun(long latenessNanos, long periodNanos, boolean fixedRate) {
+		this.runCount.increment();
+		this.latenessNanos.add(latenessNanos);
+		this.maxLatenessNanos.accumulate(latenessNanos);
+		this.latenessHistogram.record(latenessNanos);
+		if (periodNanos > 0) {
+			this.periodNanos = periodNanos;
+			if (latenessNanos >= periodNanos) {
+				this.missedPeriods.add(fixedRate ? 1L : latenessNanos / periodNanos);
+			}
+		}
+	}
+
+	public String getScheduleKey() {
+		return scheduleKey;
+	}
+
+	/**
+	 * @return the latest period or delay seen for this key, or <code>null</code> if only one-shot tasks have run
+	 */
+	public Long getPeriodInMs() {
+		long period = periodNanos;
+		return period > 0 ? period / Numbers.NANOSECONDS_PER_MILLISECOND : null;
+	}
+
+	public long getRunCount() {
+		return runCount.sum();
+	}
+
+	/**
+	 * @return the number of whole periods the runs started behind their planned fire time
+	 */
+	public long getMissedPeriods() {
+		return missedPeriods.sum();
+	}
+
+	/**
+	 * @return the average lateness or -1 if no run has been recorded yet
+	 */
+	public double getAverageLatenessInMs() {
+		long count = runCount.sum();
+		if (count == 0) {
+			return -1d;
+		}
+		return (double) latenessNanos.sum() / count / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	public long getMaximumLatenessInMs() {
+		return maxLatenessNanos.get() / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	public LatencyPercentiles getLatenessPercentiles() {
+		return LatencyPercentiles.of(latenessHistogram);
+	}
+
+	@Override
+	public String toString() {
+		return scheduleKey + ": " + getRunCount() + " runs, " + getMissedPeriods() + " missed periods";
+	}
+}
@@ -0,0 +1,73 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded table of {@link ScheduleStatistics}, which accounts further keys under {@link TaskKeyTable#OTHER_KEY} once it is
+ * full, like the {@link TaskKeyTable}.
+ */
+public class ScheduleTable {
+
+	public static final int DEFAULT_MAX_SCHEDULES = 64;
+
+	private final int maxSchedules;
+	private final ConcurrentHashMap<String, ScheduleStatistics> entries = new ConcurrentHashMap<>();
+	private final ScheduleStatistics other = new ScheduleStatistics(TaskKeyTable.OTHER_KEY);
+
+	public ScheduleTable(int maxSchedules) {
+		this.maxSchedules = maxSchedules;
+	}
+
+	public ScheduleStatistics get(String key) {
+		if (key == null) {
+			return other;
+		}
+		ScheduleStatistics statistics = entries.get(key);
+		if (statistics != null) {
+			return statistics;
+		}
+		if (entries.size() >= maxSchedules) {
+			return other;
+		}
+		synchronized (this) {
+			statistics = entries.get(key);
+			if (statistics == null) {
+				if (entries.size() >= maxSchedules) {
+					return other;
+				}
+				statistics = new ScheduleStatistics(key);
+				entries.put(key, statistics);
+			}
+			return statistics;
+		}
+	}
+
+	/**
+	 * @return the statistics of all schedules, including the {@link TaskKeyTable#OTHER_KEY} entry if anything overflowed into
+	 *         it
+	 */
+	public List<ScheduleStatistics> getStatistics() {
+		List<ScheduleStatistics> result = new ArrayList<>(entries.values());
+		if (other.getRunCount() > 0) {
+			result.add(other);
+		}
+		return result;
+	}
+}
@@ -16,97 +16,458 @@
 package com.braintribe.execution.monitoring;
 
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 import com.braintribe.common.lcd.Numbers;
 import com.braintribe.logging.Logger;
 
+/**
+ * {@link ThreadPoolStatistics} of a {@link MonitoredThreadPool}. All accumulators are striped, lock-free primitive counters (nanoseconds where
+ * durations are concerned), so that recording a task neither blocks nor allocates.
+ */
 public class StandardThreadPoolStatistics implements ThreadPoolStatistics {
 
 	private static Logger logger = Logger.getLogger(StandardThreadPoolStatistics.class);
 
+	// automatic dumps of the task event history, e.g. on a burst of rejections, are logged at most that often
+	private static final long TASK_EVENT_DUMP_INTERVAL_NANOS = 10_000_000_000L;
+	// ten minutes of monitoring ticks
+	private static final int CONCURRENCY_LIMIT_HISTORY_SIZE = 120;
+
 	private String threadPoolId;
 	private MonitoredThreadPool extendedThreadPoolExecutor;
-	private ConcurrentHashMap<String, ThreadPoolExecution> currentExecutions = new ConcurrentHashMap<>();
-	private AtomicLong executionCount = new AtomicLong(0);
+	private ExecutionSlots executionSlots;
+	private volatile boolean executionSlotOverflowReported;
+	private LongAdder running = new LongAdder();
+	private LongAdder executionCount = new LongAdder();
 
-	private AtomicLong executedCount = new AtomicLong(0);
-	private AtomicLong totalExecutionTimeInMs = new AtomicLong(0);
+	private LongAdder executedCount = new LongAdder();
+	private LongAdder timedCount = new LongAdder();
+	private LongAdder totalExecutionTimeInNanos = new LongAdder();
 
-	private long latestExecution = -1L;
+	private volatile long latestExecution = -1L;
 	private boolean scheduledThreadPool = false;
 
-	private ReentrantLock durationLock = new ReentrantLock();
-	private Duration enqueuedDuration = Duration.of(0, ChronoUnit.MILLIS);
-	private Duration executionDuration = Duration.of(0, ChronoUnit.MILLIS);
-	private Duration maxEnqueuedDuration = null;
-	private Duration minEnqueuedDuration = null;
-	private long durationCount = 0l;
+	private LongAdder durationCount = new LongAdder();
+	private LongAdder enqueuedNanos = new LongAdder();
+	private LongAdder executionNanos = new LongAdder();
+	private LongAccumulator maxEnqueuedNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+	private LongAccumulator minEnqueuedNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private LatencyHistogram enqueuedHistogram = new LatencyHistogram();
+	private LatencyHistogram executionHistogram = new LatencyHistogram();
+	private TaskKeyTable taskKeys;
+	private ScheduleTable schedules;
+	private LongAdder stuckTaskCount = new LongAdder();
+	private TaskEventHistory taskEvents;
+	private ConcurrencyLimitHistory concurrencyLimits;
+	private final AtomicLong lastTaskEventDumpNanos = new AtomicLong(System.nanoTime() - TASK_EVENT_DUMP_INTERVAL_NANOS);
+
+	private boolean watchStuckTasks;
+	private boolean trackCpuAndAllocation;
+	private LongAdder cpuCount = new LongAdder();
+	private LongAdder totalCpuNanos = new LongAdder();
+	private LongAdder allocationCount = new LongAdder();
+	private LongAdder totalAllocatedBytes = new LongAdder();
+
+	private boolean sampleThreadStates;
+	// only written by the ThreadStateSampler
+	private LongAdder idleSamples = new LongAdder();
+	private LongAdder runnableSamples = new LongAdder();
+	private LongAdder blockedSamples = new LongAdder();
+	private LongAdder waitingSamples = new LongAdder();
+
+	private LongAdder submittedCount = new LongAdder();
+	private LongAdder rejectedCount = new LongAdder();
+
+	// maintained by tick(), see ThreadPoolMonitoring
+	private MovingAverages submissionRates = new MovingAverages();
+	private MovingAverages completionRates = new MovingAverages();
+	private MovingAverages rejectionRates = new MovingAverages();
+	private MovingAverages queueDepths = new MovingAverages();
+	private long lastTickNanos;
+	private long lastSubmittedCount;
+	private long lastExecutedCount;
+	private long lastRejectedCount;
+	private final long createdNanos = System.nanoTime();
+	private RollingWindow[] windows;
+	private ThreadPoolSnapshot lastTickSnapshot;
 
 	public StandardThreadPoolStatistics(String threadPoolId, MonitoredThreadPool extendedThreadPoolExecutor) {
 		this.threadPoolId = threadPoolId;
 		this.extendedThreadPoolExecutor = extendedThreadPoolExecutor;
+		this.executionSlots = new ExecutionSlots(Math.min(Math.max(extendedThreadPoolExecutor.getCoreThreadPoolSize(), 4), 256));
+
+		int maxTaskKeys = extendedThreadPoolExecutor.getMaxTaskKeys();
+		if (maxTaskKeys > 0) {
+			this.taskKeys = new TaskKeyTable(maxTaskKeys);
+		}
+
+		this.watchStuckTasks = extendedThreadPoolExecutor.getStuckTaskThreshold() != null;
+		this.trackCpuAndAllocation = extendedThreadPoolExecutor.isTrackCpuAndAllocation();
+		if (trackCpuAndAllocation) {
+			ThreadResources.enable();
+		}
+
+		this.sampleThreadStates = extendedThreadPoolExecutor.isSampleThreadStates();
+
+		int taskEventHistorySize = extendedThreadPoolExecutor.getTaskEventHistorySize();
+		if (taskEventHistorySize > 0) {
+			this.taskEvents = new TaskEventHistory(taskEventHistorySize);
+		}
 
+		if (extendedThreadPoolExecutor.isAdaptiveConcurrency()) {
+			this.concurrencyLimits = new ConcurrencyLimitHistory(CONCURRENCY_LIMIT_HISTORY_SIZE);
+		}
+
+		List<Duration> statisticsWindows = extendedThreadPoolExecutor.getStatisticsWindows();
+		if (statisticsWindows != null && !statisticsWindows.isEmpty()) {
+			this.windows = new RollingWindow[statisticsWindows.size()];
+			for (int i = 0; i < windows.length; i++) {
+				windows[i] = new RollingWindow(statisticsWindows.get(i), ThreadPoolMonitoring.LOAD_TICK_INTERVAL);
+			}
+		}
+	}
+
+	/**
+	 * @return a slot bound to the given worker, or <code>null</code> if all slots are taken, in which case the execution is
+	 *         neither timed nor watched for being stuck
+	 */
+	public ExecutionSlot acquireExecutionSlot(Thread worker) {
+		ExecutionSlot slot = executionSlots.acquire(worker);
+		if (slot == null && !executionSlotOverflowReported) {
+			executionSlotOverflowReported = true;
+			logger.warn("All " + executionSlots.capacity() + " execution slots of thread pool " + getDescription()
+					+ " are taken, further executions are neither timed nor watched for being stuck");
+		}
+		return slot;
+	}
+
+	/**
+	 * @return how often an execution got no {@link #acquireExecutionSlot(Thread) slot}
+	 */
+	public long getExecutionSlotOverflowCount() {
+		return executionSlots.getOverflowCount();
 	}
 
-	protected void beforeExecution(String execIdString) {
-		currentExecutions.put(execIdString, new ThreadPoolExecution());
-		executionCount.incrementAndGet();
+	public void releaseExecutionSlot(ExecutionSlot slot) {
+		executionSlots.release(slot);
+	}
+
+	public void executionSubmitted() {
+		submittedCount.increment();
+	}
+
+	/**
+	 * Takes back an {@link #executionSubmitted() accounted submission}, for pools which account a task before handing it
+	 * over and then see it rejected.
+	 */
+	public void submissionWithdrawn() {
+		submittedCount.decrement();
+	}
+
+	public void executionRejected() {
+		rejectedCount.increment();
+	}
+
+	/**
+	 * Like {@link #executionRejected()}, but also records the task in the {@link TaskEventHistory} of the pool, which is
+	 * then dumped to the log.
+	 */
+	public void executionRejected(Object task) {
+		executionRejected();
+		if (taskEvents != null) {
+			taskEvents.recordRejection(task);
+			// the reason is only rendered if the throttling lets the dump through
+			if (claimTaskEventDump(false)) {
+				logTaskEvents("rejected task " + TaskKeys.resolve(task));
+			}
+		}
+	}
+
+	/**
+	 * @return whether an execution needs an {@link ExecutionSlot}: sampled executions are timed in it, and while the pool
+	 *         has a stuck task threshold every execution occupies one, so that the {@link StuckTaskDetector} sees it
+	 */
+	public boolean requiresExecutionSlot(boolean sampled) {
+		return sampled || watchStuckTasks;
+	}
+
+	/**
+	 * Registers the start of a timed execution, or of an untimed one if no slot is passed.
+	 */
+	public void beforeExecution(ExecutionSlot slot, long executionId) {
+		beforeExecution(slot, executionId, true);
+	}
+
+	/**
+	 * Registers the start of an execution. The slot, if any, is only occupied by {@link #requiresExecutionSlot(boolean)
+	 * executions which require one}, and only sampled executions are timed.
+	 */
+	public void beforeExecution(ExecutionSlot slot, long executionId, boolean sampled) {
+		running.increment();
+		executionCount.increment();
 		latestExecution = System.currentTimeMillis();
+		if (slot != null && requiresExecutionSlot(sampled)) {
+			if (sampled && trackCpuAndAllocation) {
+				slot.resourcesStarted(ThreadResources.currentThreadCpuNanos(), ThreadResources.currentThreadAllocatedBytes());
+			}
+			slot.started(executionId, System.nanoTime(), sampled);
+		}
 	}
 
-	protected void afterExecution(String execIdString) {
-		ThreadPoolExecution execution = currentExecutions.remove(execIdString);
-		if (execution != null) {
-			executedCount.incrementAndGet();
-			execution.stopped();
-			Duration executionTime = execution.getExecutionTime();
-			totalExecutionTimeInMs.addAndGet(executionTime.toMillis());
+	/**
+	 * Registers the end of an execution; must be called on the thread which ran it.
+	 */
+	public void afterExecution(ExecutionSlot slot) {
+		running.decrement();
+		executedCount.increment();
+		if (slot != null && slot.isRunning()) {
+			if (!slot.isTimed()) {
+				slot.stopped(0L);
+				return;
+			}
+			if (trackCpuAndAllocation) {
+				registerResources(slot);
+			}
+			timedCount.increment();
+			totalExecutionTimeInNanos.add(slot.stopped(System.nanoTime()));
+		}
+	}
+
+	private void registerResources(ExecutionSlot slot) {
+		long startCpuNanos = slot.getStartCpuNanos();
+		if (startCpuNanos >= 0) {
+			long cpuNanos = ThreadResources.currentThreadCpuNanos();
+			if (cpuNanos >= startCpuNanos) {
+				cpuCount.increment();
+				totalCpuNanos.add(cpuNanos - startCpuNanos);
+			}
+		}
+		long startAllocatedBytes = slot.getStartAllocatedBytes();
+		if (startAllocatedBytes >= 0) {
+			long allocatedBytes = ThreadResources.currentThreadAllocatedBytes();
+			if (allocatedBytes >= startAllocatedBytes) {
+				allocationCount.increment();
+				totalAllocatedBytes.add(allocatedBytes - startAllocatedBytes);
+			}
 		}
 	}
 
 	public void registerThreadPoolExecution(Duration enqueued, Duration execution) {
-		durationLock.lock();
-		try {
-			durationCount++;
-			enqueuedDuration = enqueuedDuration.plus(enqueued);
-			executionDuration = executionDuration.plus(execution);
-
-			if (maxEnqueuedDuration == null || maxEnqueuedDuration.compareTo(enqueued) < 0) {
-				maxEnqueuedDuration = enqueued;
+		registerThreadPoolExecution(enqueued.toNanos(), execution.toNanos());
+	}
+
+	public void registerThreadPoolExecution(long enqueuedNanos, long executionNanos) {
+		this.enqueuedNanos.add(enqueuedNanos);
+		this.executionNanos.add(executionNanos);
+		this.maxEnqueuedNanos.accumulate(enqueuedNanos);
+		this.minEnqueuedNanos.accumulate(enqueuedNanos);
+		this.enqueuedHistogram.record(enqueuedNanos);
+		this.executionHistogram.record(executionNanos);
+		// counted last, readers take a count > 0 as a guarantee that the figures above contain at least one execution
+		this.durationCount.increment();
+	}
+
+	/**
+	 * Like {@link #registerThreadPoolExecution(long, long)}, but additionally accounts the execution under the key of the
+	 * given task if the pool tracks task keys.
+	 */
+	public void registerThreadPoolExecution(Object task, long enqueuedNanos, long executionNanos) {
+		registerThreadPoolExecution(enqueuedNanos, executionNanos);
+		if (taskKeys != null) {
+			taskKeys.registerExecution(task, enqueuedNanos, executionNanos);
+		}
+	}
+
+	/**
+	 * Registers a finished task with the {@link System#nanoTime()} stamps passed to
+	 * {@link ExecutionMonitoring#executionFinished(Object, long, long, long, Throwable)} and records it in the
+	 * {@link TaskEventHistory} of the pool.
+	 */
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		registerThreadPoolExecution(task, startedNanos - createdNanos, finishedNanos - startedNanos);
+		if (taskEvents != null) {
+			taskEvents.recordExecution(task, createdNanos, startedNanos, finishedNanos, failure);
+		}
+	}
+
+	/**
+	 * Logs the {@link #getRecentTaskEvents() recent task events}. Unless forced, this is skipped if the events have been
+	 * dumped within the last 10 seconds.
+	 * 
+	 * @return whether the events have been dumped
+	 */
+	public boolean dumpTaskEvents(String reason, boolean force) {
+		if (taskEvents == null || !claimTaskEventDump(force)) {
+			return false;
+		}
+		logTaskEvents(reason);
+		return true;
+	}
+
+	/**
+	 * @return whether a dump may happen now, in which case its time has been recorded. A forced dump never moves the
+	 *         recorded time backwards, whichever dump got there first.
+	 */
+	private boolean claimTaskEventDump(boolean force) {
+		long nowNanos = System.nanoTime();
+		if (force) {
+			lastTaskEventDumpNanos.accumulateAndGet(nowNanos, (last, now) -> now - last > 0L ? now : last);
+			return true;
+		}
+		long last = lastTaskEventDumpNanos.get();
+		return nowNanos - last >= TASK_EVENT_DUMP_INTERVAL_NANOS && lastTaskEventDumpNanos.compareAndSet(last, nowNanos);
+	}
+
+	private void logTaskEvents(String reason) {
+		List<TaskEvent> events = taskEvents.getEvents();
+		StringBuilder sb = new StringBuilder();
+		sb.append("Last ").append(events.size()).append(" task events of thread pool ").append(getDescription()).append(" (").append(reason).append("):");
+		for (TaskEvent event : events) {
+			sb.append("\n\t").append(event);
+		}
+		logger.warn(sb.toString());
+	}
+
+	/**
+	 * Feeds the current rates and queue depth into the moving averages. Called periodically from a single thread.
+	 */
+	void tick(long nowNanos) {
+		long submitted = submittedCount.sum();
+		long executed = executedCount.sum();
+		long rejected = rejectedCount.sum();
+
+		if (lastTickNanos != 0L) {
+			double intervalSeconds = (double) (nowNanos - lastTickNanos) / Numbers.NANOSECONDS_PER_SECOND;
+			if (intervalSeconds <= 0d) {
+				return;
 			}
-			if (minEnqueuedDuration == null || minEnqueuedDuration.compareTo(enqueued) > 0) {
-				minEnqueuedDuration = enqueued;
+			submissionRates.update((submitted - lastSubmittedCount) / intervalSeconds, intervalSeconds);
+			completionRates.update((executed - lastExecutedCount) / intervalSeconds, intervalSeconds);
+			rejectionRates.update((rejected - lastRejectedCount) / intervalSeconds, intervalSeconds);
+			queueDepths.update(getPendingTasksInQueue(), intervalSeconds);
+		}
+
+		lastTickNanos = nowNanos;
+		lastSubmittedCount = submitted;
+		lastExecutedCount = executed;
+		lastRejectedCount = rejected;
+
+		if (concurrencyLimits != null) {
+			concurrencyLimits.tick(System.currentTimeMillis(), extendedThreadPoolExecutor.getMaximumThreadPoolSize());
+		}
+
+		if (windows != null) {
+			ThreadPoolSnapshot snapshot = getSnapshot();
+			if (lastTickSnapshot != null) {
+				ThreadPoolSnapshot interval = snapshot.delta(lastTickSnapshot, false);
+				for (RollingWindow window : windows) {
+					window.add(interval);
+				}
 			}
-		} catch (Exception e) {
-			logger.warn(() -> "Error while trying to monitor thread pool " + threadPoolId, e);
-		} finally {
-			durationLock.unlock();
+			lastTickSnapshot = snapshot;
+		}
+	}
+
+	boolean isSampleThreadStates() {
+		return sampleThreadStates;
+	}
+
+	void forEachExecutionSlot(Consumer<ExecutionSlot> consumer) {
+		executionSlots.forEach(consumer);
+	}
+
+	/**
+	 * Accounts one sample of the state of a worker, see {@link ThreadStateSampler}.
+	 */
+	void registerThreadState(Thread.State state, boolean busy) {
+		if (!busy) {
+			idleSamples.increment();
+			return;
+		}
+		switch (state) {
+			case RUNNABLE:
+				runnableSamples.increment();
+				break;
+			case BLOCKED:
+				blockedSamples.increment();
+				break;
+			case WAITING:
+			case TIMED_WAITING:
+				waitingSamples.increment();
+				break;
+			default:
+				// NEW or TERMINATED, i.e. not a worker anymore
+				break;
+		}
+	}
+
+	/**
+	 * Reports all executions which have been running for longer than the stuck task threshold of the pool and have not been
+	 * reported yet, see {@link StuckTaskDetector}.
+	 */
+	void detectStuckTasks(long nowNanos) {
+		Duration threshold = extendedThreadPoolExecutor.getStuckTaskThreshold();
+		if (threshold == null) {
+			return;
+		}
+		long thresholdNanos = threshold.toNanos();
+		long stuckBefore = stuckTaskCount.sum();
+
+		executionSlots.forEach(slot -> {
+			long executionId = slot.getExecutionId();
+			if (executionId == 0L) {
+				return;
+			}
+			long runningNanos = nowNanos - slot.getStartNanos();
+			if (runningNanos < thresholdNanos || !slot.markReported(executionId)) {
+				return;
+			}
+			Thread worker = slot.getWorker();
+			if (worker == null) {
+				return;
+			}
+			StackTraceElement[] stackTrace = worker.getStackTrace();
+			if (slot.getExecutionId() != executionId) {
+				// finished while the stack was captured
+				return;
+			}
+			stuckTaskCount.increment();
+			StuckTaskDetector.report(new StuckTask(threadPoolId, getDescription(), worker, executionId, runningNanos, stackTrace));
+		});
+
+		long newlyStuck = stuckTaskCount.sum() - stuckBefore;
+		if (newlyStuck > 0) {
+			// once per scan, however many tasks got stuck
+			dumpTaskEvents(newlyStuck + " stuck task(s)", true);
 		}
 	}
 
 	@Override
 	public int currentlyRunning() {
-		return currentExecutions.size();
+		return (int) running.sum();
 	}
 
 	@Override
 	public long totalExecutions() {
-		return executionCount.get();
+		return executionCount.sum();
 	}
 
 	@Override
 	public long averageRunningTimeInMs() {
-		long totalTime = totalExecutionTimeInMs.get();
-		long amount = executedCount.get();
+		long totalTime = totalExecutionTimeInNanos.sum();
+		long amount = timedCount.sum();
 		if (amount <= 0) {
 			// Division by Zero or overflow
 			return 0;
 		}
-		return totalTime / amount;
+		return totalTime / amount / Numbers.NANOSECONDS_PER_MILLISECOND;
 	}
 
 	@Override
@@ -154,52 +515,252 @@ public class StandardThreadPoolStatistics implements ThreadPoolStatistics {
 
 	public void setScheduledThreadPool(boolean scheduledThreadPool) {
 		this.scheduledThreadPool = scheduledThreadPool;
+		if (scheduledThreadPool && schedules == null) {
+			schedules = new ScheduleTable(ScheduleTable.DEFAULT_MAX_SCHEDULES);
+		}
+	}
+
+	/**
+	 * @return the statistics the runs of the given delayed or periodic task are recorded in, or <code>null</code> if this is
+	 *         not a scheduled pool
+	 */
+	public ScheduleStatistics scheduleStatisticsFor(Object task) {
+		return schedules != null ? schedules.get(TaskKeys.resolve(task)) : null;
 	}
 
 	@Override
 	public Long getMaximumEnqueuedTimeInMs() {
-		if (maxEnqueuedDuration == null) {
+		long max = maxEnqueuedNanos.get();
+		if (max == Long.MIN_VALUE) {
 			return null;
 		}
-		return maxEnqueuedDuration.toMillis();
+		return max / Numbers.NANOSECONDS_PER_MILLISECOND;
 	}
 
 	@Override
 	public Long getMinimumEnqueuedTimeInMs() {
-		if (minEnqueuedDuration == null) {
+		long min = minEnqueuedNanos.get();
+		if (min == Long.MAX_VALUE) {
 			return null;
 		}
-		return minEnqueuedDuration.toMillis();
+		return min / Numbers.NANOSECONDS_PER_MILLISECOND;
 	}
 
 	@Override
 	public Double getAverageEnqueuedTimeInMs() {
-		if (durationCount == 0) {
+		long count = durationCount.sum();
+		if (count == 0) {
 			return -1d;
 		}
-		try {
-			double totalNanos = enqueuedDuration.toNanos();
-			double avgNanos = totalNanos / durationCount;
-			double avgMs = avgNanos / Numbers.NANOSECONDS_PER_MILLISECOND;
-			return avgMs;
-		} catch (ArithmeticException ae) {
-			try {
-				double totalMs = enqueuedDuration.toMillis();
-				double avg = totalMs / durationCount;
-				return avg;
-			} catch (ArithmeticException ae2) {
-				// too large for ms
-				double totalMinutes = enqueuedDuration.toMinutes();
-				double avgMin = totalMinutes / durationCount;
-				double avgMs = avgMin * Numbers.MILLISECONDS_PER_MINUTE;
-				return avgMs;
+		double avgNanos = (double) enqueuedNanos.sum() / count;
+		return avgNanos / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	/**
+	 * @return the number of executions whose times have been recorded, which with sampling is only a part of all executions
+	 */
+	public long getTimedExecutionCount() {
+		return durationCount.sum();
+	}
+
+	/**
+	 * @return the total time the timed executions waited in the queue, in nanoseconds
+	 */
+	public long getTotalEnqueuedNanos() {
+		return enqueuedNanos.sum();
+	}
+
+	/**
+	 * @return the total running time of the timed executions, in nanoseconds
+	 */
+	public long getTotalRunningNanos() {
+		return executionNanos.sum();
+	}
+
+	/**
+	 * @return the live histogram of the time tasks waited in the queue, in nanoseconds
+	 */
+	public LatencyHistogram getEnqueuedTimeHistogram() {
+		return enqueuedHistogram;
+	}
+
+	/**
+	 * @return the live histogram of the time tasks were running, in nanoseconds
+	 */
+	public LatencyHistogram getRunningTimeHistogram() {
+		return executionHistogram;
+	}
+
+	@Override
+	public LatencyPercentiles getEnqueuedTimePercentiles() {
+		return LatencyPercentiles.of(enqueuedHistogram);
+	}
+
+	@Override
+	public LatencyPercentiles getRunningTimePercentiles() {
+		return LatencyPercentiles.of(executionHistogram);
+	}
+
+	@Override
+	public String getSampling() {
+		return extendedThreadPoolExecutor.getMonitoringSampling().getDescription();
+	}
+
+	@Override
+	public double getSampledRatio() {
+		long executed = executedCount.sum();
+		if (executed == 0) {
+			return 1d;
+		}
+		return (double) timedCount.sum() / executed;
+	}
+
+	@Override
+	public LoadRates getSubmissionRates() {
+		return submissionRates.getRates();
+	}
+
+	@Override
+	public LoadRates getCompletionRates() {
+		return completionRates.getRates();
+	}
+
+	@Override
+	public LoadRates getRejectionRates() {
+		return rejectionRates.getRates();
+	}
+
+	@Override
+	public LoadRates getQueueDepths() {
+		return queueDepths.getRates();
+	}
+
+	@Override
+	public Long getTotalCpuTimeInMs() {
+		if (cpuCount.sum() == 0) {
+			return null;
+		}
+		return totalCpuNanos.sum() / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	@Override
+	public Double getAverageCpuTimeInMs() {
+		long count = cpuCount.sum();
+		if (count == 0) {
+			return null;
+		}
+		return (double) totalCpuNanos.sum() / count / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	@Override
+	public Long getTotalAllocatedBytes() {
+		if (allocationCount.sum() == 0) {
+			return null;
+		}
+		return totalAllocatedBytes.sum();
+	}
+
+	@Override
+	public Double getAverageAllocatedBytes() {
+		long count = allocationCount.sum();
+		if (count == 0) {
+			return null;
+		}
+		return (double) totalAllocatedBytes.sum() / count;
+	}
+
+	@Override
+	public long getStuckTaskCount() {
+		return stuckTaskCount.sum();
+	}
+
+	@Override
+	public ThreadStateProfile getThreadStateProfile() {
+		if (!sampleThreadStates) {
+			return null;
+		}
+		return new ThreadStateProfile(idleSamples.sum(), runnableSamples.sum(), blockedSamples.sum(), waitingSamples.sum());
+	}
+
+	@Override
+	public ThreadPoolSnapshot getSnapshot() {
+		long[] counters = new long[ThreadPoolSnapshot.COUNTERS];
+		counters[ThreadPoolSnapshot.SUBMITTED] = submittedCount.sum();
+		counters[ThreadPoolSnapshot.REJECTED] = rejectedCount.sum();
+		counters[ThreadPoolSnapshot.STARTED] = executionCount.sum();
+		counters[ThreadPoolSnapshot.COMPLETED] = executedCount.sum();
+		counters[ThreadPoolSnapshot.TIMED] = durationCount.sum();
+		counters[ThreadPoolSnapshot.ENQUEUED_NANOS] = enqueuedNanos.sum();
+		counters[ThreadPoolSnapshot.RUNNING_NANOS] = executionNanos.sum();
+		counters[ThreadPoolSnapshot.STUCK] = stuckTaskCount.sum();
+		counters[ThreadPoolSnapshot.CPU_COUNT] = cpuCount.sum();
+		counters[ThreadPoolSnapshot.CPU_NANOS] = totalCpuNanos.sum();
+		counters[ThreadPoolSnapshot.ALLOCATION_COUNT] = allocationCount.sum();
+		counters[ThreadPoolSnapshot.ALLOCATED_BYTES] = totalAllocatedBytes.sum();
+		counters[ThreadPoolSnapshot.IDLE_SAMPLES] = idleSamples.sum();
+		counters[ThreadPoolSnapshot.RUNNABLE_SAMPLES] = runnableSamples.sum();
+		counters[ThreadPoolSnapshot.BLOCKED_SAMPLES] = blockedSamples.sum();
+		counters[ThreadPoolSnapshot.WAITING_SAMPLES] = waitingSamples.sum();
+
+		long nowNanos = System.nanoTime();
+		return new ThreadPoolSnapshot(threadPoolId, getDescription(), System.currentTimeMillis(), nowNanos, nowNanos - createdNanos, counters,
+				currentlyRunning(), getPendingTasksInQueue(), enqueuedHistogram.snapshotCounts(), executionHistogram.snapshotCounts());
+	}
+
+	@Override
+	public ThreadPoolSnapshot getWindowSnapshot(Duration window) {
+		if (windows != null) {
+			for (RollingWindow rollingWindow : windows) {
+				if (rollingWindow.getWindow().equals(window)) {
+					return rollingWindow.get();
+				}
 			}
 		}
+		return null;
 	}
 
-	/* enqueuedDuration = enqueuedDuration.plus(enqueued); executionDuration = executionDuration.plus(execution);
-	 * 
-	 * if (maxEnqueuedDuration == null || maxEnqueuedDuration.compareTo(enqueued) < 0) { maxEnqueuedDuration = enqueued;
-	 * } if (minEnqueuedDuration == null || minEnqueuedDuration.compareTo(enqueued) > 0) { minEnqueuedDuration =
-	 * enqueued; } */
+	@Override
+	public List<TaskKeyStatistics> getTaskKeyStatistics() {
+		if (taskKeys == null) {
+			return Collections.emptyList();
+		}
+		return taskKeys.getStatistics();
+	}
+
+	@Override
+	public List<TaskEvent> getRecentTaskEvents() {
+		return taskEvents != null ? taskEvents.getEvents() : Collections.emptyList();
+	}
+
+	/**
+	 * Called by a pool which adapts its concurrency whenever the limit changes.
+	 */
+	public void concurrencyLimitChanged(int limit) {
+		if (concurrencyLimits != null) {
+			concurrencyLimits.limitChanged(limit);
+		}
+	}
+
+	@Override
+	public Integer getConcurrencyLimit() {
+		return concurrencyLimits != null ? extendedThreadPoolExecutor.getMaximumThreadPoolSize() : null;
+	}
+
+	@Override
+	public List<ConcurrencyLimitSample> getConcurrencyLimitHistory() {
+		return concurrencyLimits != null ? concurrencyLimits.getSamples() : Collections.emptyList();
+	}
+
+	@Override
+	public Map<String, Integer> getInFlightTasksPerKey() {
+		return extendedThreadPoolExecutor.getInFlightTasksPerKey();
+	}
+
+	@Override
+	public List<ScheduleStatistics> getScheduleStatistics() {
+		if (schedules == null) {
+			return Collections.emptyList();
+		}
+		return schedules.getStatistics();
+	}
 }
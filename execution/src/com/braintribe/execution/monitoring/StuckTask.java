@@ -0,0 +1,81 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Duration;
+
+/**
+ * A task which has been running for longer than the stuck task threshold of its pool, as reported by the
+ * {@link StuckTaskDetector}.
+ */
+public class StuckTask {
+
+	private final String threadPoolId;
+	private final String description;
+	private final Thread worker;
+	private final long executionId;
+	private final long runningNanos;
+	private final StackTraceElement[] stackTrace;
+
+	public StuckTask(String threadPoolId, String description, Thread worker, long executionId, long runningNanos,
+			StackTraceElement[] stackTrace) {
+		this.threadPoolId = threadPoolId;
+		this.description = description;
+		this.worker = worker;
+		this.executionId = executionId;
+		this.runningNanos = runningNanos;
+		this.stackTrace = stackTrace;
+	}
+
+	public String getThreadPoolId() {
+		return threadPoolId;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public Thread getWorker() {
+		return worker;
+	}
+
+	/**
+	 * @return the execution id, which is also part of the NDC of the task (in base 36)
+	 */
+	public long getExecutionId() {
+		return executionId;
+	}
+
+	/**
+	 * @return how long the task had been running when it was detected
+	 */
+	public Duration getRunningTime() {
+		return Duration.ofNanos(runningNanos);
+	}
+
+	/**
+	 * @return the stack trace of the worker, captured once when the task was detected
+	 */
+	public StackTraceElement[] getStackTrace() {
+		return stackTrace;
+	}
+
+	@Override
+	public String toString() {
+		return "Task " + Long.toString(executionId, 36) + " of thread pool " + description + " running on " + worker.getName() + " for "
+				+ runningNanos / 1_000_000 + " ms";
+	}
+}
@@ -0,0 +1,81 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.braintribe.logging.Logger;
+
+/**
+ * Watchdog which periodically scans the in-flight executions of all registered pools that have a stuck task threshold
+ * (see {@link MonitoredThreadPool#getStuckTaskThreshold()}). Every execution exceeding the threshold is reported once: the
+ * stack trace of its worker is captured, the stuck task count of the pool is increased, a warning is logged and all
+ * {@link StuckTaskListener}s are notified.
+ * <p>
+ * While a pool has a threshold, every execution occupies an {@link ExecutionSlot}, so that tasks skipped by the
+ * {@link MonitoringSampling} of the pool are watched as well; the sampling only decides which of them are timed.
+ */
+public class StuckTaskDetector {
+
+	private static Logger logger = Logger.getLogger(StuckTaskDetector.class);
+
+	private static final Duration SCAN_INTERVAL = Duration.ofSeconds(1);
+
+	private static final List<StuckTaskListener> listeners = new CopyOnWriteArrayList<>();
+	private static boolean started = false;
+
+	private StuckTaskDetector() {
+		// static helpers only
+	}
+
+	public static void addListener(StuckTaskListener listener) {
+		listeners.add(listener);
+	}
+
+	public static void removeListener(StuckTaskListener listener) {
+		listeners.remove(listener);
+	}
+
+	static synchronized void start() {
+		if (!started) {
+			MonitoringScheduler.scheduleAtFixedRate(StuckTaskDetector::scan, SCAN_INTERVAL);
+			started = true;
+		}
+	}
+
+	static void scan() {
+		long nowNanos = System.nanoTime();
+		for (StandardThreadPoolStatistics statistics : ThreadPoolMonitoring.getRegisteredStatistics()) {
+			statistics.detectStuckTasks(nowNanos);
+		}
+	}
+
+	static void report(StuckTask stuckTask) {
+		Exception trace = new Exception("Stack trace of " + stuckTask.getWorker().getName());
+		trace.setStackTrace(stuckTask.getStackTrace());
+		logger.warn(stuckTask.toString(), trace);
+
+		for (StuckTaskListener listener : listeners) {
+			try {
+				listener.onStuckTask(stuckTask);
+			} catch (Exception e) {
+				logger.warn("Stuck task listener " + listener + " failed", e);
+			}
+		}
+	}
+}
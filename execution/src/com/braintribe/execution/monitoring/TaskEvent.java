@@ -0,0 +1,122 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * An entry of the {@link TaskEventHistory} of a pool. All stamps are {@link System#nanoTime()} values, 0 if not known,
+ * e.g. the start of a rejected task.
+ */
+public class TaskEvent {
+
+	public enum Outcome {
+		COMPLETED,
+		FAILED,
+		CANCELLED,
+		REJECTED
+	}
+
+	private final long sequence;
+	private final String taskKey;
+	private final String worker;
+	private final Outcome outcome;
+	private final long submittedNanos;
+	private final long startedNanos;
+	private final long finishedNanos;
+	// System.currentTimeMillis() - System.nanoTime() / 1_000_000 when the event was read
+	private final long epochOffsetMillis;
+
+	TaskEvent(long sequence, String taskKey, String worker, Outcome outcome, long submittedNanos, long startedNanos, long finishedNanos,
+			long epochOffsetMillis) {
+		this.sequence = sequence;
+		this.taskKey = taskKey;
+		this.worker = worker;
+		this.outcome = outcome;
+		this.submittedNanos = submittedNanos;
+		this.startedNanos = startedNanos;
+		this.finishedNanos = finishedNanos;
+		this.epochOffsetMillis = epochOffsetMillis;
+	}
+
+	/**
+	 * @return the position of the event in the history of its pool, counting from 0
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	public String getTaskKey() {
+		return taskKey;
+	}
+
+	/**
+	 * @return the name of the thread which ran the task, or which submitted it if it was rejected
+	 */
+	public String getWorker() {
+		return worker;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	public long getSubmittedNanos() {
+		return submittedNanos;
+	}
+
+	public long getStartedNanos() {
+		return startedNanos;
+	}
+
+	public long getFinishedNanos() {
+		return finishedNanos;
+	}
+
+	/**
+	 * @return the approximate wall clock time of the event, i.e. when the task finished or was rejected
+	 */
+	public Instant getTimestamp() {
+		long nanos = finishedNanos != 0L ? finishedNanos : submittedNanos;
+		return Instant.ofEpochMilli(epochOffsetMillis + nanos / 1_000_000);
+	}
+
+	/**
+	 * @return how long the task waited to be started, <code>null</code> if it was not started
+	 */
+	public Duration getEnqueuedTime() {
+		return submittedNanos != 0L && startedNanos != 0L ? Duration.ofNanos(startedNanos - submittedNanos) : null;
+	}
+
+	/**
+	 * @return how long the task ran, <code>null</code> if it was not started
+	 */
+	public Duration getRunningTime() {
+		return startedNanos != 0L ? Duration.ofNanos(finishedNanos - startedNanos) : null;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('#').append(sequence).append(' ').append(getTimestamp()).append(' ').append(outcome).append(' ').append(taskKey);
+		sb.append(" on ").append(worker);
+		if (startedNanos != 0L) {
+			sb.append(", enqueued ").append(getEnqueuedTime().toMillis()).append(" ms, ran ").append(getRunningTime().toMillis()).append(" ms");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,157 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.braintribe.execution.monitoring.TaskEvent.Outcome;
+
+/**
+ * Fixed-size history of the last task events of a pool, to answer what ran right before a pool got stuck or started to
+ * reject tasks. The events are kept in preallocated arrays which writers claim slots of with a single atomic increment,
+ * so recording an event neither locks nor allocates. Readers copy the events into {@link TaskEvent}s and skip entries
+ * which are being overwritten meanwhile. A writer which finds its slot still being written by one a whole round apart
+ * drops its event rather than waiting.
+ */
+public class TaskEventHistory {
+
+	private static final Outcome[] OUTCOMES = Outcome.values();
+
+	private final int mask;
+	private final AtomicLong sequence = new AtomicLong();
+	// per slot: sequence + 1 once the entry is complete, -(sequence + 1) while it is being written
+	private final AtomicLongArray published;
+	private final String[] taskKeys;
+	private final String[] workers;
+	private final byte[] outcomes;
+	private final long[] submittedNanos;
+	private final long[] startedNanos;
+	private final long[] finishedNanos;
+
+	/**
+	 * @param size
+	 *            the number of events kept, rounded up to the next power of two
+	 */
+	public TaskEventHistory(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("The size of the task event history must be positive, but was " + size);
+		}
+		int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+		this.mask = capacity - 1;
+		this.published = new AtomicLongArray(capacity);
+		this.taskKeys = new String[capacity];
+		this.workers = new String[capacity];
+		this.outcomes = new byte[capacity];
+		this.submittedNanos = new long[capacity];
+		this.startedNanos = new long[capacity];
+		this.finishedNanos = new long[capacity];
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Records a task which finished on the current thread. The outcome is taken from the failure or, for tasks which are
+	 * {@link Future}s, from their state.
+	 */
+	public void recordExecution(Object task, long submittedNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		record(TaskKeys.resolve(task), Thread.currentThread().getName(), outcomeOf(task, failure), submittedNanos, startedNanos, finishedNanos);
+	}
+
+	/**
+	 * Records a task which the pool rejected; the current thread is the one which submitted it.
+	 */
+	public void recordRejection(Object task) {
+		record(TaskKeys.resolve(task), Thread.currentThread().getName(), Outcome.REJECTED, System.nanoTime(), 0L, 0L);
+	}
+
+	private void record(String taskKey, String worker, Outcome outcome, long submitted, long started, long finished) {
+		long seq = sequence.getAndIncrement();
+		int i = (int) seq & mask;
+
+		// a slot is only taken over from a complete entry of an earlier round; if a writer which is a whole round ahead or
+		// behind is busy with it, the event is dropped instead of interleaving two entries
+		long state = published.get(i);
+		if (state < 0 || state > seq || !published.compareAndSet(i, state, -(seq + 1))) {
+			return;
+		}
+		VarHandle.releaseFence();
+		taskKeys[i] = taskKey;
+		workers[i] = worker;
+		outcomes[i] = (byte) outcome.ordinal();
+		submittedNanos[i] = submitted;
+		startedNanos[i] = started;
+		finishedNanos[i] = finished;
+		published.set(i, seq + 1);
+	}
+
+	private static Outcome outcomeOf(Object task, Throwable failure) {
+		if (failure != null) {
+			return Outcome.FAILED;
+		}
+		if (task instanceof Future) {
+			switch (((Future<?>) task).state()) {
+				case FAILED:
+					return Outcome.FAILED;
+				case CANCELLED:
+					return Outcome.CANCELLED;
+				default:
+					// also periodic tasks, which stay RUNNING
+					return Outcome.COMPLETED;
+			}
+		}
+		return Outcome.COMPLETED;
+	}
+
+	/**
+	 * @return the number of events recorded since the history was created, including the ones which have been overwritten
+	 *         or dropped
+	 */
+	public long getRecordedCount() {
+		return sequence.get();
+	}
+
+	/**
+	 * @return the events still kept, oldest first
+	 */
+	public List<TaskEvent> getEvents() {
+		long epochOffsetMillis = System.currentTimeMillis() - System.nanoTime() / 1_000_000;
+		long end = sequence.get();
+		long start = Math.max(0L, end - getCapacity());
+
+		List<TaskEvent> result = new ArrayList<>((int) (end - start));
+		for (long seq = start; seq < end; seq++) {
+			int i = (int) seq & mask;
+			if (published.get(i) != seq + 1) {
+				// still being written or already overwritten
+				continue;
+			}
+			TaskEvent event = new TaskEvent(seq, taskKeys[i], workers[i], OUTCOMES[outcomes[i]], submittedNanos[i], startedNanos[i], finishedNanos[i],
+					epochOffsetMillis);
+			VarHandle.acquireFence();
+			if (published.get(i) == seq + 1) {
+				result.add(event);
+			}
+		}
+		return result;
+	}
+}
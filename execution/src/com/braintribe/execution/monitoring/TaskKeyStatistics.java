@@ -0,0 +1,82 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.braintribe.common.lcd.Numbers;
+
+/**
+ * Execution figures of all tasks of a pool which share the same task key, see {@link TaskKeys}.
+ */
+public class TaskKeyStatistics {
+
+	private final String taskKey;
+	private final LongAdder executionCount = new LongAdder();
+	private final LongAdder enqueuedNanos = new LongAdder();
+	private final LongAdder executionNanos = new LongAdder();
+	private final LatencyHistogram executionHistogram = new LatencyHistogram();
+
+	public TaskKeyStatistics(String taskKey) {
+		this.taskKey = taskKey;
+	}
+
+	public void registerExecution(long enqueuedNanos, long executionNanos) {
+		this.executionCount.increment();
+		this.enqueuedNanos.add(enqueuedNanos);
+		this.executionNanos.add(executionNanos);
+		this.executionHistogram.record(executionNanos);
+	}
+
+	public String getTaskKey() {
+		return taskKey;
+	}
+
+	public long getExecutionCount() {
+		return executionCount.sum();
+	}
+
+	/**
+	 * @return the average time the tasks waited in the queue or -1 if none has been recorded yet
+	 */
+	public double getAverageEnqueuedTimeInMs() {
+		return average(enqueuedNanos);
+	}
+
+	/**
+	 * @return the average time the tasks were running or -1 if none has been recorded yet
+	 */
+	public double getAverageRunningTimeInMs() {
+		return average(executionNanos);
+	}
+
+	public LatencyPercentiles getRunningTimePercentiles() {
+		return LatencyPercentiles.of(executionHistogram);
+	}
+
+	private double average(LongAdder nanos) {
+		long count = executionCount.sum();
+		if (count == 0) {
+			return -1d;
+		}
+		return (double) nanos.sum() / count / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	@Override
+	public String toString() {
+		return taskKey + ": " + getExecutionCount() + " executions";
+	}
+}
@@ -0,0 +1,80 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded table of {@link TaskKeyStatistics}. Once the table is full, further keys are accounted under
+ * {@link #OTHER_KEY}, so that a high number of distinct keys cannot exhaust memory.
+ */
+public class TaskKeyTable {
+
+	public static final String OTHER_KEY = "other";
+
+	private final int maxKeys;
+	private final ConcurrentHashMap<String, TaskKeyStatistics> entries = new ConcurrentHashMap<>();
+	private final TaskKeyStatistics other = new TaskKeyStatistics(OTHER_KEY);
+
+	public TaskKeyTable(int maxKeys) {
+		this.maxKeys = maxKeys;
+	}
+
+	public void registerExecution(Object task, long enqueuedNanos, long executionNanos) {
+		get(TaskKeys.resolve(task)).registerExecution(enqueuedNanos, executionNanos);
+	}
+
+	public TaskKeyStatistics get(String key) {
+		if (key == null) {
+			return other;
+		}
+		TaskKeyStatistics statistics = entries.get(key);
+		if (statistics != null) {
+			return statistics;
+		}
+		if (entries.size() >= maxKeys) {
+			return other;
+		}
+		synchronized (this) {
+			statistics = entries.get(key);
+			if (statistics == null) {
+				if (entries.size() >= maxKeys) {
+					return other;
+				}
+				statistics = new TaskKeyStatistics(key);
+				entries.put(key, statistics);
+			}
+			return statistics;
+		}
+	}
+
+	public int getMaxKeys() {
+		return maxKeys;
+	}
+
+	/**
+	 * @return the statistics of all keys, including the {@link #OTHER_KEY} entry if anything overflowed into it
+	 */
+	public List<TaskKeyStatistics> getStatistics() {
+		List<TaskKeyStatistics> result = new ArrayList<>(entries.values());
+		if (other.getExecutionCount() > 0) {
+			result.add(other);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,155 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.util.concurrent.Callable;
+
+import com.braintribe.execution.DelegatingCallable;
+import com.braintribe.execution.DelegatingRunnable;
+import com.braintribe.execution.NamedCallable;
+
+/**
+ * Resolves the key under which a task is accounted in the per-task-key statistics of a pool (see
+ * {@link ThreadPoolStatistics#getTaskKeyStatistics()}). The first match along the chain of wrappers wins:
+ * <ol>
+ * <li>an explicit key given with {@link #keyed(String, Runnable)} or {@link #keyed(String, Callable)}</li>
+ * <li>the name of a {@link NamedCallable}</li>
+ * <li>the class name of the innermost task</li>
+ * </ol>
+ */
+public class TaskKeys {
+
+	private TaskKeys() {
+		// static helpers only
+	}
+
+	public static Runnable keyed(String key, Runnable runnable) {
+		return new KeyedRunnable(key, runnable);
+	}
+
+	public static <T> Callable<T> keyed(String key, Callable<T> callable) {
+		return new KeyedCallable<T>(key, callable);
+	}
+
+	public static String resolve(Object task) {
+		Object current = task;
+		while (current != null) {
+			if (current instanceof KeyedTask) {
+				return ((KeyedTask) current).getTaskKey();
+			}
+			if (current instanceof NamedCallable) {
+				String name = ((NamedCallable<?>) current).getName();
+				if (name != null) {
+					return name;
+				}
+			}
+			Object delegate = delegateOf(current);
+			if (delegate == null) {
+				return current.getClass().getName();
+			}
+			current = delegate;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the task behind all wrappers the executors add, i.e. the one the caller actually handed over.
+	 */
+	public static Object innermost(Object task) {
+		Object current = task;
+		while (current != null) {
+			Object delegate = delegateOf(current);
+			if (delegate == null) {
+				break;
+			}
+			current = delegate;
+		}
+		return current;
+	}
+
+	private static Object delegateOf(Object task) {
+		if (task instanceof DelegatingRunnable) {
+			return ((DelegatingRunnable) task).getDelegate();
+		}
+		if (task instanceof DelegatingCallable) {
+			return ((DelegatingCallable<?>) task).getDelegate();
+		}
+		if (task instanceof MonitoredScheduledFuture) {
+			return ((MonitoredScheduledFuture<?>) task).getTask();
+		}
+		if (task instanceof MonitoredFutureTask) {
+			return ((MonitoredFutureTask<?>) task).getTask();
+		}
+		return null;
+	}
+
+	/**
+	 * A task carrying an explicit key for the per-task-key statistics.
+	 */
+	public interface KeyedTask {
+		String getTaskKey();
+	}
+
+	private static class KeyedRunnable implements DelegatingRunnable, KeyedTask {
+		private final String key;
+		private final Runnable delegate;
+
+		KeyedRunnable(String key, Runnable delegate) {
+			this.key = key;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void run() {
+			delegate.run();
+		}
+
+		@Override
+		public Runnable getDelegate() {
+			return delegate;
+		}
+
+		@Override
+		public String getTaskKey() {
+			return key;
+		}
+	}
+
+	private static class KeyedCallable<T> implements DelegatingCallable<T>, KeyedTask {
+		private final String key;
+		private final Callable<T> delegate;
+
+		KeyedCallable(String key, Callable<T> delegate) {
+			this.key = key;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public T call() throws Exception {
+			return delegate.call();
+		}
+
+		@Override
+		public Callable<T> getDelegate() {
+			return delegate;
+		}
+
+		@Override
+		public String getTaskKey() {
+			return key;
+		}
+	}
+}
@@ -16,25 +16,34 @@
 package com.braintribe.execution.monitoring;
 
 import java.time.Duration;
-import java.time.Instant;
-
-import com.braintribe.utils.date.NanoClock;
 
 public class ThreadPoolExecution {
 
-	private Instant start = NanoClock.INSTANCE.instant();
-	private Instant stop = null;
+	private long startNanos = System.nanoTime();
+	private long stopNanos = -1L;
+	private boolean stopped = false;
 	
 	public ThreadPoolExecution() {
 	}
 
 	public void stopped() {
-		stop = NanoClock.INSTANCE.instant();
+		stopNanos = System.nanoTime();
+		stopped = true;
 	}
 	
+	/**
+	 * @return the execution time in nanoseconds or -1 if the execution has not been stopped yet
+	 */
+	public long getExecutionTimeInNanos() {
+		if (stopped) {
+			return stopNanos - startNanos;
+		}
+		return -1L;
+	}
+
 	public Duration getExecutionTime() {
-		if (stop != null) {
-			return Duration.between(start, stop);
+		if (stopped) {
+			return Duration.ofNanos(getExecutionTimeInNanos());
 		}
 		return null;
 	}
@@ -17,23 +17,56 @@ package com.braintribe.execution.monitoring;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+
+import com.braintribe.execution.monitoring.jmx.ThreadPoolManagement;
 
 public class ThreadPoolMonitoring {
 
 	private static ConcurrentHashMap<String, StandardThreadPoolStatistics> threadPools = new ConcurrentHashMap<>();
 
+	static final Duration LOAD_TICK_INTERVAL = Duration.ofSeconds(5);
+	private static boolean ticking = false;
+
 	public static void registerThreadPool(final String threadPoolId, final MonitoredThreadPool extendedThreadPoolExecutor) {
+		registerThreadPoolStatistics(threadPoolId, extendedThreadPoolExecutor);
+	}
+
+	/**
+	 * Registers the pool like {@link #registerThreadPool(String, MonitoredThreadPool)} and returns its statistics, which the
+	 * pool should keep as a direct handle to record its executions without going through this registry for every task.
+	 */
+	public static StandardThreadPoolStatistics registerThreadPoolStatistics(final String threadPoolId,
+			final MonitoredThreadPool extendedThreadPoolExecutor) {
 		if (threadPoolId == null) {
-			return;
+			return null;
 		}
 		StandardThreadPoolStatistics statistics = threadPools.computeIfAbsent(threadPoolId,
-				id -> new StandardThreadPoolStatistics(threadPoolId, extendedThreadPoolExecutor));
+				id -> newStatistics(threadPoolId, extendedThreadPoolExecutor));
 		if (extendedThreadPoolExecutor instanceof ScheduledThreadPoolExecutor) {
 			statistics.setScheduledThreadPool(true);
 		}
+		if (extendedThreadPoolExecutor.getStuckTaskThreshold() != null) {
+			StuckTaskDetector.start();
+		}
+		if (extendedThreadPoolExecutor.isSampleThreadStates()) {
+			ThreadStateSampler.start();
+		}
+		startLoadTicks();
+		ThreadPoolManagement.register(statistics, extendedThreadPoolExecutor);
+		return statistics;
+	}
+
+	private static StandardThreadPoolStatistics newStatistics(String threadPoolId, MonitoredThreadPool threadPool) {
+		if (threadPool instanceof ForkJoinPool) {
+			return new ForkJoinPoolStatistics(threadPoolId, threadPool, (ForkJoinPool) threadPool);
+		}
+		return new StandardThreadPoolStatistics(threadPoolId, threadPool);
 	}
 
 	public static void unregisterThreadPool(final String threadPoolId) {
@@ -41,27 +74,48 @@ public class ThreadPoolMonitoring {
 			return;
 		}
 		threadPools.remove(threadPoolId);
+		ThreadPoolManagement.unregister(threadPoolId);
 	}
 
+	/**
+	 * @deprecated pools keep the statistics returned by {@link #registerThreadPoolStatistics(String, MonitoredThreadPool)}
+	 *             and call {@link StandardThreadPoolStatistics#beforeExecution(ExecutionSlot, long)} directly. Executions
+	 *             registered here are counted, but not timed.
+	 */
+	@Deprecated
 	public static void beforeExecution(String threadPoolId, String execIdString) {
 		if (threadPoolId == null || execIdString == null) {
 			return;
 		}
 		StandardThreadPoolStatistics statistics = threadPools.get(threadPoolId);
 		if (statistics != null) {
-			statistics.beforeExecution(execIdString);
+			statistics.beforeExecution(null, 0L);
 		}
 	}
 
+	/**
+	 * @deprecated see {@link #beforeExecution(String, String)}
+	 */
+	@Deprecated
 	public static void afterExecution(String threadPoolId, String execIdString) {
 		if (threadPoolId == null || execIdString == null) {
 			return;
 		}
 		StandardThreadPoolStatistics statistics = threadPools.get(threadPoolId);
 		if (statistics != null) {
-			statistics.afterExecution(execIdString);
+			statistics.afterExecution(null);
 		}
+	}
 
+	/**
+	 * Passes the statistics of the common pool and of all registered pools to the given consumer, without creating a list
+	 * like {@link #getStatistics()}.
+	 */
+	public static void forEach(Consumer<? super ThreadPoolStatistics> consumer) {
+		consumer.accept(CommonPoolThreadPoolStatistics.commonPoolStatistics);
+		for (StandardThreadPoolStatistics statistics : threadPools.values()) {
+			consumer.accept(statistics);
+		}
 	}
 
 	public static List<ThreadPoolStatistics> getStatistics() {
@@ -71,10 +125,40 @@ public class ThreadPoolMonitoring {
 		return list;
 	}
 
+	/**
+	 * Starts to periodically feed the rates of all pools into their moving averages, see
+	 * {@link ThreadPoolStatistics#getSubmissionRates()}. This way the averages cost nothing per task.
+	 */
+	private static synchronized void startLoadTicks() {
+		if (!ticking) {
+			MonitoringScheduler.scheduleAtFixedRate(ThreadPoolMonitoring::tick, LOAD_TICK_INTERVAL);
+			ticking = true;
+		}
+	}
+
+	static void tick() {
+		long nowNanos = System.nanoTime();
+		CommonPoolThreadPoolStatistics.commonPoolStatistics.tick(nowNanos);
+		for (StandardThreadPoolStatistics statistics : threadPools.values()) {
+			statistics.tick(nowNanos);
+		}
+	}
+
+	static Collection<StandardThreadPoolStatistics> getRegisteredStatistics() {
+		return threadPools.values();
+	}
+
 	public static void registerThreadPoolExecution(String threadPoolId, Duration enqueued, Duration execution) {
 		StandardThreadPoolStatistics statistics = threadPools.get(threadPoolId);
 		if (statistics != null) {
 			statistics.registerThreadPoolExecution(enqueued, execution);
 		}
 	}
+
+	public static void registerThreadPoolExecution(String threadPoolId, long enqueuedNanos, long executionNanos) {
+		StandardThreadPoolStatistics statistics = threadPools.get(threadPoolId);
+		if (statistics != null) {
+			statistics.registerThreadPoolExecution(enqueuedNanos, executionNanos);
+		}
+	}
 }
@@ -0,0 +1,281 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import com.braintribe.common.lcd.Numbers;
+
+/**
+ * Immutable view of the counters and histograms of a pool at one point in time, see
+ * {@link ThreadPoolStatistics#getSnapshot()}. The counters accumulate since the pool was created; {@link #delta(ThreadPoolSnapshot)}
+ * turns two snapshots into the figures of the interval between them, so recent behavior is not hidden by a long uptime.
+ * <p>
+ * Snapshots of {@link ThreadPoolStatistics#getWindowSnapshot(Duration) rolling windows} carry no histograms, hence no
+ * percentiles.
+ */
+public class ThreadPoolSnapshot {
+
+	// indexes of the counters, which are subtracted by delta() and summed up by the rolling windows
+	static final int SUBMITTED = 0;
+	static final int REJECTED = 1;
+	static final int STARTED = 2;
+	static final int COMPLETED = 3;
+	static final int TIMED = 4;
+	static final int ENQUEUED_NANOS = 5;
+	static final int RUNNING_NANOS = 6;
+	static final int STUCK = 7;
+	static final int CPU_COUNT = 8;
+	static final int CPU_NANOS = 9;
+	static final int ALLOCATION_COUNT = 10;
+	static final int ALLOCATED_BYTES = 11;
+	static final int IDLE_SAMPLES = 12;
+	static final int RUNNABLE_SAMPLES = 13;
+	static final int BLOCKED_SAMPLES = 14;
+	static final int WAITING_SAMPLES = 15;
+	static final int COUNTERS = 16;
+
+	private final String threadPoolId;
+	private final String description;
+	private final long timestamp;
+	private final long nanoTime;
+	private final long intervalNanos;
+	private final long[] counters;
+	private final int running;
+	private final int pendingTasks;
+	private final long maxEnqueuedNanos;
+	private final long maxRunningNanos;
+	private final long[] enqueuedCounts;
+	private final long[] runningCounts;
+
+	ThreadPoolSnapshot(String threadPoolId, String description, long timestamp, long nanoTime, long intervalNanos, long[] counters, int running,
+			int pendingTasks, long[] enqueuedCounts, long[] runningCounts) {
+		this(threadPoolId, description, timestamp, nanoTime, intervalNanos, counters, running, pendingTasks, LatencyHistogram.maxValue(enqueuedCounts),
+				LatencyHistogram.maxValue(runningCounts), enqueuedCounts, runningCounts);
+	}
+
+	private ThreadPoolSnapshot(String threadPoolId, String description, long timestamp, long nanoTime, long intervalNanos, long[] counters,
+			int running, int pendingTasks, long maxEnqueuedNanos, long maxRunningNanos, long[] enqueuedCounts, long[] runningCounts) {
+		this.threadPoolId = threadPoolId;
+		this.description = description;
+		this.timestamp = timestamp;
+		this.nanoTime = nanoTime;
+		this.intervalNanos = intervalNanos;
+		this.counters = counters;
+		this.running = running;
+		this.pendingTasks = pendingTasks;
+		this.maxEnqueuedNanos = maxEnqueuedNanos;
+		this.maxRunningNanos = maxRunningNanos;
+		this.enqueuedCounts = enqueuedCounts;
+		this.runningCounts = runningCounts;
+	}
+
+	/**
+	 * @return the figures of the interval between the given, earlier snapshot of the same pool and this one. The gauges
+	 *         (running and pending tasks) are the ones of this snapshot.
+	 */
+	public ThreadPoolSnapshot delta(ThreadPoolSnapshot earlier) {
+		return delta(earlier, true);
+	}
+
+	ThreadPoolSnapshot delta(ThreadPoolSnapshot earlier, boolean keepHistograms) {
+		if (!threadPoolId.equals(earlier.threadPoolId)) {
+			throw new IllegalArgumentException("Cannot compute the delta of the snapshots of different pools " + threadPoolId + " and "
+					+ earlier.threadPoolId);
+		}
+		if (earlier.nanoTime > nanoTime) {
+			throw new IllegalArgumentException("The snapshot of pool " + threadPoolId + " passed as earlier one has been taken later.");
+		}
+
+		long[] deltaCounters = new long[COUNTERS];
+		for (int i = 0; i < COUNTERS; i++) {
+			deltaCounters[i] = counters[i] - earlier.counters[i];
+		}
+		long[] deltaEnqueued = subtract(enqueuedCounts, earlier.enqueuedCounts);
+		long[] deltaRunning = subtract(runningCounts, earlier.runningCounts);
+		long interval = intervalNanos - earlier.intervalNanos;
+
+		if (keepHistograms) {
+			return new ThreadPoolSnapshot(threadPoolId, description, timestamp, nanoTime, interval, deltaCounters, running, pendingTasks, deltaEnqueued,
+					deltaRunning);
+		}
+		return new ThreadPoolSnapshot(threadPoolId, description, timestamp, nanoTime, interval, deltaCounters, running, pendingTasks,
+				LatencyHistogram.maxValue(deltaEnqueued), LatencyHistogram.maxValue(deltaRunning), null, null);
+	}
+
+	private static long[] subtract(long[] counts, long[] earlierCounts) {
+		if (counts == null || earlierCounts == null) {
+			return null;
+		}
+		long[] result = new long[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			result[i] = counts[i] - earlierCounts[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Combines the interval figures of this snapshot with the ones of the directly following interval. Histograms are dropped.
+	 */
+	ThreadPoolSnapshot plus(ThreadPoolSnapshot later) {
+		long[] sum = new long[COUNTERS];
+		for (int i = 0; i < COUNTERS; i++) {
+			sum[i] = counters[i] + later.counters[i];
+		}
+		return new ThreadPoolSnapshot(threadPoolId, later.description, later.timestamp, later.nanoTime, intervalNanos + later.intervalNanos, sum,
+				later.running, later.pendingTasks, Math.max(maxEnqueuedNanos, later.maxEnqueuedNanos), Math.max(maxRunningNanos, later.maxRunningNanos),
+				null, null);
+	}
+
+	public String getThreadPoolId() {
+		return threadPoolId;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return when the snapshot was taken
+	 */
+	public Instant getTimestamp() {
+		return Instant.ofEpochMilli(timestamp);
+	}
+
+	/**
+	 * @return the time the figures cover, i.e. the uptime of the pool for a snapshot and the covered time for a delta or window
+	 */
+	public Duration getInterval() {
+		return Duration.ofNanos(intervalNanos);
+	}
+
+	public long getSubmittedCount() {
+		return counters[SUBMITTED];
+	}
+
+	public long getRejectedCount() {
+		return counters[REJECTED];
+	}
+
+	/**
+	 * @return the number of executions started
+	 */
+	public long getExecutionCount() {
+		return counters[STARTED];
+	}
+
+	/**
+	 * @return the number of executions finished
+	 */
+	public long getCompletedCount() {
+		return counters[COMPLETED];
+	}
+
+	public long getStuckTaskCount() {
+		return counters[STUCK];
+	}
+
+	public int getCurrentlyRunning() {
+		return running;
+	}
+
+	public int getPendingTasksInQueue() {
+		return pendingTasks;
+	}
+
+	/**
+	 * @return the finished executions per second
+	 */
+	public double getThroughput() {
+		if (intervalNanos <= 0) {
+			return 0d;
+		}
+		return (double) counters[COMPLETED] * Numbers.NANOSECONDS_PER_SECOND / intervalNanos;
+	}
+
+	public Double getAverageEnqueuedTimeInMs() {
+		return average(ENQUEUED_NANOS, TIMED);
+	}
+
+	public Double getAverageRunningTimeInMs() {
+		return average(RUNNING_NANOS, TIMED);
+	}
+
+	/**
+	 * @return the longest time a task waited in the queue, approximated like the percentiles, or <code>null</code> if no
+	 *         execution has been timed
+	 */
+	public Double getMaximumEnqueuedTimeInMs() {
+		return maxEnqueuedNanos < 0 ? null : toMs(maxEnqueuedNanos);
+	}
+
+	/**
+	 * @return the longest running time of a task, approximated like the percentiles, or <code>null</code> if no execution has
+	 *         been timed
+	 */
+	public Double getMaximumRunningTimeInMs() {
+		return maxRunningNanos < 0 ? null : toMs(maxRunningNanos);
+	}
+
+	/**
+	 * @return the percentiles or <code>null</code> if no execution has been timed or the snapshot has no histograms
+	 */
+	public LatencyPercentiles getEnqueuedTimePercentiles() {
+		return enqueuedCounts != null ? LatencyPercentiles.of(enqueuedCounts) : null;
+	}
+
+	public LatencyPercentiles getRunningTimePercentiles() {
+		return runningCounts != null ? LatencyPercentiles.of(runningCounts) : null;
+	}
+
+	public Double getAverageCpuTimeInMs() {
+		return average(CPU_NANOS, CPU_COUNT);
+	}
+
+	public Double getAverageAllocatedBytes() {
+		long count = counters[ALLOCATION_COUNT];
+		return count <= 0 ? null : (double) counters[ALLOCATED_BYTES] / count;
+	}
+
+	/**
+	 * @return the sampled thread states, or <code>null</code> if the pool does not sample them
+	 */
+	public ThreadStateProfile getThreadStateProfile() {
+		ThreadStateProfile profile = new ThreadStateProfile(counters[IDLE_SAMPLES], counters[RUNNABLE_SAMPLES], counters[BLOCKED_SAMPLES],
+				counters[WAITING_SAMPLES]);
+		return profile.getSampleCount() > 0 ? profile : null;
+	}
+
+	private Double average(int nanosIndex, int countIndex) {
+		long count = counters[countIndex];
+		if (count <= 0) {
+			return null;
+		}
+		return (double) counters[nanosIndex] / count / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	private static double toMs(long nanos) {
+		return (double) nanos / Numbers.NANOSECONDS_PER_MILLISECOND;
+	}
+
+	@Override
+	public String toString() {
+		return "ThreadPoolSnapshot[" + (description != null ? description : threadPoolId) + ", interval: " + getInterval() + ", executions: "
+				+ getExecutionCount() + ", average enqueued: " + getAverageEnqueuedTimeInMs() + "ms, average running: " + getAverageRunningTimeInMs()
+				+ "ms]";
+	}
+}
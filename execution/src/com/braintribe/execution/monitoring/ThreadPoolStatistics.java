@@ -15,6 +15,11 @@
 // ============================================================================
 package com.braintribe.execution.monitoring;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 public interface ThreadPoolStatistics {
 
 	int currentlyRunning();
@@ -42,4 +47,164 @@ public interface ThreadPoolStatistics {
 	Long getMaximumEnqueuedTimeInMs();
 	Long getMinimumEnqueuedTimeInMs();
 	Double getAverageEnqueuedTimeInMs();
+
+	/**
+	 * @return p50/p90/p99/p99.9 of the time tasks waited in the queue or <code>null</code> if not available
+	 */
+	default LatencyPercentiles getEnqueuedTimePercentiles() {
+		return null;
+	}
+
+	/**
+	 * @return p50/p90/p99/p99.9 of the time tasks were running or <code>null</code> if not available
+	 */
+	default LatencyPercentiles getRunningTimePercentiles() {
+		return null;
+	}
+
+	/**
+	 * @return description of the {@link MonitoringSampling} which produced the timing figures, e.g. "all" or "1-in-100",
+	 *         "none" if the pool does not measure its tasks
+	 */
+	default String getSampling() {
+		return "none";
+	}
+
+	/**
+	 * @return the ratio of finished executions whose running time has actually been recorded
+	 */
+	default double getSampledRatio() {
+		return 0d;
+	}
+
+	/**
+	 * @return tasks accepted per second, or <code>null</code> if not available
+	 */
+	default LoadRates getSubmissionRates() {
+		return null;
+	}
+
+	/**
+	 * @return tasks finished per second, or <code>null</code> if not available
+	 */
+	default LoadRates getCompletionRates() {
+		return null;
+	}
+
+	/**
+	 * @return tasks rejected per second, or <code>null</code> if not available
+	 */
+	default LoadRates getRejectionRates() {
+		return null;
+	}
+
+	/**
+	 * @return number of tasks waiting in the queue, or <code>null</code> if not available
+	 */
+	default LoadRates getQueueDepths() {
+		return null;
+	}
+
+	/**
+	 * @return the CPU time consumed by the measured tasks, or <code>null</code> if the pool does not track it (see
+	 *         {@link MonitoredThreadPool#isTrackCpuAndAllocation()}) or the JVM cannot measure it
+	 */
+	default Long getTotalCpuTimeInMs() {
+		return null;
+	}
+
+	default Double getAverageCpuTimeInMs() {
+		return null;
+	}
+
+	/**
+	 * @return the bytes allocated by the measured tasks, or <code>null</code> if the pool does not track them (see
+	 *         {@link MonitoredThreadPool#isTrackCpuAndAllocation()}) or the JVM cannot measure them
+	 */
+	default Long getTotalAllocatedBytes() {
+		return null;
+	}
+
+	default Double getAverageAllocatedBytes() {
+		return null;
+	}
+
+	/**
+	 * @return the number of tasks which have been running for longer than the stuck task threshold of the pool
+	 */
+	default long getStuckTaskCount() {
+		return 0L;
+	}
+
+	/**
+	 * @return the sampled states of the worker threads, or <code>null</code> if the pool does not sample them (see
+	 *         {@link MonitoredThreadPool#isSampleThreadStates()})
+	 */
+	default ThreadStateProfile getThreadStateProfile() {
+		return null;
+	}
+
+	/**
+	 * @return an immutable view of the counters and histograms accumulated since the pool was created, which can be compared
+	 *         to a later one with {@link ThreadPoolSnapshot#delta(ThreadPoolSnapshot)}, or <code>null</code> if the pool does
+	 *         not support snapshots
+	 */
+	default ThreadPoolSnapshot getSnapshot() {
+		return null;
+	}
+
+	/**
+	 * @return the figures of the given rolling window, or <code>null</code> if it is not one of the
+	 *         {@link MonitoredThreadPool#getStatisticsWindows() configured windows} or has not seen a tick yet
+	 */
+	default ThreadPoolSnapshot getWindowSnapshot(Duration window) {
+		return null;
+	}
+
+	/**
+	 * @return execution figures per task key (see {@link TaskKeys}), empty unless the pool has been configured to track
+	 *         task keys
+	 */
+	default List<TaskKeyStatistics> getTaskKeyStatistics() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the lateness of the delayed and periodic tasks per schedule key (see {@link ScheduleStatistics}), empty unless
+	 *         this is a scheduled pool
+	 */
+	default List<ScheduleStatistics> getScheduleStatistics() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the last task events of the pool, oldest first, empty unless the pool keeps a {@link TaskEventHistory} (see
+	 *         {@link MonitoredThreadPool#getTaskEventHistorySize()})
+	 */
+	default List<TaskEvent> getRecentTaskEvents() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the current concurrency limit, or <code>null</code> unless the pool adapts it (see
+	 *         {@link MonitoredThreadPool#isAdaptiveConcurrency()})
+	 */
+	default Integer getConcurrencyLimit() {
+		return null;
+	}
+
+	/**
+	 * @return the range of the concurrency limit per monitoring tick, oldest first, empty unless the pool adapts it
+	 */
+	default List<ConcurrencyLimitSample> getConcurrencyLimitHistory() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the number of running and waiting tasks per concurrency key (see
+	 *         {@link MonitoredThreadPool#getInFlightTasksPerKey()}), empty unless the pool limits concurrency per key
+	 */
+	default Map<String, Integer> getInFlightTasksPerKey() {
+		return Collections.emptyMap();
+	}
 }
@@ -0,0 +1,77 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Access to the CPU time and allocated bytes of the current thread, as far as the JVM supports them (via
+ * {@link com.sun.management.ThreadMXBean}). All methods return -1 if the figure is not available, e.g. on virtual
+ * threads.
+ */
+public class ThreadResources {
+
+	private static final com.sun.management.ThreadMXBean threadMXBean = resolveThreadMXBean();
+
+	private ThreadResources() {
+		// static helpers only
+	}
+
+	private static com.sun.management.ThreadMXBean resolveThreadMXBean() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return (com.sun.management.ThreadMXBean) bean;
+		}
+		return null;
+	}
+
+	/**
+	 * Switches on the measurement of thread CPU time and allocations in the JVM if it is supported but disabled.
+	 */
+	public static void enable() {
+		if (threadMXBean == null) {
+			return;
+		}
+		if (threadMXBean.isCurrentThreadCpuTimeSupported() && !threadMXBean.isThreadCpuTimeEnabled()) {
+			threadMXBean.setThreadCpuTimeEnabled(true);
+		}
+		if (threadMXBean.isThreadAllocatedMemorySupported() && !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+			threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		}
+	}
+
+	public static long currentThreadCpuNanos() {
+		if (threadMXBean == null) {
+			return -1L;
+		}
+		try {
+			return threadMXBean.getCurrentThreadCpuTime();
+		} catch (UnsupportedOperationException e) {
+			return -1L;
+		}
+	}
+
+	public static long currentThreadAllocatedBytes() {
+		if (threadMXBean == null) {
+			return -1L;
+		}
+		try {
+			return threadMXBean.getCurrentThreadAllocatedBytes();
+		} catch (UnsupportedOperationException e) {
+			return -1L;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+/**
+ * Immutable summary of the sampled states of the worker threads of a pool, see {@link ThreadStateSampler}. A worker which
+ * is not running a task is idle; the time of the busy workers splits into running (or doing I/O, which the JVM also
+ * reports as runnable), blocked on a monitor and waiting, e.g. for a lock, a future or a sleep.
+ * <p>
+ * Pools which only know their workers while they run a task (virtual threads, fork-join) have no idle samples and thus
+ * always report a utilization of 1.
+ */
+public class ThreadStateProfile {
+
+	private final long idle;
+	private final long runnable;
+	private final long blocked;
+	private final long waiting;
+
+	public ThreadStateProfile(long idle, long runnable, long blocked, long waiting) {
+		this.idle = idle;
+		this.runnable = runnable;
+		this.blocked = blocked;
+		this.waiting = waiting;
+	}
+
+	public long getIdleCount() {
+		return idle;
+	}
+
+	public long getRunnableCount() {
+		return runnable;
+	}
+
+	public long getBlockedCount() {
+		return blocked;
+	}
+
+	public long getWaitingCount() {
+		return waiting;
+	}
+
+	public long getSampleCount() {
+		return idle + getBusyCount();
+	}
+
+	public long getBusyCount() {
+		return runnable + blocked + waiting;
+	}
+
+	/**
+	 * @return the share of the worker time spent running tasks, or <code>null</code> if nothing has been sampled
+	 */
+	public Double getUtilization() {
+		return ratio(getBusyCount(), getSampleCount());
+	}
+
+	/**
+	 * @return the share of the busy worker time in which the task was runnable, or <code>null</code> if no worker was busy
+	 */
+	public Double getRunnableRatio() {
+		return ratio(runnable, getBusyCount());
+	}
+
+	/**
+	 * @return the share of the busy worker time in which the task was blocked on a monitor
+	 */
+	public Double getBlockedRatio() {
+		return ratio(blocked, getBusyCount());
+	}
+
+	/**
+	 * @return the share of the busy worker time in which the task was waiting
+	 */
+	public Double getWaitingRatio() {
+		return ratio(waiting, getBusyCount());
+	}
+
+	private static Double ratio(long count, long total) {
+		return total == 0 ? null : (double) count / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("utilization: %s, runnable: %s, blocked: %s, waiting: %s (%d samples)", getUtilization(), getRunnableRatio(),
+				getBlockedRatio(), getWaitingRatio(), getSampleCount());
+	}
+}
@@ -0,0 +1,124 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Low frequency sampler of the states of the worker threads of all registered pools which sample thread states (see
+ * {@link MonitoredThreadPool#isSampleThreadStates()}). It runs on the shared {@link MonitoringScheduler} thread and reads
+ * the workers from the {@link ExecutionSlot}s of the pools. The states of the platform threads of a pool are fetched with
+ * one {@link ThreadMXBean} call, virtual threads (which the bean does not know) are asked directly.
+ * <p>
+ * Every sample is accounted as idle if the worker is not running a (sampled) task, otherwise by its state, see
+ * {@link ThreadStateProfile}.
+ */
+public class ThreadStateSampler {
+
+	private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	private static Duration interval = Duration.ofSeconds(1);
+	private static ScheduledFuture<?> job;
+
+	// only touched by the sampling thread
+	private static final Consumer<ExecutionSlot> collector = ThreadStateSampler::collect;
+	private static StandardThreadPoolStatistics current;
+	private static long[] threadIds = new long[64];
+	private static boolean[] busy = new boolean[64];
+	private static int collected;
+
+	private ThreadStateSampler() {
+		// static helpers only
+	}
+
+	/**
+	 * Sets the interval between two samples, one second by default. Shorter intervals make the profile converge faster at
+	 * the cost of a {@link ThreadMXBean} call per pool and interval.
+	 */
+	public static synchronized void setInterval(Duration interval) {
+		if (interval == null || interval.isNegative() || interval.isZero()) {
+			throw new IllegalArgumentException("The sampling interval must be positive but is " + interval);
+		}
+		ThreadStateSampler.interval = interval;
+		if (job != null) {
+			job.cancel(false);
+			job = MonitoringScheduler.scheduleAtFixedRate(ThreadStateSampler::sample, interval);
+		}
+	}
+
+	public static synchronized Duration getInterval() {
+		return interval;
+	}
+
+	static synchronized void start() {
+		if (job == null) {
+			job = MonitoringScheduler.scheduleAtFixedRate(ThreadStateSampler::sample, interval);
+		}
+	}
+
+	static void sample() {
+		for (StandardThreadPoolStatistics statistics : ThreadPoolMonitoring.getRegisteredStatistics()) {
+			if (statistics.isSampleThreadStates()) {
+				sample(statistics);
+			}
+		}
+	}
+
+	private static void sample(StandardThreadPoolStatistics statistics) {
+		current = statistics;
+		collected = 0;
+		try {
+			statistics.forEachExecutionSlot(collector);
+			if (collected == 0) {
+				return;
+			}
+
+			ThreadInfo[] infos = threadMXBean.getThreadInfo(Arrays.copyOf(threadIds, collected), 0);
+			for (int i = 0; i < infos.length; i++) {
+				// null if the thread died in the meantime
+				if (infos[i] != null) {
+					statistics.registerThreadState(infos[i].getThreadState(), busy[i]);
+				}
+			}
+		} finally {
+			current = null;
+		}
+	}
+
+	private static void collect(ExecutionSlot slot) {
+		Thread worker = slot.getWorker();
+		if (worker == null) {
+			return;
+		}
+		if (worker.isVirtual()) {
+			current.registerThreadState(worker.getState(), slot.isRunning());
+			return;
+		}
+		if (collected == threadIds.length) {
+			threadIds = Arrays.copyOf(threadIds, collected * 2);
+			busy = Arrays.copyOf(busy, collected * 2);
+		}
+		threadIds[collected] = worker.threadId();
+		busy[collected] = slot.isRunning();
+		collected++;
+	}
+}
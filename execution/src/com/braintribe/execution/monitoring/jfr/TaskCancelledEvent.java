@@ -0,0 +1,37 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.braintribe.execution.TaskCancelled")
+@Label("Task Cancelled")
+@Category({ "Braintribe", "Execution" })
+@Description("A task of a thread pool has been cancelled before or while running")
+@StackTrace(false)
+public class TaskCancelledEvent extends Event {
+
+	@Label("Pool")
+	public String pool;
+
+	@Label("Task Class")
+	public Class<?> taskClass;
+}
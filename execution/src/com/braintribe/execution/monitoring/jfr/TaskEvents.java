@@ -0,0 +1,118 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.jfr;
+
+import com.braintribe.execution.monitoring.MonitoredThreadPool;
+import com.braintribe.execution.monitoring.TaskKeys;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Emits the task lifecycle events of this package. Each method first checks whether the event is enabled in any running
+ * recording and returns right away if not, so the calls can stay in the hot paths of the executors. The JIT removes the
+ * allocation of the event instance in that case.
+ * <p>
+ * Until the Flight Recorder has been initialized, e.g. by a recording started from the command line or with jcmd, no event
+ * instance is created at all, as the first one would bootstrap the JFR infrastructure, which takes several hundred
+ * milliseconds.
+ */
+public class TaskEvents {
+
+	private TaskEvents() {
+		// static helpers only
+	}
+
+	/**
+	 * The number of pending tasks of the pool is only determined if the event is enabled, as some queues take a lock to
+	 * count their tasks.
+	 */
+	public static void submitted(String pool, Object task, MonitoredThreadPool threadPool) {
+		if (!FlightRecorder.isInitialized()) {
+			return;
+		}
+		TaskSubmittedEvent event = new TaskSubmittedEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.pool = pool;
+		event.taskClass = taskClass(task);
+		event.pendingTasks = threadPool.getPendingTasksInQueue();
+		event.commit();
+	}
+
+	public static void started(String pool, Object task) {
+		if (!FlightRecorder.isInitialized()) {
+			return;
+		}
+		TaskStartedEvent event = new TaskStartedEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.pool = pool;
+		event.taskClass = taskClass(task);
+		event.commit();
+	}
+
+	public static void finished(String pool, Object task, long queueWaitNanos, long executionNanos) {
+		if (!FlightRecorder.isInitialized()) {
+			return;
+		}
+		TaskFinishedEvent event = new TaskFinishedEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.pool = pool;
+		event.taskClass = taskClass(task);
+		event.queueWait = queueWaitNanos;
+		event.executionTime = executionNanos;
+		event.commit();
+	}
+
+	public static void rejected(String pool, Object task) {
+		if (!FlightRecorder.isInitialized()) {
+			return;
+		}
+		TaskRejectedEvent event = new TaskRejectedEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.pool = pool;
+		event.taskClass = taskClass(task);
+		event.commit();
+	}
+
+	public static void cancelled(String pool, Object task) {
+		if (!FlightRecorder.isInitialized()) {
+			return;
+		}
+		TaskCancelledEvent event = new TaskCancelledEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.pool = pool;
+		event.taskClass = taskClass(task);
+		event.commit();
+	}
+
+	/**
+	 * Returns the class of the task the user actually handed to the executor, i.e. the innermost task behind all wrappers
+	 * the executors add.
+	 */
+	public static Class<?> taskClass(Object task) {
+		Object innermost = TaskKeys.innermost(task);
+		return innermost != null ? innermost.getClass() : null;
+	}
+}
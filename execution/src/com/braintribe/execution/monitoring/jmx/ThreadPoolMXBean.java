@@ -0,0 +1,123 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.jmx;
+
+import java.util.List;
+import java.util.Map;
+
+import com.braintribe.execution.monitoring.LatencyPercentiles;
+import com.braintribe.execution.monitoring.LoadRates;
+import com.braintribe.execution.monitoring.ScheduleStatistics;
+import com.braintribe.execution.monitoring.TaskKeyStatistics;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateProfile;
+
+/**
+ * Management interface of a registered pool, see {@link ThreadPoolManagement}. The attributes are the ones of
+ * {@link ThreadPoolStatistics}; the pool sizes can be changed at runtime.
+ */
+public interface ThreadPoolMXBean {
+
+	String getThreadPoolId();
+
+	String getDescription();
+
+	boolean isScheduledThreadPool();
+
+	int getCurrentlyRunning();
+
+	long getTotalExecutions();
+
+	long getAverageRunningTimeInMs();
+
+	int getPendingTasksInQueue();
+
+	long getTimeSinceLastExecutionInMs();
+
+	int getPoolSize();
+
+	int getCorePoolSize();
+
+	/**
+	 * Changes the core size of the pool, raising the maximum size if necessary.
+	 */
+	void setCorePoolSize(int corePoolSize);
+
+	int getMaximumPoolSize();
+
+	/**
+	 * Changes the maximum size of the pool (the concurrency of a virtual thread executor), lowering the core size if
+	 * necessary.
+	 */
+	void setMaximumPoolSize(int maximumPoolSize);
+
+	/**
+	 * Changes both sizes of the pool at once.
+	 */
+	void resize(int corePoolSize, int maximumPoolSize);
+
+	Long getMaximumEnqueuedTimeInMs();
+
+	Long getMinimumEnqueuedTimeInMs();
+
+	Double getAverageEnqueuedTimeInMs();
+
+	LatencyPercentiles getEnqueuedTimePercentiles();
+
+	LatencyPercentiles getRunningTimePercentiles();
+
+	String getSampling();
+
+	double getSampledRatio();
+
+	LoadRates getSubmissionRates();
+
+	LoadRates getCompletionRates();
+
+	LoadRates getRejectionRates();
+
+	LoadRates getQueueDepths();
+
+	Long getTotalCpuTimeInMs();
+
+	Double getAverageCpuTimeInMs();
+
+	Long getTotalAllocatedBytes();
+
+	Double getAverageAllocatedBytes();
+
+	long getStuckTaskCount();
+
+	ThreadStateProfile getThreadStateProfile();
+
+	List<TaskKeyStatistics> getTaskKeyStatistics();
+
+	List<ScheduleStatistics> getScheduleStatistics();
+
+	/**
+	 * @return the {@link ThreadPoolStatistics#getRecentTaskEvents() recent task events} as text, oldest first
+	 */
+	List<String> getRecentTaskEvents();
+
+	Integer getConcurrencyLimit();
+
+	/**
+	 * @return the {@link ThreadPoolStatistics#getConcurrencyLimitHistory() concurrency limit history} as text, oldest first
+	 */
+	List<String> getConcurrencyLimitHistory();
+
+	Map<String, Integer> getInFlightTasksPerKey();
+}
@@ -0,0 +1,278 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.braintribe.execution.monitoring.ConcurrencyLimitSample;
+import com.braintribe.execution.monitoring.LatencyPercentiles;
+import com.braintribe.execution.monitoring.LoadRates;
+import com.braintribe.execution.monitoring.MonitoredThreadPool;
+import com.braintribe.execution.monitoring.ScheduleStatistics;
+import com.braintribe.execution.monitoring.TaskEvent;
+import com.braintribe.execution.monitoring.TaskKeyStatistics;
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateProfile;
+import com.braintribe.logging.Logger;
+
+/**
+ * {@link ThreadPoolMXBean} of a pool, which {@link ThreadPoolMonitoring} registers along with the pool under
+ * <code>com.braintribe.execution:type=ThreadPool,name=&lt;description&gt;,id=&lt;pool id&gt;</code>. Failing to
+ * (un)register a bean is logged, but never affects the pool itself.
+ */
+public class ThreadPoolManagement implements ThreadPoolMXBean {
+
+	private static Logger logger = Logger.getLogger(ThreadPoolManagement.class);
+
+	public static final String DOMAIN = "com.braintribe.execution";
+
+	private static final Map<String, ObjectName> registeredNames = new ConcurrentHashMap<>();
+
+	private final ThreadPoolStatistics statistics;
+	private final MonitoredThreadPool threadPool;
+
+	public ThreadPoolManagement(ThreadPoolStatistics statistics, MonitoredThreadPool threadPool) {
+		this.statistics = statistics;
+		this.threadPool = threadPool;
+	}
+
+	public static void register(ThreadPoolStatistics statistics, MonitoredThreadPool threadPool) {
+		String threadPoolId = statistics.getThreadPoolId();
+		try {
+			ObjectName name = objectName(statistics);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new ThreadPoolManagement(statistics, threadPool), name);
+			}
+			registeredNames.put(threadPoolId, name);
+		} catch (Exception e) {
+			logger.warn("Could not register the MBean of thread pool " + threadPoolId, e);
+		}
+	}
+
+	public static void unregister(String threadPoolId) {
+		ObjectName name = registeredNames.remove(threadPoolId);
+		if (name == null) {
+			return;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (Exception e) {
+			logger.warn("Could not unregister the MBean of thread pool " + threadPoolId, e);
+		}
+	}
+
+	public static ObjectName objectName(ThreadPoolStatistics statistics) throws Exception {
+		String description = statistics.getDescription() != null ? statistics.getDescription() : statistics.getThreadPoolId();
+		return new ObjectName(DOMAIN + ":type=ThreadPool,name=" + ObjectName.quote(description) + ",id=" + statistics.getThreadPoolId());
+	}
+
+	@Override
+	public String getThreadPoolId() {
+		return statistics.getThreadPoolId();
+	}
+
+	@Override
+	public String getDescription() {
+		return statistics.getDescription();
+	}
+
+	@Override
+	public boolean isScheduledThreadPool() {
+		return statistics.isScheduledThreadPool();
+	}
+
+	@Override
+	public int getCurrentlyRunning() {
+		return statistics.currentlyRunning();
+	}
+
+	@Override
+	public long getTotalExecutions() {
+		return statistics.totalExecutions();
+	}
+
+	@Override
+	public long getAverageRunningTimeInMs() {
+		return statistics.averageRunningTimeInMs();
+	}
+
+	@Override
+	public int getPendingTasksInQueue() {
+		return statistics.getPendingTasksInQueue();
+	}
+
+	@Override
+	public long getTimeSinceLastExecutionInMs() {
+		return statistics.timeSinceLastExecutionInMs();
+	}
+
+	@Override
+	public int getPoolSize() {
+		return statistics.getPoolSize();
+	}
+
+	@Override
+	public int getCorePoolSize() {
+		return statistics.getCorePoolSize();
+	}
+
+	@Override
+	public void setCorePoolSize(int corePoolSize) {
+		resize(corePoolSize, Math.max(corePoolSize, threadPool.getMaximumThreadPoolSize()));
+	}
+
+	@Override
+	public int getMaximumPoolSize() {
+		return statistics.getMaximumPoolSize();
+	}
+
+	@Override
+	public void setMaximumPoolSize(int maximumPoolSize) {
+		resize(Math.min(threadPool.getCoreThreadPoolSize(), maximumPoolSize), maximumPoolSize);
+	}
+
+	@Override
+	public void resize(int corePoolSize, int maximumPoolSize) {
+		threadPool.resize(corePoolSize, maximumPoolSize);
+	}
+
+	@Override
+	public Long getMaximumEnqueuedTimeInMs() {
+		return statistics.getMaximumEnqueuedTimeInMs();
+	}
+
+	@Override
+	public Long getMinimumEnqueuedTimeInMs() {
+		return statistics.getMinimumEnqueuedTimeInMs();
+	}
+
+	@Override
+	public Double getAverageEnqueuedTimeInMs() {
+		return statistics.getAverageEnqueuedTimeInMs();
+	}
+
+	@Override
+	public LatencyPercentiles getEnqueuedTimePercentiles() {
+		return statistics.getEnqueuedTimePercentiles();
+	}
+
+	@Override
+	public LatencyPercentiles getRunningTimePercentiles() {
+		return statistics.getRunningTimePercentiles();
+	}
+
+	@Override
+	public String getSampling() {
+		return statistics.getSampling();
+	}
+
+	@Override
+	public double getSampledRatio() {
+		return statistics.getSampledRatio();
+	}
+
+	@Override
+	public LoadRates getSubmissionRates() {
+		return statistics.getSubmissionRates();
+	}
+
+	@Override
+	public LoadRates getCompletionRates() {
+		return statistics.getCompletionRates();
+	}
+
+	@Override
+	public LoadRates getRejectionRates() {
+		return statistics.getRejectionRates();
+	}
+
+	@Override
+	public LoadRates getQueueDepths() {
+		return statistics.getQueueDepths();
+	}
+
+	@Override
+	public Long getTotalCpuTimeInMs() {
+		return statistics.getTotalCpuTimeInMs();
+	}
+
+	@Override
+	public Double getAverageCpuTimeInMs() {
+		return statistics.getAverageCpuTimeInMs();
+	}
+
+	@Override
+	public Long getTotalAllocatedBytes() {
+		return statistics.getTotalAllocatedBytes();
+	}
+
+	@Override
+	public Double getAverageAllocatedBytes() {
+		return statistics.getAverageAllocatedBytes();
+	}
+
+	@Override
+	public long getStuckTaskCount() {
+		return statistics.getStuckTaskCount();
+	}
+
+	@Override
+	public ThreadStateProfile getThreadStateProfile() {
+		return statistics.getThreadStateProfile();
+	}
+
+	@Override
+	public List<TaskKeyStatistics> getTaskKeyStatistics() {
+		return statistics.getTaskKeyStatistics();
+	}
+
+	@Override
+	public List<ScheduleStatistics> getScheduleStatistics() {
+		return statistics.getScheduleStatistics();
+	}
+
+	@Override
+	public List<String> getRecentTaskEvents() {
+		return statistics.getRecentTaskEvents().stream().map(TaskEvent::toString).collect(Collectors.toList());
+	}
+
+	@Override
+	public Integer getConcurrencyLimit() {
+		return statistics.getConcurrencyLimit();
+	}
+
+	@Override
+	public List<String> getConcurrencyLimitHistory() {
+		return statistics.getConcurrencyLimitHistory().stream().map(ConcurrencyLimitSample::toString).collect(Collectors.toList());
+	}
+
+	@Override
+	public Map<String, Integer> getInFlightTasksPerKey() {
+		return statistics.getInFlightTasksPerKey();
+	}
+}
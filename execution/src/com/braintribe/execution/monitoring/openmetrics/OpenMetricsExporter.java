@@ -0,0 +1,414 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.openmetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import com.braintribe.execution.monitoring.ForkJoinStatistics;
+import com.braintribe.execution.monitoring.LatencyHistogram;
+import com.braintribe.execution.monitoring.LatencyPercentiles;
+import com.braintribe.execution.monitoring.LoadRates;
+import com.braintribe.execution.monitoring.ScheduleStatistics;
+import com.braintribe.execution.monitoring.StandardThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateProfile;
+
+/**
+ * Writes the statistics of all pools known to {@link ThreadPoolMonitoring} in the OpenMetrics text format (which
+ * Prometheus scrapes as well). Every pool is a set of samples labeled with its description and id.
+ * <p>
+ * The statistics are streamed straight into the target; numbers are formatted into a reused buffer and histograms are
+ * read into a reused array, so a scrape produces next to no garbage. As these buffers are per instance, an exporter
+ * serializes concurrent writes.
+ */
+public class OpenMetricsExporter {
+
+	public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+	private static final String[] QUANTILES = { "0.5", "0.9", "0.99", "0.999" };
+	private static final double[] PERCENTILES = { 50d, 90d, 99d, 99.9d };
+	private static final long NANOS_PER_UNIT = 1_000_000_000L;
+
+	private static final Metric[] METRICS = { //
+			new Metric("threadpool_running_tasks", "gauge", "Tasks currently running", //
+					(e, s) -> e.sample(s, s.currentlyRunning())),
+			new Metric("threadpool_executions", "counter", "Task executions started", //
+					(e, s) -> e.sample(s, s.totalExecutions())),
+			new Metric("threadpool_pending_tasks", "gauge", "Tasks waiting in the queue", //
+					(e, s) -> e.sample(s, s.getPendingTasksInQueue())),
+			new Metric("threadpool_pool_size", "gauge", "Current number of threads", //
+					(e, s) -> e.sample(s, s.getPoolSize())),
+			new Metric("threadpool_core_pool_size", "gauge", "Core number of threads", //
+					(e, s) -> e.sample(s, s.getCorePoolSize())),
+			new Metric("threadpool_maximum_pool_size", "gauge", "Maximum number of threads", //
+					(e, s) -> e.sample(s, s.getMaximumPoolSize())),
+			new Metric("threadpool_concurrency_limit", "gauge", "Concurrency limit adapted to the tasks", //
+					(e, s) -> e.sample(s, s.getConcurrencyLimit())),
+			new Metric("threadpool_running_time_average_seconds", "gauge", "Average running time of the tasks", //
+					(e, s) -> e.sample(s, s.averageRunningTimeInMs() / 1000d)),
+			new Metric("threadpool_running_time_seconds", "summary", "Running time of the timed tasks", //
+					(e, s) -> e.quantiles(s, true)),
+			new Metric("threadpool_enqueued_time_average_seconds", "gauge", "Average time the tasks waited in the queue", //
+					(e, s) -> e.sampleMs(s, s.getAverageEnqueuedTimeInMs())),
+			new Metric("threadpool_enqueued_time_maximum_seconds", "gauge", "Maximum time a task waited in the queue", //
+					(e, s) -> e.sampleMs(s, s.getMaximumEnqueuedTimeInMs())),
+			new Metric("threadpool_enqueued_time_seconds", "summary", "Time the timed tasks waited in the queue", //
+					(e, s) -> e.quantiles(s, false)),
+			new Metric("threadpool_last_execution_age_seconds", "gauge", "Time since the latest task was started", //
+					(e, s) -> e.sampleMs(s, s.timeSinceLastExecutionInMs())),
+			new Metric("threadpool_stuck_tasks", "counter", "Tasks reported as stuck", //
+					(e, s) -> e.sample(s, s.getStuckTaskCount())),
+			new Metric("threadpool_cpu_seconds", "counter", "CPU time consumed by the measured tasks", //
+					(e, s) -> e.sampleMs(s, s.getTotalCpuTimeInMs())),
+			new Metric("threadpool_allocated_bytes", "counter", "Heap bytes allocated by the measured tasks", //
+					(e, s) -> e.sample(s, s.getTotalAllocatedBytes())),
+			new Metric("threadpool_thread_state_samples", "counter", "Sampled states of the worker threads", //
+					(e, s) -> e.threadStates(s)),
+			new Metric("threadpool_submission_rate", "gauge", "Tasks accepted per second", //
+					(e, s) -> e.rates(s, s.getSubmissionRates())),
+			new Metric("threadpool_completion_rate", "gauge", "Tasks finished per second", //
+					(e, s) -> e.rates(s, s.getCompletionRates())),
+			new Metric("threadpool_rejection_rate", "gauge", "Tasks rejected per second", //
+					(e, s) -> e.rates(s, s.getRejectionRates())),
+			new Metric("threadpool_queue_depth", "gauge", "Tasks waiting in the queue, averaged", //
+					(e, s) -> e.rates(s, s.getQueueDepths())),
+			new Metric("threadpool_fork_join_steals", "counter", "Tasks stolen by fork-join workers", //
+					(e, s) -> e.forkJoin(s, f -> f.getStealCount())),
+			new Metric("threadpool_fork_join_queued_submissions", "gauge", "Tasks submitted from outside a fork-join pool not yet started", //
+					(e, s) -> e.forkJoin(s, f -> f.getQueuedSubmissionCount())),
+			new Metric("threadpool_fork_join_active_threads", "gauge", "Fork-join workers stealing or running tasks", //
+					(e, s) -> e.forkJoin(s, f -> f.getActiveThreadCount())), //
+			new Metric("threadpool_schedule_missed_periods", "counter", "Periods the runs of a schedule started behind their planned time", //
+					(e, s) -> e.schedules(s, false)), //
+			new Metric("threadpool_schedule_lateness_maximum_seconds", "gauge", "Maximum delay of a run of a schedule behind its planned time", //
+					(e, s) -> e.schedules(s, true)), //
+	};
+
+	private final char[] digits = new char[20];
+	private final long[] counts = new long[LatencyHistogram.bucketCount()];
+	private final Consumer<ThreadPoolStatistics> poolWriter = this::writePool;
+
+	private Writer writer;
+	private Metric metric;
+
+	public void write(OutputStream out) throws IOException {
+		Writer bufferedWriter = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		write(bufferedWriter);
+		bufferedWriter.flush();
+	}
+
+	public synchronized void write(Writer writer) throws IOException {
+		this.writer = writer;
+		try {
+			for (Metric m : METRICS) {
+				metric = m;
+				writer.write("# TYPE ");
+				writer.write(m.name);
+				writer.write(' ');
+				writer.write(m.type);
+				writer.write("\n# HELP ");
+				writer.write(m.name);
+				writer.write(' ');
+				writer.write(m.help);
+				writer.write('\n');
+
+				ThreadPoolMonitoring.forEach(poolWriter);
+			}
+			writer.write("# EOF\n");
+
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			this.writer = null;
+			this.metric = null;
+		}
+	}
+
+	private void writePool(ThreadPoolStatistics statistics) {
+		try {
+			metric.samples.write(this, statistics);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the given value unless it is negative, which the statistics use for "not available", e.g. the execution count
+	 * of the common pool. None of the metrics can actually be negative, and a negative counter would be invalid.
+	 */
+	private void sample(ThreadPoolStatistics statistics, long value) throws IOException {
+		labeledSample(statistics, null, null, value);
+	}
+
+	private void sample(ThreadPoolStatistics statistics, Long value) throws IOException {
+		if (value != null) {
+			sample(statistics, value.longValue());
+		}
+	}
+
+	private void sample(ThreadPoolStatistics statistics, Integer value) throws IOException {
+		if (value != null) {
+			sample(statistics, value.longValue());
+		}
+	}
+
+	private void sample(ThreadPoolStatistics statistics, double value) throws IOException {
+		sample(statistics, null, null, value);
+	}
+
+	private void sample(ThreadPoolStatistics statistics, String label, String labelValue, double value) throws IOException {
+		if (!(value >= 0d)) {
+			// not available, see sample(ThreadPoolStatistics, long)
+			return;
+		}
+		startSample(statistics, label, labelValue);
+		writeDouble(value);
+		writer.write('\n');
+	}
+
+	/**
+	 * Writes the given milliseconds as seconds, unless they are <code>null</code> or negative, which the statistics use for
+	 * "not available".
+	 */
+	private void sampleMs(ThreadPoolStatistics statistics, Number ms) throws IOException {
+		if (ms != null && ms.doubleValue() >= 0) {
+			sample(statistics, ms.doubleValue() / 1000d);
+		}
+	}
+
+	private void sampleMs(ThreadPoolStatistics statistics, long ms) throws IOException {
+		if (ms >= 0) {
+			sample(statistics, ms / 1000d);
+		}
+	}
+
+	/**
+	 * Writes a summary: the quantiles and, for pools which provide them, the count and sum of the timed executions.
+	 */
+	private void quantiles(ThreadPoolStatistics statistics, boolean runningTime) throws IOException {
+		if (statistics instanceof StandardThreadPoolStatistics) {
+			StandardThreadPoolStatistics standard = (StandardThreadPoolStatistics) statistics;
+			LatencyHistogram histogram = runningTime ? standard.getRunningTimeHistogram() : standard.getEnqueuedTimeHistogram();
+			histogram.snapshotCounts(counts);
+			long sumNanos = runningTime ? standard.getTotalRunningNanos() : standard.getTotalEnqueuedNanos();
+			long count = 0;
+			for (long bucketCount : counts) {
+				count += bucketCount;
+			}
+			if (count > 0) {
+				for (int i = 0; i < QUANTILES.length; i++) {
+					long nanos = LatencyHistogram.valueAtPercentile(counts, PERCENTILES[i]);
+					sample(statistics, "quantile", QUANTILES[i], (double) nanos / NANOS_PER_UNIT);
+				}
+			}
+			startSample(statistics, "_count", null, null);
+			writeLong(count);
+			writer.write('\n');
+			startSample(statistics, "_sum", null, null);
+			writeDouble((double) sumNanos / NANOS_PER_UNIT);
+			writer.write('\n');
+			return;
+		}
+
+		LatencyPercentiles percentiles = runningTime ? statistics.getRunningTimePercentiles() : statistics.getEnqueuedTimePercentiles();
+		if (percentiles != null) {
+			sample(statistics, "quantile", QUANTILES[0], percentiles.getP50InMs() / 1000d);
+			sample(statistics, "quantile", QUANTILES[1], percentiles.getP90InMs() / 1000d);
+			sample(statistics, "quantile", QUANTILES[2], percentiles.getP99InMs() / 1000d);
+			sample(statistics, "quantile", QUANTILES[3], percentiles.getP999InMs() / 1000d);
+		}
+	}
+
+	private void rates(ThreadPoolStatistics statistics, LoadRates rates) throws IOException {
+		if (rates != null) {
+			sample(statistics, "window", "current", rates.getCurrent());
+			sample(statistics, "window", "1m", rates.getOneMinute());
+			sample(statistics, "window", "5m", rates.getFiveMinutes());
+			sample(statistics, "window", "15m", rates.getFifteenMinutes());
+		}
+	}
+
+	private void threadStates(ThreadPoolStatistics statistics) throws IOException {
+		ThreadStateProfile profile = statistics.getThreadStateProfile();
+		if (profile != null) {
+			labeledSample(statistics, "state", "idle", profile.getIdleCount());
+			labeledSample(statistics, "state", "runnable", profile.getRunnableCount());
+			labeledSample(statistics, "state", "blocked", profile.getBlockedCount());
+			labeledSample(statistics, "state", "waiting", profile.getWaitingCount());
+		}
+	}
+
+	private void labeledSample(ThreadPoolStatistics statistics, String label, String labelValue, long value) throws IOException {
+		if (value < 0) {
+			return;
+		}
+		startSample(statistics, label, labelValue);
+		writeLong(value);
+		writer.write('\n');
+	}
+
+	private void forkJoin(ThreadPoolStatistics statistics, ToLongFunction<ForkJoinStatistics> value) throws IOException {
+		if (statistics instanceof ForkJoinStatistics) {
+			sample(statistics, value.applyAsLong((ForkJoinStatistics) statistics));
+		}
+	}
+
+	private void schedules(ThreadPoolStatistics statistics, boolean lateness) throws IOException {
+		if (statistics.isScheduledThreadPool()) {
+			for (ScheduleStatistics schedule : statistics.getScheduleStatistics()) {
+				if (lateness) {
+					sample(statistics, "schedule", schedule.getScheduleKey(), schedule.getMaximumLatenessInMs() / 1000d);
+				} else {
+					labeledSample(statistics, "schedule", schedule.getScheduleKey(), schedule.getMissedPeriods());
+				}
+			}
+		}
+	}
+
+	private void startSample(ThreadPoolStatistics statistics, String label, String labelValue) throws IOException {
+		startSample(statistics, metric.counter ? "_total" : null, label, labelValue);
+	}
+
+	private void startSample(ThreadPoolStatistics statistics, String suffix, String label, String labelValue) throws IOException {
+		writer.write(metric.name);
+		if (suffix != null) {
+			writer.write(suffix);
+		}
+		writer.write("{pool=\"");
+		writeEscaped(statistics.getDescription());
+		writer.write("\",id=\"");
+		writeEscaped(statistics.getThreadPoolId());
+		writer.write('"');
+		if (label != null) {
+			writer.write(',');
+			writer.write(label);
+			writer.write("=\"");
+			writeEscaped(labelValue);
+			writer.write('"');
+		}
+		writer.write("} ");
+	}
+
+	private void writeEscaped(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '"':
+					writer.write("\\\"");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				default:
+					writer.write(c);
+			}
+		}
+	}
+
+	private void writeLong(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			writer.write(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			writer.write('-');
+			value = -value;
+		}
+		int position = digits.length;
+		do {
+			digits[--position] = (char) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		writer.write(digits, position, digits.length - position);
+	}
+
+	/**
+	 * Writes the value with up to 9 fractional digits, which is exact for seconds derived from nanoseconds.
+	 */
+	private void writeDouble(double value) throws IOException {
+		if (Double.isNaN(value)) {
+			writer.write("NaN");
+			return;
+		}
+		if (Double.isInfinite(value)) {
+			writer.write(value > 0 ? "+Inf" : "-Inf");
+			return;
+		}
+		double abs = Math.abs(value);
+		if (abs >= 1e9) {
+			writer.write(Double.toString(value));
+			return;
+		}
+
+		long scaled = Math.round(abs * NANOS_PER_UNIT);
+		if (value < 0 && scaled != 0) {
+			writer.write('-');
+		}
+		writeLong(scaled / NANOS_PER_UNIT);
+
+		long fraction = scaled % NANOS_PER_UNIT;
+		if (fraction == 0) {
+			return;
+		}
+		int position = 9;
+		while (fraction % 10 == 0) {
+			fraction /= 10;
+			position--;
+		}
+		for (int i = position - 1; i >= 0; i--) {
+			digits[i] = (char) ('0' + fraction % 10);
+			fraction /= 10;
+		}
+		writer.write('.');
+		writer.write(digits, 0, position);
+	}
+
+	@FunctionalInterface
+	private interface Samples {
+		void write(OpenMetricsExporter exporter, ThreadPoolStatistics statistics) throws IOException;
+	}
+
+	private static class Metric {
+		final String name;
+		final String type;
+		final String help;
+		final boolean counter;
+		final Samples samples;
+
+		Metric(String name, String type, String help, Samples samples) {
+			this.name = name;
+			this.type = type;
+			this.help = help;
+			this.counter = "counter".equals(type);
+			this.samples = samples;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.monitoring.openmetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import com.braintribe.logging.Logger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal HTTP endpoint on the JDK's built-in server, serving the {@link OpenMetricsExporter} output on GET requests to
+ * a single path, e.g. for a Prometheus scraper. Requests are served one after another on the dispatcher thread of the
+ * server.
+ */
+public class OpenMetricsHttpServer {
+
+	private static Logger logger = Logger.getLogger(OpenMetricsHttpServer.class);
+
+	public static final String DEFAULT_PATH = "/metrics";
+
+	private final HttpServer server;
+	private final OpenMetricsExporter exporter = new OpenMetricsExporter();
+
+	private OpenMetricsHttpServer(InetSocketAddress address, String path) throws IOException {
+		server = HttpServer.create(address, 0);
+		server.createContext(path, this::handle);
+	}
+
+	public static OpenMetricsHttpServer start(int port) throws IOException {
+		return start(new InetSocketAddress(port), DEFAULT_PATH);
+	}
+
+	public static OpenMetricsHttpServer start(InetSocketAddress address, String path) throws IOException {
+		OpenMetricsHttpServer result = new OpenMetricsHttpServer(address, path);
+		result.server.start();
+		logger.debug(() -> "Serving thread pool metrics on " + result.getAddress() + path);
+		return result;
+	}
+
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	public void stop() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Type", OpenMetricsExporter.CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				exporter.write(out);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+}
@@ -15,7 +15,9 @@
 // ============================================================================
 package com.braintribe.execution.priority;
 
-public class ComparableDelegationRunnable implements Runnable, Comparable<ComparableDelegationRunnable> {
+import com.braintribe.execution.DelegatingRunnable;
+
+public class ComparableDelegationRunnable implements DelegatingRunnable, Comparable<ComparableDelegationRunnable> {
 	private Runnable delegateRunnable;
 	private Comparable<Object> comparableDelegate;
 	
@@ -34,4 +36,9 @@ public class ComparableDelegationRunnable implements Runnable, Comparable<Compar
 	public void run() {
 		delegateRunnable.run();
 	}
+
+	@Override
+	public Runnable getDelegate() {
+		return delegateRunnable;
+	}
 }
\ No newline at end of file
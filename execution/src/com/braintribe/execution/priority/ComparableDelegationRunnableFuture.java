@@ -20,7 +20,9 @@ import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-public class ComparableDelegationRunnableFuture<T> implements RunnableFuture<T>, Comparable<ComparableDelegationRunnableFuture<T>> {
+import com.braintribe.execution.DelegatingRunnable;
+
+public class ComparableDelegationRunnableFuture<T> implements RunnableFuture<T>, DelegatingRunnable, Comparable<ComparableDelegationRunnableFuture<T>> {
 
     private RunnableFuture<T> delegate;
     private Comparable<Object> comparableDelegate;
@@ -60,6 +62,11 @@ public class ComparableDelegationRunnableFuture<T> implements RunnableFuture<T>,
         delegate.run();
     }
 
+	@Override
+	public RunnableFuture<T> getDelegate() {
+		return delegate;
+	}
+
 	@Override
 	public int compareTo(ComparableDelegationRunnableFuture<T> o) {
 		return comparableDelegate.compareTo(o.comparableDelegate);
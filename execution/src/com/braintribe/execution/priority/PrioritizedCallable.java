@@ -17,7 +17,9 @@ package com.braintribe.execution.priority;
 
 import java.util.concurrent.Callable;
 
-public class PrioritizedCallable <T> extends Prioritized implements Callable<T>, Comparable<PrioritizedCallable<T>> {
+import com.braintribe.execution.DelegatingCallable;
+
+public class PrioritizedCallable <T> extends Prioritized implements DelegatingCallable<T>, Comparable<PrioritizedCallable<T>> {
 
 	private Callable<T> delegate;
 	
@@ -40,5 +42,9 @@ public class PrioritizedCallable <T> extends Prioritized implements Callable<T>,
 	public String toString() {
 		return "Callable with priority: "+priority;
 	}
-	
+
+	@Override
+	public Callable<T> getDelegate() {
+		return delegate;
+	}
 }
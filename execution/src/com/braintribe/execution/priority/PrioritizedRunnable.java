@@ -15,7 +15,9 @@
 // ============================================================================
 package com.braintribe.execution.priority;
 
-public class PrioritizedRunnable extends Prioritized implements Runnable, Comparable<PrioritizedRunnable> {
+import com.braintribe.execution.DelegatingRunnable;
+
+public class PrioritizedRunnable extends Prioritized implements DelegatingRunnable, Comparable<PrioritizedRunnable> {
 
 	private Runnable delegate;
 	
@@ -38,4 +40,9 @@ public class PrioritizedRunnable extends Prioritized implements Runnable, Compar
 	public String toString() {
 		return "Runnable with priority: "+priority;
 	}
+
+	@Override
+	public Runnable getDelegate() {
+		return delegate;
+	}
 }
@@ -20,7 +20,9 @@ import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-public class PriorityFuture<T> implements RunnableFuture<T>, Comparable<RunnableFuture<T>>, HasPriority {
+import com.braintribe.execution.DelegatingRunnable;
+
+public class PriorityFuture<T> implements RunnableFuture<T>, DelegatingRunnable, Comparable<RunnableFuture<T>>, HasPriority {
 
     private RunnableFuture<T> delegate;
     private int insertionIndex;
@@ -72,6 +74,11 @@ public class PriorityFuture<T> implements RunnableFuture<T>, Comparable<Runnable
         delegate.run();
     }
 
+	@Override
+	public RunnableFuture<T> getDelegate() {
+		return delegate;
+	}
+
 	@Override
 	public int compareTo(RunnableFuture<T> or) {
 		PriorityFuture<T> o = (PriorityFuture<T>) or;
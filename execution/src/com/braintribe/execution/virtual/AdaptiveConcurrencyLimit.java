@@ -0,0 +1,101 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import com.braintribe.cfg.Configurable;
+
+/**
+ * Adapts the concurrency of a {@link VirtualThreadExecutor} to the running time and failures of its tasks, see
+ * {@link VirtualThreadExecutor#setAdaptiveConcurrencyLimit(AdaptiveConcurrencyLimit)}. An instance keeps the state of one
+ * executor and must not be shared.
+ */
+public abstract class AdaptiveConcurrencyLimit {
+
+	private int minLimit = 1;
+	private int maxLimit = 1000;
+
+	protected AdaptiveConcurrencyLimit() {
+	}
+
+	protected AdaptiveConcurrencyLimit(int minLimit, int maxLimit) {
+		this.minLimit = checkMinLimit(minLimit);
+		this.maxLimit = checkMaxLimit(maxLimit);
+	}
+
+	/**
+	 * Sets the lowest limit, which is kept even if all tasks fail.
+	 */
+	@Configurable
+	public void setMinLimit(int minLimit) {
+		this.minLimit = checkMinLimit(minLimit);
+	}
+	@Configurable
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = checkMaxLimit(maxLimit);
+	}
+
+	private static int checkMinLimit(int minLimit) {
+		if (minLimit < 1) {
+			throw new IllegalArgumentException("The minimum limit must be positive but is " + minLimit);
+		}
+		return minLimit;
+	}
+
+	private static int checkMaxLimit(int maxLimit) {
+		if (maxLimit < 1) {
+			throw new IllegalArgumentException("The maximum limit must be positive but is " + maxLimit);
+		}
+		return maxLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * @return the current limit
+	 */
+	public abstract int getLimit();
+
+	/**
+	 * Restarts the adaption from the given limit, e.g. the configured concurrency of the executor.
+	 */
+	public abstract void setLimit(int limit);
+
+	/**
+	 * Accounts a finished task.
+	 * 
+	 * @param runningNanos
+	 *            how long the task ran
+	 * @param inFlight
+	 *            the number of tasks which were running when it was started, including itself
+	 * @param failed
+	 *            whether the task failed with an exception
+	 * @return the new limit
+	 */
+	public abstract int onSample(long runningNanos, int inFlight, boolean failed);
+
+	/**
+	 * @return the given limit, raised to the minimum or lowered to the maximum if necessary
+	 */
+	protected double bound(double limit) {
+		return Math.max(Math.min(minLimit, maxLimit), Math.min(maxLimit, limit));
+	}
+}
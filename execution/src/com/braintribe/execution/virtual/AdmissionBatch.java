@@ -0,0 +1,47 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The tasks of an <code>invokeAll</code>, which are admitted as one batch: the {@link VirtualThreadExecutor} starts no
+ * more drainers for it than its concurrency, and each drainer runs the next task of the batch whenever it gets a permit.
+ */
+public class AdmissionBatch implements Runnable {
+
+	private final List<? extends Runnable> tasks;
+	private final VirtualThreadExecutor executor;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public AdmissionBatch(List<? extends Runnable> tasks, VirtualThreadExecutor executor) {
+		this.tasks = tasks;
+		this.executor = executor;
+	}
+
+	@Override
+	public void run() {
+		int size = tasks.size();
+		for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement()) {
+			if (!executor.isShutdown()) {
+				// cancelling a previous task may have left the interrupt, which must not hit the next one
+				Thread.interrupted();
+			}
+			executor.runAdmitted(tasks.get(i));
+		}
+	}
+}
@@ -0,0 +1,59 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import com.braintribe.execution.DelegatingRunnable;
+
+/**
+ * Runs its delegate once the {@link VirtualThreadExecutor} admits it under its concurrency limit. This is the outermost
+ * wrapper of every task handed to a virtual thread, regardless of monitoring. With an admission queue the thread is only
+ * started once a permit has been acquired for the delegate, and goes on with further queued tasks as long as it gets
+ * permits for them.
+ */
+public class AdmissionRunnable implements DelegatingRunnable {
+
+	private final Runnable delegate;
+	private final VirtualThreadExecutor executor;
+	private final boolean admitted;
+
+	public AdmissionRunnable(Runnable delegate, VirtualThreadExecutor executor) {
+		this(delegate, executor, false);
+	}
+
+	/**
+	 * @param admitted
+	 *            whether a permit has already been acquired for the delegate
+	 */
+	public AdmissionRunnable(Runnable delegate, VirtualThreadExecutor executor, boolean admitted) {
+		this.delegate = delegate;
+		this.executor = executor;
+		this.admitted = admitted;
+	}
+
+	@Override
+	public void run() {
+		if (admitted) {
+			executor.runQueued(delegate);
+		} else {
+			executor.runAdmitted(delegate);
+		}
+	}
+
+	@Override
+	public Runnable getDelegate() {
+		return delegate;
+	}
+}
@@ -0,0 +1,90 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.braintribe.cfg.Configurable;
+
+/**
+ * Additive increase, multiplicative decrease: the limit grows by one for every task which finished in time while the
+ * limit was at least half used, and is multiplied with the backoff ratio for every task which failed or ran longer than
+ * the latency threshold.
+ */
+public class AimdConcurrencyLimit extends AdaptiveConcurrencyLimit {
+
+	private double backoffRatio = 0.9d;
+	private long latencyThresholdNanos = Long.MAX_VALUE;
+
+	private final AtomicInteger limit = new AtomicInteger(1);
+
+	public AimdConcurrencyLimit() {
+	}
+
+	public AimdConcurrencyLimit(int minLimit, int maxLimit) {
+		super(minLimit, maxLimit);
+	}
+
+	/**
+	 * Sets the factor by which the limit shrinks, 0.9 by default.
+	 */
+	@Configurable
+	public void setBackoffRatio(double backoffRatio) {
+		if (backoffRatio <= 0d || backoffRatio >= 1d) {
+			throw new IllegalArgumentException("The backoff ratio must be between 0 and 1 but is " + backoffRatio);
+		}
+		this.backoffRatio = backoffRatio;
+	}
+	/**
+	 * Lets tasks running longer than the given threshold shrink the limit like failed ones; by default only failures do.
+	 */
+	@Configurable
+	public void setLatencyThreshold(Duration latencyThreshold) {
+		this.latencyThresholdNanos = latencyThreshold != null ? latencyThreshold.toNanos() : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int getLimit() {
+		return limit.get();
+	}
+
+	@Override
+	public void setLimit(int limit) {
+		this.limit.set((int) bound(limit));
+	}
+
+	/**
+	 * Called for every finished task, hence lock-free; a sample which does not change the limit, e.g. once it reached the
+	 * maximum, does not write at all.
+	 */
+	@Override
+	public int onSample(long runningNanos, int inFlight, boolean failed) {
+		boolean backoff = failed || runningNanos > latencyThresholdNanos;
+		while (true) {
+			int current = limit.get();
+			int next = current;
+			if (backoff) {
+				next = (int) bound(current * backoffRatio);
+			} else if (inFlight * 2 >= current) {
+				next = (int) bound(current + 1);
+			}
+			if (next == current || limit.compareAndSet(current, next)) {
+				return next;
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.braintribe.cfg.Configurable;
+
+/**
+ * Derives the limit from the gradient between the long term average running time of the tasks and the running time of
+ * the latest one: while tasks take no longer than usual (within the tolerance), the limit grows by about its square root,
+ * which allows for some queueing; when they slow down, e.g. because a backend saturates, it shrinks in proportion, by
+ * half at most. Every change is smoothed, and a failed task shrinks the limit by the backoff ratio.
+ * <p>
+ * The long term average slowly forgets a running time which has been far higher than the recent ones, so the limit
+ * recovers after a slow phase.
+ * <p>
+ * Both the limit and the average are doubles kept as bits in atomics, so that concurrently finishing tasks update them
+ * lock-free. The two are not updated atomically with each other, which only blurs a heuristic anyway.
+ */
+public class GradientConcurrencyLimit extends AdaptiveConcurrencyLimit {
+
+	private double tolerance = 1.5d;
+	private double smoothing = 0.2d;
+	private int longWindow = 600;
+	private double backoffRatio = 0.9d;
+
+	private final AtomicLong estimatedLimit = new AtomicLong(Double.doubleToRawLongBits(1d));
+	private final AtomicLong longRunningNanos = new AtomicLong(Double.doubleToRawLongBits(-1d));
+
+	public GradientConcurrencyLimit() {
+	}
+
+	public GradientConcurrencyLimit(int minLimit, int maxLimit) {
+		super(minLimit, maxLimit);
+	}
+
+	/**
+	 * Sets how much longer than usual a task may run without shrinking the limit, 1.5 (times the average) by default.
+	 */
+	@Configurable
+	public void setTolerance(double tolerance) {
+		if (tolerance < 1d) {
+			throw new IllegalArgumentException("The tolerance must be at least 1 but is " + tolerance);
+		}
+		this.tolerance = tolerance;
+	}
+	/**
+	 * Sets the weight of a new limit against the current one, 0.2 by default.
+	 */
+	@Configurable
+	public void setSmoothing(double smoothing) {
+		if (smoothing <= 0d || smoothing > 1d) {
+			throw new IllegalArgumentException("The smoothing must be between 0 and 1 but is " + smoothing);
+		}
+		this.smoothing = smoothing;
+	}
+	/**
+	 * Sets the number of tasks the long term average running time roughly spans, 600 by default.
+	 */
+	@Configurable
+	public void setLongWindow(int longWindow) {
+		if (longWindow < 1) {
+			throw new IllegalArgumentException("The long window must be positive but is " + longWindow);
+		}
+		this.longWindow = longWindow;
+	}
+	@Configurable
+	public void setBackoffRatio(double backoffRatio) {
+		if (backoffRatio <= 0d || backoffRatio >= 1d) {
+			throw new IllegalArgumentException("The backoff ratio must be between 0 and 1 but is " + backoffRatio);
+		}
+		this.backoffRatio = backoffRatio;
+	}
+
+	@Override
+	public int getLimit() {
+		return (int) Double.longBitsToDouble(estimatedLimit.get());
+	}
+
+	@Override
+	public void setLimit(int limit) {
+		estimatedLimit.set(Double.doubleToRawLongBits(bound(limit)));
+	}
+
+	/**
+	 * Called for every finished task, hence lock-free; a sample which does not change the limit does not write it.
+	 */
+	@Override
+	public int onSample(long runningNanos, int inFlight, boolean failed) {
+		double shortRunningNanos = Math.max(runningNanos, 1L);
+		// a failure says nothing about the usual running time
+		double longRunning = failed ? 0d : averageRunningNanos(shortRunningNanos);
+
+		while (true) {
+			long currentBits = estimatedLimit.get();
+			double current = Double.longBitsToDouble(currentBits);
+			double next;
+			if (failed) {
+				next = bound(current * backoffRatio);
+			} else if (inFlight * 2 < current) {
+				// the limit is not what holds the tasks back, so there is nothing to learn about it
+				next = current;
+			} else {
+				double gradient = Math.max(0.5d, Math.min(1d, tolerance * longRunning / shortRunningNanos));
+				double newLimit = current * gradient + Math.sqrt(current);
+				next = bound(current * (1d - smoothing) + newLimit * smoothing);
+			}
+			if (next == current || estimatedLimit.compareAndSet(currentBits, Double.doubleToRawLongBits(next))) {
+				return (int) next;
+			}
+		}
+	}
+
+	/**
+	 * Feeds the running time of a task into the long term average.
+	 * 
+	 * @return the new average
+	 */
+	private double averageRunningNanos(double shortRunningNanos) {
+		while (true) {
+			long currentBits = longRunningNanos.get();
+			double current = Double.longBitsToDouble(currentBits);
+			double next = current < 0d ? shortRunningNanos : current + (shortRunningNanos - current) * 2d / (longWindow + 1);
+			if (next / shortRunningNanos > 2d) {
+				// the tasks got much faster, so forget the slow phase
+				next *= 0.95d;
+			}
+			if (longRunningNanos.compareAndSet(currentBits, Double.doubleToRawLongBits(next))) {
+				return next;
+			}
+		}
+	}
+}
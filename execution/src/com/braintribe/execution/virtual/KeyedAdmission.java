@@ -0,0 +1,187 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the number of running tasks per concurrency key of a {@link VirtualThreadExecutor}. Tasks beyond the limit of
+ * their key wait here, without a thread or a permit of the executor, until a task of the same key is done.
+ * <p>
+ * The state of a key only exists while the key has running or waiting tasks, so any number of distinct keys can pass
+ * through over time.
+ */
+public class KeyedAdmission {
+
+	private final ConcurrentHashMap<String, KeyState> keys = new ConcurrentHashMap<>();
+	private volatile int keyConcurrency = Integer.MAX_VALUE;
+
+	// only changed within a compute of its key
+	private static class KeyState {
+		int running;
+		ArrayDeque<KeyedFutureTask<?>> waiting;
+		volatile int inFlight;
+
+		void updateInFlight() {
+			inFlight = running + (waiting != null ? waiting.size() : 0);
+		}
+	}
+
+	/**
+	 * Outcome of {@link KeyedAdmission#release(KeyedFutureTask)}.
+	 */
+	static class Release {
+		// the tasks which have been admitted, in the order they were submitted
+		final List<KeyedFutureTask<?>> admitted = new ArrayList<>(1);
+		// the number of waiting tasks which are gone because they are done, i.e. no longer pending
+		int withdrawn;
+	}
+
+	public void setKeyConcurrency(int keyConcurrency) {
+		this.keyConcurrency = keyConcurrency;
+	}
+
+	public int getKeyConcurrency() {
+		return keyConcurrency;
+	}
+
+	/**
+	 * @return whether the task got a permit of its key, otherwise it waits until it is handed one by
+	 *         {@link #release(KeyedFutureTask)}
+	 */
+	boolean admit(KeyedFutureTask<?> task) {
+		boolean[] admitted = new boolean[1];
+		keys.compute(task.getKey(), (key, state) -> {
+			if (state == null) {
+				state = new KeyState();
+			}
+			if (state.running < keyConcurrency) {
+				state.running++;
+				task.admitted = true;
+				admitted[0] = true;
+			} else {
+				if (state.waiting == null) {
+					state.waiting = new ArrayDeque<>();
+				}
+				state.waiting.add(task);
+			}
+			state.updateInFlight();
+			return state;
+		});
+		return admitted[0];
+	}
+
+	/**
+	 * Accounts a task which is done: a waiting one is just removed, an admitted one frees its permit, which then goes to
+	 * the waiting tasks of its key as far as the current key concurrency admits them. So a lowered limit takes effect as
+	 * tasks finish, and a raised one admits several waiting tasks at once. The state of a key without any tasks is
+	 * dropped.
+	 * <p>
+	 * Whether the task is still waiting is decided under the lock of its key, so a task which is admitted concurrently is
+	 * released properly, and one which has been {@link #drainWaiting() drained} is not withdrawn again.
+	 */
+	Release release(KeyedFutureTask<?> task) {
+		Release release = new Release();
+		keys.computeIfPresent(task.getKey(), (key, state) -> {
+			if (!task.admitted) {
+				if (state.waiting != null && state.waiting.remove(task)) {
+					release.withdrawn++;
+				}
+				state.updateInFlight();
+				return state;
+			}
+
+			state.running--;
+			while (state.running < keyConcurrency) {
+				KeyedFutureTask<?> successor = pollWaiting(state, release);
+				if (successor == null) {
+					break;
+				}
+				successor.admitted = true;
+				state.running++;
+				release.admitted.add(successor);
+			}
+			if (state.running == 0) {
+				return null;
+			}
+			state.updateInFlight();
+			return state;
+		});
+		return release;
+	}
+
+	private static KeyedFutureTask<?> pollWaiting(KeyState state, Release release) {
+		if (state.waiting == null) {
+			return null;
+		}
+		for (KeyedFutureTask<?> task = state.waiting.poll(); task != null; task = state.waiting.poll()) {
+			if (!task.isDone()) {
+				return task;
+			}
+			// cancelled while waiting, its own release will not find it anymore
+			release.withdrawn++;
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all waiting tasks, e.g. when the executor is shut down immediately. Running tasks still release their
+	 * permits.
+	 */
+	List<KeyedFutureTask<?>> drainWaiting() {
+		List<KeyedFutureTask<?>> result = new ArrayList<>();
+		for (String key : keys.keySet()) {
+			keys.computeIfPresent(key, (k, state) -> {
+				if (state.waiting != null) {
+					result.addAll(state.waiting);
+					state.waiting = null;
+				}
+				state.updateInFlight();
+				return state;
+			});
+		}
+		return result;
+	}
+
+	/**
+	 * @return whether no key has running or waiting tasks
+	 */
+	boolean isIdle() {
+		return keys.isEmpty();
+	}
+
+	/**
+	 * @return the number of running and waiting tasks of the given key
+	 */
+	public int getInFlightTasks(String key) {
+		KeyState state = keys.get(key);
+		return state != null ? state.inFlight : 0;
+	}
+
+	/**
+	 * @return the number of running and waiting tasks per key, for the keys which currently have any
+	 */
+	public Map<String, Integer> getInFlightTasksPerKey() {
+		Map<String, Integer> result = new HashMap<>();
+		keys.forEach((key, state) -> result.put(key, state.inFlight));
+		return result;
+	}
+}
@@ -0,0 +1,56 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.util.concurrent.Callable;
+
+import com.braintribe.execution.monitoring.MonitoredFutureTask;
+
+/**
+ * Future of a task submitted with a concurrency key, see {@link VirtualThreadExecutor#submit(String, Callable)}. Once it
+ * is done, in whichever way, it hands the permit of its key on to the next waiting task of the key.
+ */
+public class KeyedFutureTask<T> extends MonitoredFutureTask<T> {
+
+	private final String key;
+	private final VirtualThreadExecutor executor;
+
+	// whether the task holds a permit of its key, see KeyedAdmission
+	volatile boolean admitted;
+	// set when the executor rejected the task, whose permit is then handed on by the rejecting code
+	volatile boolean rejected;
+
+	public KeyedFutureTask(String key, Callable<T> callable, VirtualThreadExecutor executor) {
+		super(callable, executor);
+		this.key = key;
+		this.executor = executor;
+	}
+
+	public KeyedFutureTask(String key, Runnable runnable, T result, VirtualThreadExecutor executor) {
+		super(runnable, result, executor);
+		this.key = key;
+		this.executor = executor;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	@Override
+	protected void done() {
+		executor.keyedTaskDone(this);
+	}
+}
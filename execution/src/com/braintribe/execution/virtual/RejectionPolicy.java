@@ -0,0 +1,45 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * What a {@link VirtualThreadExecutor} with an admission queue does with a task when its queue is full.
+ */
+public enum RejectionPolicy {
+
+	/**
+	 * Throws a {@link RejectedExecutionException}.
+	 */
+	ABORT,
+
+	/**
+	 * Runs the task on the submitting thread, which slows the submitter down to the pace of the executor.
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * Blocks the submitting thread until the queue has room again, like a {@link com.braintribe.execution.queue.LimitedQueue}
+	 * does for thread pools.
+	 */
+	BLOCK,
+
+	/**
+	 * Drops the oldest queued task, which is cancelled if it is a future, and queues the new one instead.
+	 */
+	DISCARD_OLDEST
+}
@@ -0,0 +1,51 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.execution.virtual;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * {@link Semaphore} whose number of permits can be changed while it is in use. Lowering it does not affect the holders of
+ * permits; the available permits become negative until enough permits have been released.
+ */
+public class ResizableSemaphore extends Semaphore {
+
+	private static final long serialVersionUID = 1L;
+
+	private int permits;
+
+	public ResizableSemaphore(int permits) {
+		super(permits);
+		this.permits = permits;
+	}
+
+	public synchronized void setPermits(int permits) {
+		if (permits < 1) {
+			throw new IllegalArgumentException("The number of permits must be positive but is " + permits);
+		}
+		int delta = permits - this.permits;
+		if (delta > 0) {
+			release(delta);
+		} else if (delta < 0) {
+			reducePermits(-delta);
+		}
+		this.permits = permits;
+	}
+
+	public synchronized int getPermits() {
+		return permits;
+	}
+}
@@ -15,44 +15,49 @@
 // ============================================================================
 package com.braintribe.execution.virtual;
 
-import java.time.Instant;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Semaphore;
 
-import com.braintribe.exception.Exceptions;
-import com.braintribe.utils.date.NanoClock;
+import com.braintribe.execution.DelegatingCallable;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
 
-public class VirtualCallable<T> implements Callable<T> {
+public class VirtualCallable<T> implements DelegatingCallable<T> {
 
 	private Callable<T> delegate;
-	private Instant creationInstant;
+	private long creationNanos;
 	private VirtualThreadExecutor executor;
-	private Semaphore semaphore;
+	private boolean sampled;
 
-	public VirtualCallable(Callable<T> delegate, VirtualThreadExecutor executor, Semaphore semaphore) {
+	public VirtualCallable(Callable<T> delegate, VirtualThreadExecutor executor) {
 		this.executor = executor;
-		this.creationInstant = NanoClock.INSTANCE.instant();
+		this.sampled = executor.getMonitoringSampling().sample();
+		this.creationNanos = sampled ? System.nanoTime() : 0L;
 		this.delegate = delegate;
-		this.semaphore = semaphore;
 	}
 
 	@Override
 	public T call() throws Exception {
-		try {
-			semaphore.acquire();
-		} catch (InterruptedException e) {
-			throw Exceptions.unchecked(e);
-		}
-		String execId = executor.beforeExecute();
-		Instant executionInstant = NanoClock.INSTANCE.instant();
+		ExecutionSlot slot = executor.beforeExecute(sampled);
+		TaskEvents.started(executor.getDescription(), delegate);
+		long executionNanos = sampled ? System.nanoTime() : 0L;
+		Throwable failure = null;
 		try {
 			return this.delegate.call();
+		} catch (Throwable t) {
+			failure = t;
+			throw t;
 		} finally {
-			Instant finishedInstant = NanoClock.INSTANCE.instant();
+			long finishedNanos = sampled ? System.nanoTime() : 0L;
 
-			semaphore.release();
-			executor.afterExecute(execId);
-			executor.executionFinished(creationInstant, executionInstant, finishedInstant);
+			executor.afterExecute(slot, sampled);
+			if (sampled) {
+				executor.executionFinished(delegate, creationNanos, executionNanos, finishedNanos, failure);
+			}
 		}
 	}
+
+	@Override
+	public Callable<T> getDelegate() {
+		return delegate;
+	}
 }
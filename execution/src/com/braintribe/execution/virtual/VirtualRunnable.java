@@ -15,43 +15,47 @@
 // ============================================================================
 package com.braintribe.execution.virtual;
 
-import java.time.Instant;
-import java.util.concurrent.Semaphore;
+import com.braintribe.execution.DelegatingRunnable;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
 
-import com.braintribe.exception.Exceptions;
-import com.braintribe.utils.date.NanoClock;
-
-public class VirtualRunnable implements Runnable {
+public class VirtualRunnable implements DelegatingRunnable {
 
 	private Runnable delegate;
-	private Instant creationInstant;
+	private long creationNanos;
 	private VirtualThreadExecutor executor;
-	private Semaphore semaphore;
+	private boolean sampled;
 
-	public VirtualRunnable(Runnable delegate, VirtualThreadExecutor executor, Semaphore semaphore) {
+	public VirtualRunnable(Runnable delegate, VirtualThreadExecutor executor) {
 		this.executor = executor;
-		this.creationInstant = NanoClock.INSTANCE.instant();
+		this.sampled = executor.getMonitoringSampling().sample();
+		this.creationNanos = sampled ? System.nanoTime() : 0L;
 		this.delegate = delegate;
-		this.semaphore = semaphore;
 	}
 
 	@Override
 	public void run() {
-		try {
-			semaphore.acquire();
-		} catch (InterruptedException e) {
-			throw Exceptions.unchecked(e);
-		}
-		String execId = executor.beforeExecute();
-		Instant executionInstant = NanoClock.INSTANCE.instant();
+		ExecutionSlot slot = executor.beforeExecute(sampled);
+		TaskEvents.started(executor.getDescription(), delegate);
+		long executionNanos = sampled ? System.nanoTime() : 0L;
+		Throwable failure = null;
 		try {
 			this.delegate.run();
+		} catch (Throwable t) {
+			failure = t;
+			throw t;
 		} finally {
-			Instant finishedInstant = NanoClock.INSTANCE.instant();
+			long finishedNanos = sampled ? System.nanoTime() : 0L;
 
-			semaphore.release();
-			executor.afterExecute(execId);
-			executor.executionFinished(creationInstant, executionInstant, finishedInstant);
+			executor.afterExecute(slot, sampled);
+			if (sampled) {
+				executor.executionFinished(delegate, creationNanos, executionNanos, finishedNanos, failure);
+			}
 		}
 	}
+
+	@Override
+	public Runnable getDelegate() {
+		return delegate;
+	}
 }
@@ -17,14 +17,23 @@ package com.braintribe.execution.virtual;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -33,20 +42,43 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.braintribe.cfg.Configurable;
 import com.braintribe.cfg.LifecycleAware;
+import com.braintribe.exception.Exceptions;
 import com.braintribe.execution.context.AttributeContextTransferCallable;
 import com.braintribe.execution.context.AttributeContextTransferRunnable;
+import com.braintribe.execution.monitoring.ExecutionMonitoring;
+import com.braintribe.execution.monitoring.ExecutionSlot;
+import com.braintribe.execution.monitoring.MonitoredFutureTask;
 import com.braintribe.execution.monitoring.MonitoredThreadPool;
+import com.braintribe.execution.monitoring.MonitoringSampling;
+import com.braintribe.execution.monitoring.StandardThreadPoolStatistics;
+import com.braintribe.execution.monitoring.StuckTaskDetector;
+import com.braintribe.execution.monitoring.TaskEventHistory;
+import com.braintribe.execution.monitoring.TaskKeys;
 import com.braintribe.execution.monitoring.ThreadPoolMonitoring;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateSampler;
+import com.braintribe.execution.monitoring.jfr.TaskEvents;
 import com.braintribe.logging.Logger;
 import com.braintribe.utils.StringTools;
 import com.braintribe.utils.date.NanoClock;
 
-public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, MonitoredThreadPool {
+public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, MonitoredThreadPool, ExecutionMonitoring {
 
 	private static Logger logger = Logger.getLogger(VirtualThreadExecutor.class);
 
 	private boolean addThreadContextToNdc = true;
 	private boolean enableMonitoring = true;
+	private MonitoringSampling monitoringSampling = MonitoringSampling.all();
+	private int maxTaskKeys = 0;
+	private Duration stuckTaskThreshold = null;
+	private boolean trackCpuAndAllocation = false;
+	private boolean sampleThreadStates = false;
+	private int taskEventHistorySize = 0;
+	private List<Duration> statisticsWindows = null;
+	private boolean admissionQueue = false;
+	private int admissionQueueCapacity = Integer.MAX_VALUE;
+	private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+	private AdaptiveConcurrencyLimit adaptiveConcurrencyLimit = null;
 	private String threadNamePrefix = null;
 	private boolean interruptThreadsOnShutdown = false;
 	private Duration terminationTimeout;
@@ -56,52 +88,311 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 	private final String threadPoolId = UUID.randomUUID().toString();
 	private static AtomicLong threadIdCounter = new AtomicLong(0);
 
-	private int concurrency = 4;
+	private volatile int concurrency = 4;
 
 	private final AtomicInteger tasksPending = new AtomicInteger(0);
+	// set by shutdown(), the executor itself is only shut down once no accepted task needs a new thread anymore
+	private volatile boolean shutdown = false;
+	// the number of threads which are starting queued tasks, see shutdownWhenIdle()
+	private final AtomicInteger queuedTasksStarting = new AtomicInteger(0);
 	private ExecutorService executor;
 
-	private Semaphore semaphore;
+	private ResizableSemaphore semaphore;
+	private StandardThreadPoolStatistics statistics;
+
+	// only used with an admission queue, see setAdmissionQueue(boolean)
+	private final Queue<Runnable> queuedTasks = new ConcurrentLinkedQueue<>();
+	private Semaphore queueSlots;
+
+	private final KeyedAdmission keyedAdmission = new KeyedAdmission();
 
 	public VirtualThreadExecutor(final int concurrency) {
 		this.concurrency = concurrency;
 	}
 
-	protected String beforeExecute() {
+	protected ExecutionSlot beforeExecute() {
+		return beforeExecute(true);
+	}
+
+	/**
+	 * @param sampled
+	 *            whether timing and NDC context should be recorded for this task, see {@link MonitoringSampling}
+	 */
+	protected ExecutionSlot beforeExecute(boolean sampled) {
 
 		if (enableMonitoring) {
-			tasksPending.decrementAndGet();
+			long execId = threadIdCounter.incrementAndGet();
+			Thread currentThread = Thread.currentThread();
 
-			Long execId = threadIdCounter.incrementAndGet();
-			String execIdString = Long.toString(execId.longValue(), 36);
+			ExecutionSlot slot = null;
+			if (statistics != null && statistics.requiresExecutionSlot(sampled)) {
+				slot = statistics.acquireExecutionSlot(currentThread);
+			}
 
-			if (addThreadContextToNdc) {
-				Thread currentThread = Thread.currentThread();
-				logger.pushContext("executionId={" + execIdString + "}");
-				logger.pushContext("threadId={" + currentThread.getName() + "}");
+			if (addThreadContextToNdc && sampled) {
+				logger.pushContext(slot != null ? slot.getExecutionContext(execId) : "executionId={" + Long.toString(execId, 36) + "}");
+				logger.pushContext(slot != null ? slot.getWorkerContext() : "threadId={" + currentThread.getName() + "}");
 			}
 
-			ThreadPoolMonitoring.beforeExecution(threadPoolId, execIdString);
+			if (statistics != null) {
+				statistics.beforeExecution(slot, execId, sampled);
+			}
 
-			return execIdString;
+			return slot;
 		}
 		return null;
 	}
 
-	protected void afterExecute(String execIdString) {
+	protected void afterExecute(ExecutionSlot slot) {
+		afterExecute(slot, true);
+	}
+
+	protected void afterExecute(ExecutionSlot slot, boolean sampled) {
 
 		if (enableMonitoring) {
-			if (execIdString != null) {
-				ThreadPoolMonitoring.afterExecution(threadPoolId, execIdString);
+			if (statistics != null) {
+				statistics.afterExecution(slot);
+				statistics.releaseExecutionSlot(slot);
 			}
 
-			if (addThreadContextToNdc) {
+			if (addThreadContextToNdc && sampled) {
 				logger.popContext();
 				logger.popContext();
 			}
 		}
 	}
 
+	/**
+	 * Runs the given task on the current thread once the concurrency limit admits it. A {@link Future} which has been
+	 * cancelled meanwhile is skipped, and one whose thread gets interrupted while waiting is cancelled, so that nobody
+	 * waits for it forever.
+	 */
+	void runAdmitted(Runnable task) {
+		if (task instanceof Future && ((Future<?>) task).isDone()) {
+			tasksPending.decrementAndGet();
+			return;
+		}
+		try {
+			semaphore.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			if (task instanceof Future) {
+				((Future<?>) task).cancel(false);
+				return;
+			}
+			throw Exceptions.unchecked(e);
+		} finally {
+			tasksPending.decrementAndGet();
+		}
+		try {
+			runLimited(task);
+		} finally {
+			semaphore.release();
+		}
+	}
+
+	/**
+	 * Runs the given task, for which a permit has already been acquired, and then further queued tasks as long as the
+	 * concurrency limit admits them, see {@link #setAdmissionQueue(boolean)}.
+	 */
+	void runQueued(Runnable first) {
+		Thread currentThread = Thread.currentThread();
+		for (Runnable task = first; task != null; task = pollQueued()) {
+			if (task != first && !executor.isShutdown()) {
+				// cancelling a previous task may have left the interrupt, which must not hit the next one
+				Thread.interrupted();
+			}
+			try {
+				runLimited(task);
+			} catch (Throwable t) {
+				// as if the task had its own thread, but without leaving the queue behind
+				currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, t);
+			} finally {
+				semaphore.release();
+			}
+		}
+		shutdownWhenIdle();
+	}
+
+	/**
+	 * Runs the task, for which a permit has already been acquired, and feeds its running time and outcome into the
+	 * {@link #setAdaptiveConcurrencyLimit(AdaptiveConcurrencyLimit) adaptive concurrency limit}, if any.
+	 */
+	private void runLimited(Runnable task) {
+		AdaptiveConcurrencyLimit limit = adaptiveConcurrencyLimit;
+		if (limit == null) {
+			task.run();
+			return;
+		}
+
+		int inFlight = concurrency - semaphore.availablePermits();
+		long startedNanos = System.nanoTime();
+		boolean failed = true;
+		try {
+			task.run();
+			failed = task instanceof Future && ((Future<?>) task).state() == Future.State.FAILED;
+		} finally {
+			if (limit.onSample(System.nanoTime() - startedNanos, inFlight, failed) != concurrency) {
+				adaptConcurrency();
+			}
+		}
+	}
+
+	/**
+	 * Applies the current adaptive limit; the lock keeps concurrent changes from applying an outdated one last.
+	 */
+	private void adaptConcurrency() {
+		int limit;
+		boolean raised;
+		synchronized (semaphore) {
+			limit = adaptiveConcurrencyLimit.getLimit();
+			if (limit == concurrency) {
+				return;
+			}
+			raised = limit > concurrency;
+			concurrency = limit;
+			semaphore.setPermits(limit);
+		}
+
+		if (statistics != null) {
+			statistics.concurrencyLimitChanged(limit);
+		}
+		if (raised && admissionQueue) {
+			startQueuedTasks();
+		}
+	}
+
+	/**
+	 * Queues the task unless a permit is free and no other task is waiting, in which case it is started right away.
+	 */
+	private void enqueue(Runnable runnable, Object task) {
+		if (queuedTasks.isEmpty() && semaphore.tryAcquire()) {
+			try {
+				startQueued(runnable);
+			} catch (RejectedExecutionException e) {
+				executionRejected(task);
+				throw e;
+			}
+			executionSubmitted(task);
+			return;
+		}
+
+		if (!acquireQueueSlot(runnable, task)) {
+			return;
+		}
+		tasksPending.incrementAndGet();
+		queuedTasks.add(runnable);
+		executionSubmitted(task);
+
+		// a permit might have been released before the task was queued
+		startQueuedTasks();
+	}
+
+	/**
+	 * @return whether the task can be queued, <code>false</code> if it has been run by the caller according to the
+	 *         {@link RejectionPolicy}
+	 */
+	private boolean acquireQueueSlot(Runnable runnable, Object task) {
+		if (queueSlots.tryAcquire()) {
+			return true;
+		}
+
+		switch (rejectionPolicy) {
+			case CALLER_RUNS:
+				executionSubmitted(task);
+				runnable.run();
+				return false;
+
+			case BLOCK:
+				try {
+					queueSlots.acquire();
+					return true;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					executionRejected(task);
+					throw new RejectedExecutionException("Interrupted while waiting for room in the admission queue of thread pool " + getIdentification(), e);
+				}
+
+			case DISCARD_OLDEST:
+				while (true) {
+					Runnable oldest = queuedTasks.poll();
+					if (oldest != null) {
+						// the new task takes over the slot of the discarded one
+						tasksPending.decrementAndGet();
+						discard(oldest);
+						return true;
+					}
+					if (queueSlots.tryAcquire()) {
+						return true;
+					}
+					Thread.onSpinWait();
+				}
+
+			default:
+				executionRejected(task);
+				throw new RejectedExecutionException(
+						"The admission queue of thread pool " + getIdentification() + " is full (" + admissionQueueCapacity + " tasks)");
+		}
+	}
+
+	private void discard(Runnable queuedTask) {
+		if (queuedTask instanceof Future) {
+			((Future<?>) queuedTask).cancel(false);
+		}
+		executionRejected(queuedTask);
+	}
+
+	/**
+	 * Takes the next queued task if the concurrency limit admits it; the acquired permit then belongs to that task.
+	 */
+	private Runnable pollQueued() {
+		while (!queuedTasks.isEmpty() && semaphore.tryAcquire()) {
+			Runnable task = queuedTasks.poll();
+			if (task == null) {
+				semaphore.release();
+				continue;
+			}
+			tasksPending.decrementAndGet();
+			queueSlots.release();
+			if (task instanceof Future && ((Future<?>) task).isDone()) {
+				// cancelled while it was queued
+				semaphore.release();
+				continue;
+			}
+			return task;
+		}
+		return null;
+	}
+
+	/**
+	 * Starts a virtual thread for every queued task the concurrency limit admits, e.g. after it has been raised.
+	 */
+	private void startQueuedTasks() {
+		queuedTasksStarting.incrementAndGet();
+		try {
+			for (Runnable task = pollQueued(); task != null; task = pollQueued()) {
+				try {
+					startQueued(task);
+				} catch (RejectedExecutionException e) {
+					// only after shutdownNow(), a graceful shutdown waits for the queue
+					discard(task);
+				}
+			}
+		} finally {
+			queuedTasksStarting.decrementAndGet();
+		}
+		shutdownWhenIdle();
+	}
+
+	private void startQueued(Runnable task) {
+		try {
+			executor.execute(new AdmissionRunnable(task, this, true));
+		} catch (RejectedExecutionException e) {
+			semaphore.release();
+			throw e;
+		}
+	}
+
 	@Override
 	public void postConstruct() {
 		if (constructed) {
@@ -109,7 +400,15 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 		}
 		constructed = true;
 
-		semaphore = new Semaphore(concurrency);
+		if (adaptiveConcurrencyLimit != null) {
+			adaptiveConcurrencyLimit.setLimit(concurrency);
+			concurrency = adaptiveConcurrencyLimit.getLimit();
+		}
+
+		semaphore = new ResizableSemaphore(concurrency);
+		if (admissionQueue) {
+			queueSlots = new Semaphore(admissionQueueCapacity);
+		}
 		executor = Executors.newThreadPerTaskExecutor(new CountingVirtualThreadFactory(threadNamePrefix));
 
 		if (description == null) {
@@ -120,7 +419,7 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 			}
 		}
 
-		ThreadPoolMonitoring.registerThreadPool(threadPoolId, this);
+		statistics = ThreadPoolMonitoring.registerThreadPoolStatistics(threadPoolId, this);
 
 		logger.debug(() -> "Constructed thread pool " + getIdentification());
 	}
@@ -151,6 +450,177 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 	public void setEnableMonitoring(boolean enableMonitoring) {
 		this.enableMonitoring = enableMonitoring;
 	}
+	@Configurable
+	public void setMonitoringSampling(MonitoringSampling monitoringSampling) {
+		this.monitoringSampling = monitoringSampling != null ? monitoringSampling : MonitoringSampling.all();
+	}
+	/**
+	 * Enables statistics per task key (see {@link TaskKeys}) for up to the given number of distinct keys. Further keys are
+	 * accounted as "other".
+	 */
+	@Configurable
+	public void setMaxTaskKeys(int maxTaskKeys) {
+		this.maxTaskKeys = maxTaskKeys;
+	}
+	/**
+	 * Reports tasks running for longer than the given threshold as stuck, see {@link StuckTaskDetector}. All tasks are
+	 * watched, regardless of the {@link #setMonitoringSampling(MonitoringSampling) sampling}.
+	 */
+	@Configurable
+	public void setStuckTaskThreshold(Duration stuckTaskThreshold) {
+		this.stuckTaskThreshold = stuckTaskThreshold;
+	}
+	/**
+	 * Measures CPU time and allocated bytes of the tasks, see {@link ThreadPoolStatistics#getTotalCpuTimeInMs()}.
+	 */
+	@Configurable
+	public void setTrackCpuAndAllocation(boolean trackCpuAndAllocation) {
+		this.trackCpuAndAllocation = trackCpuAndAllocation;
+	}
+	/**
+	 * Samples the states of the worker threads, see {@link ThreadStateSampler}.
+	 */
+	@Configurable
+	public void setSampleThreadStates(boolean sampleThreadStates) {
+		this.sampleThreadStates = sampleThreadStates;
+	}
+	/**
+	 * Keeps the given number of recent task events, which are logged when a task gets stuck or is rejected, see
+	 * {@link TaskEventHistory}.
+	 */
+	@Configurable
+	public void setTaskEventHistorySize(int taskEventHistorySize) {
+		this.taskEventHistorySize = taskEventHistorySize;
+	}
+	/**
+	 * Keeps the figures of the given rolling windows, e.g. the last minute, see {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}.
+	 */
+	@Configurable
+	public void setStatisticsWindows(List<Duration> statisticsWindows) {
+		this.statisticsWindows = statisticsWindows;
+	}
+	/**
+	 * Sets the maximum number of tasks running at the same time. It can also be changed while the executor is running, in
+	 * which case running tasks are not affected by a lower limit, but new tasks only start once enough of them finished.
+	 * With an {@link #setAdaptiveConcurrencyLimit(AdaptiveConcurrencyLimit) adaptive limit}, this is where the adaption
+	 * continues from, within the bounds of the limit.
+	 */
+	@Configurable
+	public void setConcurrency(int concurrency) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("The concurrency must be positive but is " + concurrency);
+		}
+		ResizableSemaphore currentSemaphore = semaphore;
+		if (currentSemaphore == null) {
+			this.concurrency = concurrency;
+			return;
+		}
+
+		if (adaptiveConcurrencyLimit != null) {
+			adaptiveConcurrencyLimit.setLimit(concurrency);
+			adaptConcurrency();
+		} else {
+			this.concurrency = concurrency;
+			currentSemaphore.setPermits(concurrency);
+			if (admissionQueue) {
+				startQueuedTasks();
+			}
+		}
+		logger.info(() -> "Changed concurrency of thread pool " + getIdentification() + " to " + this.concurrency);
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	@Override
+	public void resize(int corePoolSize, int maximumPoolSize) {
+		setConcurrency(maximumPoolSize);
+	}
+
+	/**
+	 * Lets tasks beyond the concurrency limit wait in a queue, rather than starting a virtual thread for each of them which
+	 * then waits for a permit. A virtual thread is only started once a permit is free, so a burst of submissions costs a
+	 * queue entry per task instead of a parked thread with its stack. Tasks of <code>invokeAll</code> are admitted as a batch
+	 * either way.
+	 */
+	@Configurable
+	public void setAdmissionQueue(boolean admissionQueue) {
+		this.admissionQueue = admissionQueue;
+	}
+
+	/**
+	 * Limits the number of tasks waiting in the {@link #setAdmissionQueue(boolean) admission queue}, unbounded by default.
+	 * Further tasks are handled according to the {@link #setRejectionPolicy(RejectionPolicy) rejection policy}.
+	 */
+	@Configurable
+	public void setAdmissionQueueCapacity(int admissionQueueCapacity) {
+		if (admissionQueueCapacity < 1) {
+			throw new IllegalArgumentException("The admission queue capacity must be positive but is " + admissionQueueCapacity);
+		}
+		this.admissionQueueCapacity = admissionQueueCapacity;
+	}
+
+	@Configurable
+	public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+		this.rejectionPolicy = rejectionPolicy != null ? rejectionPolicy : RejectionPolicy.ABORT;
+	}
+
+	/**
+	 * Adapts the concurrency to the running time and failures of the tasks, between the bounds of the given limit, e.g. an
+	 * {@link AimdConcurrencyLimit} or a {@link GradientConcurrencyLimit}. The configured concurrency is where the adaption
+	 * starts. The current limit and how it evolved can be seen in {@link ThreadPoolStatistics#getConcurrencyLimitHistory()}.
+	 */
+	@Configurable
+	public void setAdaptiveConcurrencyLimit(AdaptiveConcurrencyLimit adaptiveConcurrencyLimit) {
+		this.adaptiveConcurrencyLimit = adaptiveConcurrencyLimit;
+	}
+
+	public AdaptiveConcurrencyLimit getAdaptiveConcurrencyLimit() {
+		return adaptiveConcurrencyLimit;
+	}
+
+	/**
+	 * Sets the maximum number of tasks of the same concurrency key running at the same time, see
+	 * {@link #submit(String, Callable)}; unlimited by default. It can also be changed while the executor is running, in
+	 * which case it applies as tasks of the key finish.
+	 */
+	@Configurable
+	public void setKeyConcurrency(int keyConcurrency) {
+		if (keyConcurrency < 1) {
+			throw new IllegalArgumentException("The key concurrency must be positive but is " + keyConcurrency);
+		}
+		keyedAdmission.setKeyConcurrency(keyConcurrency);
+	}
+
+	public int getKeyConcurrency() {
+		return keyedAdmission.getKeyConcurrency();
+	}
+
+	/**
+	 * @return the number of running and waiting tasks submitted with the given concurrency key
+	 */
+	public int getInFlightTasks(String key) {
+		return keyedAdmission.getInFlightTasks(key);
+	}
+
+	@Override
+	public Map<String, Integer> getInFlightTasksPerKey() {
+		return keyedAdmission.getInFlightTasksPerKey();
+	}
+
+	public boolean isAdmissionQueue() {
+		return admissionQueue;
+	}
+
+	public int getAdmissionQueueCapacity() {
+		return admissionQueueCapacity;
+	}
+
+	public RejectionPolicy getRejectionPolicy() {
+		return rejectionPolicy;
+	}
+
 	@Configurable
 	public void setThreadNamePrefix(String threadNamePrefix) {
 		this.threadNamePrefix = threadNamePrefix;
@@ -187,6 +657,46 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 		return tasksPending.get();
 	}
 
+	@Override
+	public MonitoringSampling getMonitoringSampling() {
+		return monitoringSampling;
+	}
+
+	@Override
+	public int getMaxTaskKeys() {
+		return maxTaskKeys;
+	}
+
+	@Override
+	public Duration getStuckTaskThreshold() {
+		return stuckTaskThreshold;
+	}
+
+	@Override
+	public boolean isTrackCpuAndAllocation() {
+		return trackCpuAndAllocation;
+	}
+
+	@Override
+	public boolean isSampleThreadStates() {
+		return sampleThreadStates;
+	}
+
+	@Override
+	public int getTaskEventHistorySize() {
+		return taskEventHistorySize;
+	}
+
+	@Override
+	public boolean isAdaptiveConcurrency() {
+		return adaptiveConcurrencyLimit != null;
+	}
+
+	@Override
+	public List<Duration> getStatisticsWindows() {
+		return statisticsWindows;
+	}
+
 	@Override
 	public int getThreadPoolSize() {
 		return concurrency;
@@ -202,31 +712,215 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 		return concurrency;
 	}
 
-	protected void executionFinished(Instant created, Instant executed, Instant finished) {
-		if (created == null || executed == null || finished == null) {
-			return;
+	@Override
+	public void accept(Instant created, Instant executed, Instant finished) {
+		ExecutionMonitoring.acceptAsNanos(this, created, executed, finished);
+	}
+
+	@Override
+	public void executionFinished(long createdNanos, long startedNanos, long finishedNanos) {
+		if (statistics != null) {
+			statistics.registerThreadPoolExecution(startedNanos - createdNanos, finishedNanos - startedNanos);
 		}
-		Duration enqueued = Duration.between(created, executed);
-		Duration executionTime = Duration.between(executed, finished);
-		ThreadPoolMonitoring.registerThreadPoolExecution(threadPoolId, enqueued, executionTime);
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos) {
+		executionFinished(task, createdNanos, startedNanos, finishedNanos, null);
+	}
+
+	@Override
+	public void executionFinished(Object task, long createdNanos, long startedNanos, long finishedNanos, Throwable failure) {
+		if (statistics != null) {
+			statistics.executionFinished(task, createdNanos, startedNanos, finishedNanos, failure);
+		}
+		TaskEvents.finished(description, task, startedNanos - createdNanos, finishedNanos - startedNanos);
+	}
+
+	@Override
+	public void executionSubmitted(Object task) {
+		if (statistics != null) {
+			statistics.executionSubmitted();
+		}
+		TaskEvents.submitted(description, task, this);
+	}
+
+	@Override
+	public void executionRejected(Object task) {
+		if (statistics != null) {
+			statistics.executionRejected(task);
+		}
+		TaskEvents.rejected(description, task);
+	}
+
+	/**
+	 * @deprecated use {@link #executionFinished(long, long, long)} with {@link System#nanoTime()} stamps
+	 */
+	@Deprecated
+	protected void executionFinished(Instant created, Instant executed, Instant finished) {
+		accept(created, executed, finished);
 	}
 
 	@Override
 	public <T> Future<T> submit(Callable<T> task) {
-		return executor.submit(enrich(task));
+		return submit(new MonitoredFutureTask<T>(enrich(task), this), task);
 	}
 
 	@Override
 	public Future<?> submit(Runnable task) {
-		return executor.submit(enrich(task));
+		return submit(new MonitoredFutureTask<Object>(enrich(task), null, this), task);
+	}
+
+	@Override
+	public <T> Future<T> submit(Runnable task, T result) {
+		return submit(new MonitoredFutureTask<T>(enrich(task), result, this), task);
 	}
 
+	@Override
+	public void execute(Runnable command) {
+		dispatch(enrich(command), command);
+	}
+
+	/**
+	 * Submits the task under the given concurrency key, e.g. a tenant: at most {@link #setKeyConcurrency(int) key
+	 * concurrency} tasks of the same key run at the same time, on top of the concurrency of the executor. Further tasks of
+	 * the key wait without occupying a thread or a permit, so one key cannot take all permits from the others.
+	 */
+	public <T> Future<T> submit(String key, Callable<T> task) {
+		return submitKeyed(new KeyedFutureTask<T>(key, enrich(task), this), task);
+	}
+
+	/**
+	 * See {@link #submit(String, Callable)}.
+	 */
+	public Future<?> submit(String key, Runnable task) {
+		return submitKeyed(new KeyedFutureTask<Object>(key, enrich(task), null, this), task);
+	}
+
+	private <T> Future<T> submitKeyed(KeyedFutureTask<T> future, Object task) {
+		if (shutdown) {
+			executionRejected(task);
+			throw new RejectedExecutionException("Thread pool " + getIdentification() + " has been shut down");
+		}
+
+		if (!keyedAdmission.admit(future)) {
+			// dispatched once a task of the same key is done
+			tasksPending.incrementAndGet();
+			return future;
+		}
+
+		try {
+			dispatch(future, task);
+		} catch (RejectedExecutionException e) {
+			dispatchKeyed(rejectKeyed(future));
+			throw e;
+		}
+		return future;
+	}
+
+	/**
+	 * Called by a {@link KeyedFutureTask} once it is done, so the next waiting task of its key can start.
+	 */
+	void keyedTaskDone(KeyedFutureTask<?> task) {
+		if (task.rejected) {
+			// the code which rejected it hands its permit on
+			return;
+		}
+		dispatchKeyed(releaseKeyed(task));
+		shutdownWhenIdle();
+	}
+
+	/**
+	 * @return the waiting tasks of the same key which have been admitted
+	 */
+	private List<KeyedFutureTask<?>> releaseKeyed(KeyedFutureTask<?> task) {
+		KeyedAdmission.Release release = keyedAdmission.release(task);
+		if (release.withdrawn > 0) {
+			tasksPending.addAndGet(-release.withdrawn);
+		}
+		return release.admitted;
+	}
+
+	/**
+	 * Starts keyed tasks which have just been admitted, and the waiting tasks of their keys which take over if the
+	 * executor rejects them, and so on. A loop rather than a recursion through {@link KeyedFutureTask#done()}, as after a
+	 * shutdown all waiting tasks of a key are rejected in a row.
+	 * <p>
+	 * This usually runs on the worker of a finishing task of the key, which still holds its permit. So the tasks bypass the
+	 * admission queue: its capacity has been checked when they were submitted, and a {@link RejectionPolicy} must neither
+	 * block the worker, which might be the only one to drain the queue, nor run a task nested on its stack.
+	 */
+	private void dispatchKeyed(List<KeyedFutureTask<?>> admitted) {
+		if (admitted.isEmpty()) {
+			return;
+		}
+		Queue<KeyedFutureTask<?>> tasks = new ArrayDeque<>(admitted);
+		for (KeyedFutureTask<?> task = tasks.poll(); task != null; task = tasks.poll()) {
+			tasksPending.decrementAndGet();
+			try {
+				start(task, task.getTask());
+			} catch (RejectedExecutionException e) {
+				tasks.addAll(rejectKeyed(task));
+			}
+		}
+	}
+
+	/**
+	 * Cancels an admitted keyed task which the executor rejected.
+	 * 
+	 * @return the waiting tasks of the same key which have been admitted instead
+	 */
+	private List<KeyedFutureTask<?>> rejectKeyed(KeyedFutureTask<?> task) {
+		task.rejected = true;
+		task.cancel(false);
+		return releaseKeyed(task);
+	}
+
+	private <T> Future<T> submit(MonitoredFutureTask<T> future, Object task) {
+		dispatch(future, task);
+		return future;
+	}
+
+	/**
+	 * Starts a virtual thread for the enriched task, which then waits for admission, see {@link AdmissionRunnable}, or
+	 * queues it if the executor has an admission queue.
+	 */
+	private void dispatch(Runnable runnable, Object task) {
+		if (shutdown) {
+			executionRejected(task);
+			throw new RejectedExecutionException("Thread pool " + getIdentification() + " has been shut down");
+		}
+		if (admissionQueue) {
+			enqueue(runnable, task);
+			return;
+		}
+		start(runnable, task);
+	}
+
+	/**
+	 * Starts a virtual thread for the enriched task, which then waits for admission, see {@link AdmissionRunnable}.
+	 */
+	private void start(Runnable runnable, Object task) {
+		tasksPending.incrementAndGet();
+		try {
+			executor.execute(new AdmissionRunnable(runnable, this));
+		} catch (RejectedExecutionException e) {
+			tasksPending.decrementAndGet();
+			executionRejected(task);
+			throw e;
+		}
+		executionSubmitted(task);
+	}
+
+	/**
+	 * Wraps the task into the {@link VirtualRunnable} which monitors it (only if monitoring is enabled) and transfers the
+	 * attribute context of the caller. Admission is added when the task is dispatched.
+	 */
 	private Runnable enrich(Runnable runnable) {
 		Runnable effectiveRunnable = runnable;
 
 		if (enableMonitoring) {
-			tasksPending.incrementAndGet();
-			effectiveRunnable = new VirtualRunnable(runnable, this, semaphore);
+			effectiveRunnable = new VirtualRunnable(effectiveRunnable, this);
 		}
 
 		effectiveRunnable = new AttributeContextTransferRunnable(effectiveRunnable);
@@ -238,8 +932,7 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 		Callable<S> effectiveCallable = callable;
 
 		if (enableMonitoring) {
-			tasksPending.incrementAndGet();
-			effectiveCallable = new VirtualCallable<S>(callable, this, semaphore);
+			effectiveCallable = new VirtualCallable<S>(effectiveCallable, this);
 		}
 
 		effectiveCallable = new AttributeContextTransferCallable<S>(effectiveCallable);
@@ -247,67 +940,230 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 		return effectiveCallable;
 	}
 
-	// Standard Delegating methods start here
-
 	@Override
-	public void execute(Runnable command) {
-		executor.execute(command);
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		return invokeAll(tasks, -1L);
 	}
 
 	@Override
-	public void shutdown() {
-		executor.shutdown();
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
+		return invokeAll(tasks, Math.max(unit.toNanos(timeout), 0L));
 	}
 
-	@Override
-	public List<Runnable> shutdownNow() {
-		return executor.shutdownNow();
+	/**
+	 * Runs the tasks as one {@link AdmissionBatch}, so even a huge batch occupies no more virtual threads than the
+	 * concurrency allows.
+	 * 
+	 * @param timeoutNanos
+	 *            negative to wait without a timeout
+	 */
+	private <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeoutNanos) throws InterruptedException {
+		long deadline = System.nanoTime() + timeoutNanos;
+
+		List<MonitoredFutureTask<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			futures.add(new MonitoredFutureTask<T>(enrich(task), this));
+		}
+
+		try {
+			dispatchBatch(futures);
+
+			for (MonitoredFutureTask<T> future : futures) {
+				if (future.isDone()) {
+					continue;
+				}
+				try {
+					if (timeoutNanos < 0) {
+						future.get();
+					} else {
+						future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					}
+				} catch (ExecutionException | CancellationException e) {
+					// reported by the future itself
+				} catch (TimeoutException e) {
+					cancelAll(futures);
+					break;
+				}
+			}
+		} catch (InterruptedException | RuntimeException | Error e) {
+			cancelAll(futures);
+			throw e;
+		}
+
+		return new ArrayList<>(futures);
 	}
 
-	@Override
-	public boolean isShutdown() {
-		return executor.isShutdown();
+	private void dispatchBatch(List<? extends MonitoredFutureTask<?>> futures) {
+		int size = futures.size();
+		if (size == 0) {
+			return;
+		}
+
+		if (shutdown) {
+			for (MonitoredFutureTask<?> future : futures) {
+				executionRejected(future.getTask());
+			}
+			throw new RejectedExecutionException("Thread pool " + getIdentification() + " has been shut down");
+		}
+
+		AdmissionBatch batch = new AdmissionBatch(futures, this);
+		int drainers = Math.min(size, concurrency);
+
+		tasksPending.addAndGet(size);
+		for (int i = 0; i < drainers; i++) {
+			try {
+				executor.execute(batch);
+			} catch (RejectedExecutionException e) {
+				if (i > 0) {
+					// the drainers already started process the whole batch
+					break;
+				}
+				tasksPending.addAndGet(-size);
+				for (MonitoredFutureTask<?> future : futures) {
+					executionRejected(future.getTask());
+				}
+				throw e;
+			}
+		}
+
+		for (MonitoredFutureTask<?> future : futures) {
+			executionSubmitted(future.getTask());
+		}
+	}
+
+	private static void cancelAll(List<? extends Future<?>> futures) {
+		for (Future<?> future : futures) {
+			future.cancel(true);
+		}
 	}
 
 	@Override
-	public boolean isTerminated() {
-		return executor.isTerminated();
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		try {
+			return invokeAny(tasks, -1L);
+		} catch (TimeoutException e) {
+			throw new IllegalStateException("Unexpected timeout without a timeout", e);
+		}
 	}
 
 	@Override
-	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-		return executor.awaitTermination(timeout, unit);
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return invokeAny(tasks, Math.max(unit.toNanos(timeout), 0L));
 	}
 
+	/**
+	 * Submits all tasks like {@link #submit(Callable)} and returns the result of the first one which completes normally,
+	 * cancelling the others.
+	 * 
+	 * @param timeoutNanos
+	 *            negative to wait without a timeout
+	 */
+	private <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeoutNanos)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		if (tasks.isEmpty()) {
+			throw new IllegalArgumentException("No tasks to invoke");
+		}
+		long deadline = System.nanoTime() + timeoutNanos;
+
+		BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		try {
+			for (Callable<T> task : tasks) {
+				MonitoredFutureTask<T> future = new MonitoredFutureTask<T>(enrich(task), this) {
+					@Override
+					protected void done() {
+						completed.add(this);
+					}
+				};
+				futures.add(future);
+				dispatch(future, task);
+			}
+
+			ExecutionException failure = null;
+			for (int i = 0; i < futures.size(); i++) {
+				Future<T> future;
+				if (timeoutNanos < 0) {
+					future = completed.take();
+				} else {
+					future = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (future == null) {
+						throw new TimeoutException("None of the " + futures.size() + " tasks completed within the timeout");
+					}
+				}
+				try {
+					return future.get();
+				} catch (ExecutionException e) {
+					failure = e;
+				} catch (CancellationException e) {
+					failure = new ExecutionException(e);
+				}
+			}
+			throw failure;
+
+		} finally {
+			cancelAll(futures);
+		}
+	}
+
+	// Standard Delegating methods start here
+
+	/**
+	 * Rejects further tasks. The tasks accepted so far still run: waiting keyed tasks get their own threads as their
+	 * predecessors finish and queued tasks as the concurrency is raised, hence the underlying executor is only shut down
+	 * once no key has running tasks and the admission queue is empty.
+	 */
 	@Override
-	public <T> Future<T> submit(Runnable task, T result) {
-		return executor.submit(task, result);
+	public void shutdown() {
+		shutdown = true;
+		shutdownWhenIdle();
+	}
+
+	private void shutdownWhenIdle() {
+		// the queue is checked first, a task polled from it in the meantime is covered by the counter
+		if (shutdown && queuedTasks.isEmpty() && queuedTasksStarting.get() == 0 && keyedAdmission.isIdle() && !executor.isShutdown()) {
+			executor.shutdown();
+		}
 	}
 
 	@Override
-	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
-		return executor.invokeAll(tasks);
+	public List<Runnable> shutdownNow() {
+		// the keyed backlog is drained before the running tasks are interrupted, which would admit it as they finish
+		shutdown = true;
+		executor.shutdown();
+		List<KeyedFutureTask<?>> keyedTasks = keyedAdmission.drainWaiting();
+
+		List<Runnable> result = new ArrayList<>(executor.shutdownNow());
+		for (Runnable task = queuedTasks.poll(); task != null; task = queuedTasks.poll()) {
+			tasksPending.decrementAndGet();
+			queueSlots.release();
+			result.add(task);
+		}
+		for (KeyedFutureTask<?> task : keyedTasks) {
+			tasksPending.decrementAndGet();
+			result.add(task);
+		}
+		return result;
 	}
 
 	@Override
-	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
-		return executor.invokeAll(tasks, timeout, unit);
+	public boolean isShutdown() {
+		return shutdown;
 	}
 
 	@Override
-	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
-		return executor.invokeAny(tasks);
+	public boolean isTerminated() {
+		return executor.isTerminated();
 	}
 
 	@Override
-	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
-			throws InterruptedException, ExecutionException, TimeoutException {
-		return executor.invokeAny(tasks, timeout, unit);
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
 	}
 
 	@Override
 	public void close() {
-		if (executor.isShutdown())
+		if (shutdown)
 			return;
 
 		String identification = getIdentification();
@@ -317,9 +1173,9 @@ public class VirtualThreadExecutor implements ExecutorService, LifecycleAware, M
 
 		try {
 			if (interruptThreadsOnShutdown) {
-				executor.shutdownNow();
+				shutdownNow();
 			} else {
-				executor.shutdown();
+				shutdown();
 			}
 
 			if (terminationTimeout != null)
@@ -16,6 +16,15 @@
 package com.braintribe.execution.virtual;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import com.braintribe.execution.monitoring.MonitoringSampling;
+import com.braintribe.execution.monitoring.StuckTaskDetector;
+import com.braintribe.execution.monitoring.TaskEventHistory;
+import com.braintribe.execution.monitoring.TaskKeys;
+import com.braintribe.execution.monitoring.ThreadPoolStatistics;
+import com.braintribe.execution.monitoring.ThreadStateSampler;
 
 public class VirtualThreadExecutorBuilder {
 
@@ -26,6 +35,18 @@ public class VirtualThreadExecutorBuilder {
 	private Boolean addThreadContextToNdc = null;
 	private String description = null;
 	private boolean monitoring;
+	private MonitoringSampling monitoringSampling = null;
+	private Integer maxTaskKeys = null;
+	private Duration stuckTaskThreshold = null;
+	private Boolean trackCpuAndAllocation = null;
+	private Boolean sampleThreadStates = null;
+	private Integer taskEventHistorySize = null;
+	private List<Duration> statisticsWindows = null;
+	private Boolean admissionQueue = null;
+	private Integer admissionQueueCapacity = null;
+	private RejectionPolicy rejectionPolicy = null;
+	private AdaptiveConcurrencyLimit adaptiveConcurrencyLimit = null;
+	private Integer keyConcurrency = null;
 
 	private VirtualThreadExecutorBuilder() {
 		//
@@ -68,6 +89,101 @@ public class VirtualThreadExecutorBuilder {
 		return this;
 	}
 
+	/**
+	 * Records timing, histograms and NDC context only for the tasks selected by the given sampling, e.g.
+	 * {@link MonitoringSampling#perSecond(int)}. Execution counters stay exact.
+	 */
+	public VirtualThreadExecutorBuilder monitoringSampling(MonitoringSampling monitoringSampling) {
+		this.monitoringSampling = monitoringSampling;
+		return this;
+	}
+
+	/**
+	 * Tracks statistics per task key (see {@link TaskKeys}) for up to the given number of distinct keys.
+	 */
+	public VirtualThreadExecutorBuilder maxTaskKeys(int maxTaskKeys) {
+		this.maxTaskKeys = maxTaskKeys;
+		return this;
+	}
+
+	/**
+	 * Reports tasks running for longer than the given threshold as stuck, see {@link StuckTaskDetector}.
+	 */
+	public VirtualThreadExecutorBuilder stuckTaskThreshold(Duration stuckTaskThreshold) {
+		this.stuckTaskThreshold = stuckTaskThreshold;
+		return this;
+	}
+
+	/**
+	 * Measures CPU time and allocated bytes of the tasks, see {@link ThreadPoolStatistics#getTotalCpuTimeInMs()}. Note that
+	 * the JVM does not measure these for virtual threads before Java 22.
+	 */
+	public VirtualThreadExecutorBuilder trackCpuAndAllocation(boolean trackCpuAndAllocation) {
+		this.trackCpuAndAllocation = trackCpuAndAllocation;
+		return this;
+	}
+
+	/**
+	 * Samples the states of the worker threads, see {@link ThreadStateSampler}.
+	 */
+	public VirtualThreadExecutorBuilder sampleThreadStates(boolean sampleThreadStates) {
+		this.sampleThreadStates = sampleThreadStates;
+		return this;
+	}
+
+	/**
+	 * Keeps the given number of recent task events, which are logged when a task gets stuck or is rejected, see
+	 * {@link TaskEventHistory}.
+	 */
+	public VirtualThreadExecutorBuilder taskEventHistorySize(int taskEventHistorySize) {
+		this.taskEventHistorySize = taskEventHistorySize;
+		return this;
+	}
+
+	/**
+	 * Keeps the figures of the given rolling windows, e.g. the last minute, see {@link ThreadPoolStatistics#getWindowSnapshot(Duration)}.
+	 */
+	public VirtualThreadExecutorBuilder statisticsWindows(Duration... statisticsWindows) {
+		this.statisticsWindows = Arrays.asList(statisticsWindows);
+		return this;
+	}
+
+	/**
+	 * Lets tasks beyond the concurrency wait in a queue rather than in parked virtual threads, see
+	 * {@link VirtualThreadExecutor#setAdmissionQueue(boolean)}.
+	 */
+	public VirtualThreadExecutorBuilder admissionQueue(boolean admissionQueue) {
+		this.admissionQueue = admissionQueue;
+		return this;
+	}
+
+	/**
+	 * Bounds the admission queue; further tasks are handled according to the given policy.
+	 */
+	public VirtualThreadExecutorBuilder admissionQueue(int capacity, RejectionPolicy rejectionPolicy) {
+		this.admissionQueue = true;
+		this.admissionQueueCapacity = capacity;
+		this.rejectionPolicy = rejectionPolicy;
+		return this;
+	}
+
+	/**
+	 * Adapts the concurrency to the running time and failures of the tasks, starting from the configured concurrency, see
+	 * {@link VirtualThreadExecutor#setAdaptiveConcurrencyLimit(AdaptiveConcurrencyLimit)}.
+	 */
+	public VirtualThreadExecutorBuilder adaptiveConcurrencyLimit(AdaptiveConcurrencyLimit adaptiveConcurrencyLimit) {
+		this.adaptiveConcurrencyLimit = adaptiveConcurrencyLimit;
+		return this;
+	}
+
+	/**
+	 * Limits the number of running tasks per concurrency key, see {@link VirtualThreadExecutor#submit(String, java.util.concurrent.Callable)}.
+	 */
+	public VirtualThreadExecutorBuilder keyConcurrency(int keyConcurrency) {
+		this.keyConcurrency = keyConcurrency;
+		return this;
+	}
+
 	public VirtualThreadExecutorBuilder interruptThreadsOnShutdown(boolean interruptThreadsOnShutdown) {
 		this.interruptThreadsOnShutdown = interruptThreadsOnShutdown;
 		return this;
@@ -101,6 +217,30 @@ public class VirtualThreadExecutorBuilder {
 			result.setAddThreadContextToNdc(addThreadContextToNdc);
 		if (terminationTimeout != null)
 			result.setTerminationTimeout(terminationTimeout);
+		if (monitoringSampling != null)
+			result.setMonitoringSampling(monitoringSampling);
+		if (maxTaskKeys != null)
+			result.setMaxTaskKeys(maxTaskKeys);
+		if (stuckTaskThreshold != null)
+			result.setStuckTaskThreshold(stuckTaskThreshold);
+		if (trackCpuAndAllocation != null)
+			result.setTrackCpuAndAllocation(trackCpuAndAllocation);
+		if (sampleThreadStates != null)
+			result.setSampleThreadStates(sampleThreadStates);
+		if (taskEventHistorySize != null)
+			result.setTaskEventHistorySize(taskEventHistorySize);
+		if (statisticsWindows != null)
+			result.setStatisticsWindows(statisticsWindows);
+		if (admissionQueue != null)
+			result.setAdmissionQueue(admissionQueue);
+		if (admissionQueueCapacity != null)
+			result.setAdmissionQueueCapacity(admissionQueueCapacity);
+		if (rejectionPolicy != null)
+			result.setRejectionPolicy(rejectionPolicy);
+		if (adaptiveConcurrencyLimit != null)
+			result.setAdaptiveConcurrencyLimit(adaptiveConcurrencyLimit);
+		if (keyConcurrency != null)
+			result.setKeyConcurrency(keyConcurrency);
 
 		result.postConstruct();
 	}